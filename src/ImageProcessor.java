@@ -1,13 +1,25 @@
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.Supplier;
 
+import controller.ProcessorBatchControllerImpl;
 import controller.ProcessorController;
 import controller.ProcessorControllerImpl;
 import controller.ProcessorGUIControllerImpl;
+import controller.ProcessorPrefetchingControllerImpl;
+import controller.ProcessorScheduledControllerImpl;
+import controller.ProcessorServerControllerImpl;
+import model.ColorComposition;
+import model.Parallelism;
 import model.ProcessorModel;
 import model.ProcessorModelImpl;
+import model.SaveMode;
+import view.ProcessorGUIViewImpl;
 import view.ProcessorView;
 import view.ProcessorViewImpl;
 
@@ -20,14 +32,89 @@ public class ImageProcessor {
    * @param args    arguments from command line
    */
   public static void main(String[] args) {
-    ProcessorModel model = new ProcessorModelImpl();
+    // options may appear anywhere in the arguments, so take them out before reading the mode
+    List<String> arguments = new ArrayList<>(Arrays.asList(args));
+    boolean deferPointOperations = arguments.remove("-defer");
+    boolean parallelScript = arguments.remove("-parallel");
+    ColorComposition colorComposition = ColorComposition.STEPWISE;
+    if (arguments.remove("-compose")) {
+      colorComposition = ColorComposition.ALGEBRAIC;
+    }
+    if (arguments.remove("-compose-exact")) {
+      colorComposition = ColorComposition.EXACT_CLAMPING;
+    }
+    // the number of threads defaults to the imageprocessor.threads property or the processors
+    int threadsIndex = arguments.indexOf("-threads");
+    if (threadsIndex >= 0) {
+      arguments.remove(threadsIndex);
+      try {
+        Parallelism.setThreads(Integer.parseInt(arguments.remove(threadsIndex)));
+      }
+      catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+        System.out.println("Error: -threads needs a positive number of threads, using "
+                + Parallelism.getThreads() + " threads instead");
+      }
+    }
+
+    // the most batch jobs to run at once, which batches otherwise choose themselves
+    int maxJobs = 0;
+    int jobsIndex = arguments.indexOf("-jobs");
+    if (jobsIndex >= 0) {
+      arguments.remove(jobsIndex);
+      try {
+        maxJobs = Integer.parseInt(arguments.remove(jobsIndex));
+        if (maxJobs < 1) {
+          throw new IllegalArgumentException("error: number of jobs must be positive");
+        }
+      }
+      catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+        maxJobs = 0;
+        System.out.println("Error: -jobs needs a positive number of jobs, choosing the number "
+                + "from the processors and memory instead");
+      }
+    }
+
+    // the most images a script reads ahead of its load commands, where 0 reads none ahead
+    int maxPrefetched = ProcessorPrefetchingControllerImpl.DEFAULT_MAX_PREFETCHED;
+    int prefetchIndex = arguments.indexOf("-prefetch");
+    if (prefetchIndex >= 0) {
+      arguments.remove(prefetchIndex);
+      try {
+        maxPrefetched = Integer.parseInt(arguments.remove(prefetchIndex));
+      }
+      catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+        System.out.println("Error: -prefetch needs a number of images, reading "
+                + maxPrefetched + " ahead instead");
+      }
+    }
+
+    // saves are written before the next command runs unless -saves asks for background writes
+    SaveMode saveMode = SaveMode.SYNCHRONOUS;
+    int savesIndex = arguments.indexOf("-saves");
+    if (savesIndex >= 0) {
+      arguments.remove(savesIndex);
+      try {
+        saveMode = SaveMode.fromName(arguments.remove(savesIndex));
+      }
+      catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+        System.out.println("Error: -saves needs synchronous, ordered or concurrent, "
+                + "writing saves synchronously instead");
+      }
+    }
+
+    // composing color transformations only happens on deferred chains
+    boolean deferred = deferPointOperations || colorComposition != ColorComposition.STEPWISE;
+    ColorComposition composition = colorComposition;
+    SaveMode saves = saveMode;
+    Supplier<ProcessorModel> models = () -> new ProcessorModelImpl(deferred, composition, saves);
+    ProcessorModel model = models.get();
     ProcessorView view = new ProcessorViewImpl();
     Readable inputs = new InputStreamReader(System.in);
 
-    if (args.length > 0) {
-      if (args[0].equals("-file")) {
+    if (arguments.size() > 0) {
+      if (arguments.get(0).equals("-file")) {
         // using script file: parse path of file to read from
-        String scriptFilePath = args[1];
+        String scriptFilePath = arguments.get(1);
         String[] filePathSplit = scriptFilePath.split("\\.");
 
         String extension = filePathSplit[filePathSplit.length - 1];
@@ -56,12 +143,58 @@ public class ImageProcessor {
             inputs = new StringReader(builder.toString());
           }
 
-          // run the processor with the file script as input
-          ProcessorController controller = new ProcessorControllerImpl(model, view, inputs);
+          // run the processor with the file script as input, running independent commands at
+          // the same time if asked to, or else reading images ahead of their load commands
+          ProcessorController controller;
+          if (parallelScript) {
+            controller = new ProcessorScheduledControllerImpl(model, view, inputs);
+          }
+          else if (maxPrefetched > 0) {
+            controller = new ProcessorPrefetchingControllerImpl(model, view, inputs,
+                    maxPrefetched);
+          }
+          else {
+            controller = new ProcessorControllerImpl(model, view, inputs);
+          }
+          controller.runProcessor();
+        }
+      }
+      else if (arguments.get(0).equals("-batch")) {
+        if (arguments.size() < 4) {
+          System.out.println("Error: -batch needs a template, an input directory or glob and an "
+                  + "output directory");
+          return;
+        }
+        // run the template over every input image, each on a model of its own
+        ProcessorController controller = maxJobs > 0
+                ? new ProcessorBatchControllerImpl(models, view, arguments.get(1),
+                        arguments.get(2), arguments.get(3), maxJobs)
+                : new ProcessorBatchControllerImpl(models, view, arguments.get(1),
+                        arguments.get(2), arguments.get(3));
+        try {
+          controller.runProcessor();
+        }
+        catch (IllegalStateException e) {
+          System.out.println(e.getMessage());
+        }
+      }
+      else if (arguments.get(0).equals("-server")) {
+        if (arguments.size() < 2) {
+          System.out.println("Error: -server needs a port or the path of a Unix-domain socket");
+          return;
+        }
+        // serve sessions until the program is stopped, each on a model of its own
+        try {
+          ProcessorServerControllerImpl controller = new ProcessorServerControllerImpl(models,
+                  view, arguments.get(1));
+          Runtime.getRuntime().addShutdownHook(new Thread(controller::stop));
           controller.runProcessor();
         }
+        catch (IllegalArgumentException | IllegalStateException e) {
+          System.out.println(e.getMessage());
+        }
       }
-      else if (args[0].equals("-text")) {
+      else if (arguments.get(0).equals("-text")) {
         // run the image processor using live keyboard input and text output
         ProcessorController controller = new ProcessorControllerImpl(model, view,
                 new InputStreamReader(System.in));
@@ -69,8 +202,10 @@ public class ImageProcessor {
       }
     }
     else {
-      // run the image processor using the GUI
-      ProcessorController controller = new ProcessorGUIControllerImpl();
+      // run the image processor using the GUI, which shows save errors as soon as it saves
+      ProcessorModel guiModel = new ProcessorModelImpl(deferred, composition);
+      ProcessorController controller = new ProcessorGUIControllerImpl(guiModel,
+              new ProcessorGUIViewImpl(guiModel));
       controller.runProcessor();
     }
   }
@@ -0,0 +1,51 @@
+package controller;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import view.ProcessorView;
+
+/**
+ * Helpers for the controllers that run many scripts at once on threads of their own.
+ */
+final class ControllerThreads {
+  private ControllerThreads() {
+  }
+
+  /**
+   * Returns an executor that starts a virtual thread for every task if the Java runtime has
+   * them, or the given executor otherwise.
+   *
+   * @param fallback    makes the executor used when there are no virtual threads
+   * @return            an executor for the tasks
+   */
+  static ExecutorService newExecutor(Supplier<ExecutorService> fallback) {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+              .invoke(null);
+    }
+    catch (ReflectiveOperationException | RuntimeException e) {
+      return fallback.get();
+    }
+  }
+
+  /**
+   * Shows a message on a view that many threads share, one thread at a time.
+   *
+   * @param view                        the view the message is shown on
+   * @param message                     the message to show
+   * @throws IllegalStateException      if the view fails to show the message
+   */
+  static void render(ProcessorView view, String message) {
+    synchronized (view) {
+      try {
+        view.renderMessage(message);
+      }
+      catch (IOException e) {
+        throw new IllegalStateException("error: controller failed to write message");
+      }
+    }
+  }
+}
@@ -0,0 +1,372 @@
+package controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import controller.command.ImageProcessorCommand;
+import model.ProcessorModel;
+import model.ProcessorModelImpl;
+import view.ProcessorView;
+
+/**
+ * Represents a controller that runs one script template over every image in a directory, or
+ * every file matching a glob, with each image as an independent job on its own model.
+ *
+ * <p>The template is a script like the ones given to -file, in which {input} is replaced with the
+ * path of the image, {name} with its file name without the extension, {ext} with the extension
+ * and {output} with the output directory. Blank lines and lines starting with # are skipped, and
+ * a line with q or quit ends the script. A job stops at the first command that fails, and the
+ * error is shown with the path of its image.
+ *
+ * <p>Jobs run on virtual threads when the Java runtime has them and otherwise on a pool of
+ * threads. The number of jobs running at once is limited by the number of processors and by
+ * the memory a job is expected to need, estimated from the size of the largest image and the
+ * number of images the template makes. A summary of the throughput is shown at the end, in
+ * which only the images that a job managed to read count toward the bytes read.
+ */
+public class ProcessorBatchControllerImpl implements ProcessorController {
+  // the file extensions the processor can load, which a directory is filtered by
+  private static final List<String> EXTENSIONS = List.of("ppm", "png", "jpg", "bmp");
+  // the bytes each pixel of an image takes in memory
+  private static final int BYTES_PER_PIXEL = 4;
+  // jobs read and write files as well as compute, so run more of them than there are processors
+  private static final int JOBS_PER_PROCESSOR = 2;
+
+  private final Supplier<ProcessorModel> models;
+  private final ProcessorView view;
+  private final String templatePath;
+  private final String inputs;
+  private final String outputDirectory;
+  private final int maxJobs;
+
+  /**
+   * Constructs a controller.ProcessorBatchControllerImpl object that runs up to two jobs for
+   * each processor at once, or fewer if memory is short.
+   * @param models                      makes the empty model each job runs on
+   * @param view                        where errors and the summary are shown
+   * @param templatePath                the path of the script template
+   * @param inputs                      a directory, whose images are all processed, or a path
+   *                                    whose file name is a glob like images/*.png
+   * @param outputDirectory             the directory {output} is replaced with, created if it
+   *                                    does not exist
+   * @throws IllegalArgumentException   if any argument is null
+   */
+  public ProcessorBatchControllerImpl(Supplier<ProcessorModel> models, ProcessorView view,
+                                      String templatePath, String inputs,
+                                      String outputDirectory) {
+    this(models, view, templatePath, inputs, outputDirectory,
+            JOBS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructs a controller.ProcessorBatchControllerImpl object.
+   * @param models                      makes the empty model each job runs on
+   * @param view                        where errors and the summary are shown
+   * @param templatePath                the path of the script template
+   * @param inputs                      a directory, whose images are all processed, or a path
+   *                                    whose file name is a glob like images/*.png
+   * @param outputDirectory             the directory {output} is replaced with, created if it
+   *                                    does not exist
+   * @param maxJobs                     the most jobs to run at once, or fewer if memory is short
+   * @throws IllegalArgumentException   if any argument is null or maxJobs is less than 1
+   */
+  public ProcessorBatchControllerImpl(Supplier<ProcessorModel> models, ProcessorView view,
+                                      String templatePath, String inputs,
+                                      String outputDirectory, int maxJobs) {
+    if (models == null || view == null || templatePath == null || inputs == null
+            || outputDirectory == null) {
+      throw new IllegalArgumentException("error: argument null when constructing controller");
+    }
+    if (maxJobs < 1) {
+      throw new IllegalArgumentException("error: number of jobs must be positive");
+    }
+
+    this.models = models;
+    this.view = view;
+    this.templatePath = templatePath;
+    this.inputs = inputs;
+    this.outputDirectory = outputDirectory;
+    this.maxJobs = maxJobs;
+  }
+
+  @Override
+  public void runProcessor() {
+    List<String[]> template = this.readTemplate();
+    List<Function<String[], ImageProcessorCommand>> functions = new ArrayList<>();
+    for (String[] line : template) {
+      try {
+        functions.add(ProcessorControllerImpl.textCommand(line[0]));
+      }
+      catch (IllegalArgumentException e) {
+        throw new IllegalStateException("Error: command " + line[0]
+                + " in the template not found");
+      }
+    }
+
+    List<Path> images = this.listImages();
+    try {
+      Files.createDirectories(Paths.get(this.outputDirectory));
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Error: failed to create output directory "
+              + this.outputDirectory);
+    }
+
+    int jobs = this.jobLimit(images, template);
+    Semaphore running = new Semaphore(jobs);
+    AtomicInteger failed = new AtomicInteger();
+    AtomicLong bytesRead = new AtomicLong();
+    long start = System.nanoTime();
+
+    ExecutorService executor = ControllerThreads.newExecutor(
+            () -> Executors.newFixedThreadPool(jobs));
+    try {
+      for (Path image : images) {
+        // wait for a job to finish before starting another, so that at most jobs images are
+        // ever in memory
+        running.acquireUninterruptibly();
+        executor.execute(() -> {
+          try {
+            if (!this.runJob(image, template, functions, bytesRead)) {
+              failed.incrementAndGet();
+            }
+          }
+          finally {
+            running.release();
+          }
+        });
+      }
+    }
+    finally {
+      executor.shutdown();
+      try {
+        while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+          // keep waiting for the last jobs
+        }
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+    ControllerThreads.render(this.view, String.format(Locale.ROOT,
+            "Processed %d images (%d failed) in %.2f s with up to %d jobs at once: "
+                    + "%.1f images/s, %.1f MB/s read\n",
+            images.size(), failed.get(), seconds, jobs, images.size() / seconds,
+            bytesRead.get() / seconds / 1e6));
+  }
+
+  @Override
+  public Function<String[], ImageProcessorCommand> processCommand(String command) {
+    return ProcessorControllerImpl.textCommand(command);
+  }
+
+  // runs the template on one image with a model of its own, returning false if a command failed;
+  // the size of the image is added to bytesRead once a command has read it
+  private boolean runJob(Path image, List<String[]> template,
+                         List<Function<String[], ImageProcessorCommand>> functions,
+                         AtomicLong bytesRead) {
+    ProcessorModel model = this.models.get();
+    String imageResource = ImageProcessorCommand.fileResource(image.toString());
+    boolean read = false;
+    String fileName = image.getFileName().toString();
+    int dot = fileName.lastIndexOf('.');
+    String name = dot < 0 ? fileName : fileName.substring(0, dot);
+    String extension = dot < 0 ? "" : fileName.substring(dot + 1);
+
+    for (int line = 0; line < template.size(); line++) {
+      String[] tokens = template.get(line);
+      String[] args = new String[tokens.length - 1];
+      for (int index = 1; index < tokens.length; index++) {
+        args[index - 1] = tokens[index].replace("{input}", image.toString())
+                .replace("{name}", name)
+                .replace("{ext}", extension)
+                .replace("{output}", this.outputDirectory);
+      }
+
+      try {
+        ImageProcessorCommand command = functions.get(line).apply(args);
+        command.executeCommand(model);
+        Set<String> reads = command.getReads();
+        if (!read && reads != null && reads.contains(imageResource)) {
+          read = true;
+          bytesRead.addAndGet(sizeOf(image));
+        }
+      }
+      catch (IndexOutOfBoundsException e) {
+        return this.fail(image, tokens[0], "Not enough arguments given");
+      }
+      catch (IllegalArgumentException | IllegalStateException e) {
+        // NumberFormatException is an IllegalArgumentException
+        return this.fail(image, tokens[0], e.getMessage());
+      }
+      catch (RuntimeException e) {
+        // one image should never stop the rest of the batch
+        return this.fail(image, tokens[0], e.toString());
+      }
+    }
+
+    // the job is done once its saves are written
+    try {
+      model.flush();
+    }
+    catch (RuntimeException e) {
+      return this.fail(image, "save", e.getMessage());
+    }
+    return true;
+  }
+
+  // shows why a job failed and returns false
+  private boolean fail(Path image, String commandName, String message) {
+    ControllerThreads.render(this.view,
+            "Error: " + image + ": " + commandName + ": " + message + "\n");
+    return false;
+  }
+
+  // reads the commands of the template, split into words, up to the first q or quit
+  private List<String[]> readTemplate() {
+    List<String> lines;
+    try {
+      lines = Files.readAllLines(Paths.get(this.templatePath), StandardCharsets.UTF_8);
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Error: failed to read template " + this.templatePath);
+    }
+
+    List<String[]> template = new ArrayList<>();
+    for (String line : lines) {
+      String trimmed = line.trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      if (trimmed.equalsIgnoreCase("q") || trimmed.equalsIgnoreCase("quit")) {
+        break;
+      }
+      template.add(trimmed.split("\\s+"));
+    }
+    return template;
+  }
+
+  // lists the images to process in order of their paths
+  private List<Path> listImages() {
+    Path path = Paths.get(this.inputs);
+    boolean isDirectory = Files.isDirectory(path);
+    Path directory = isDirectory ? path : path.getParent();
+    if (directory == null) {
+      directory = Paths.get(".");
+    }
+    String glob = isDirectory ? "*" : path.getFileName().toString();
+
+    List<Path> images = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+      for (Path file : files) {
+        if (Files.isRegularFile(file) && (!isDirectory || hasImageExtension(file))) {
+          images.add(file);
+        }
+      }
+    }
+    catch (IOException | IllegalArgumentException e) {
+      throw new IllegalStateException("Error: failed to list images in " + this.inputs);
+    }
+    Collections.sort(images);
+    return images;
+  }
+
+  // returns how many jobs to run at once: no more than maxJobs, and no more than fit in the
+  // memory left, going by the largest image
+  private int jobLimit(List<Path> images, List<String[]> template) {
+    Path largest = null;
+    for (Path image : images) {
+      if (largest == null || sizeOf(image) > sizeOf(largest)) {
+        largest = image;
+      }
+    }
+    if (largest == null) {
+      return 1;
+    }
+
+    // every command except saving makes an image, and the loaders hold a copy of the file
+    long imagesPerJob = 1;
+    for (String[] line : template) {
+      if (!line[0].equals("save")) {
+        imagesPerJob++;
+      }
+    }
+    long jobBytes = pixelsOf(largest) * BYTES_PER_PIXEL * imagesPerJob + 2 * sizeOf(largest);
+
+    Runtime runtime = Runtime.getRuntime();
+    long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    // leave a quarter of the memory for everything else
+    long fit = available / 4 * 3 / Math.max(jobBytes, 1);
+    return (int) Math.max(1, Math.min(this.maxJobs, fit));
+  }
+
+  // returns whether a file has the extension of an image the processor can load
+  private static boolean hasImageExtension(Path file) {
+    String fileName = file.getFileName().toString();
+    int dot = fileName.lastIndexOf('.');
+    return dot >= 0 && EXTENSIONS.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+  }
+
+  // returns the size of a file in bytes, or 0 if it cannot be read
+  private static long sizeOf(Path file) {
+    try {
+      return Files.size(file);
+    }
+    catch (IOException e) {
+      return 0;
+    }
+  }
+
+  // returns the number of pixels in an image from its header, or an estimate from the size of
+  // the file, which is never smaller than the pixels of a PPM file, if the header cannot be read
+  private static long pixelsOf(Path image) {
+    String fileName = image.getFileName().toString().toLowerCase(Locale.ROOT);
+    try {
+      if (fileName.endsWith(".ppm")) {
+        int[] size = ProcessorModelImpl.readPPMSize(image.toString());
+        return (long) size[0] * size[1];
+      }
+      try (ImageInputStream stream = ImageIO.createImageInputStream(image.toFile())) {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+        if (readers.hasNext()) {
+          ImageReader reader = readers.next();
+          try {
+            reader.setInput(stream, true, true);
+            return (long) reader.getWidth(0) * reader.getHeight(0);
+          }
+          finally {
+            reader.dispose();
+          }
+        }
+      }
+    }
+    catch (IOException | RuntimeException e) {
+      // fall back to the size of the file
+    }
+    return sizeOf(image);
+  }
+}
@@ -2,6 +2,7 @@ package controller;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -10,7 +11,10 @@ import java.util.function.Function;
 
 import controller.command.BlueComponent;
 import controller.command.Blur;
+import controller.command.BoxBlur;
 import controller.command.Brighten;
+import controller.command.Filter;
+import controller.command.GaussianBlur;
 import controller.command.GreenComponent;
 import controller.command.Greyscale;
 import controller.command.HorizontalFlip;
@@ -18,12 +22,14 @@ import controller.command.ImageProcessorCommand;
 import controller.command.IntensityComponent;
 import controller.command.Load;
 import controller.command.LumaComponent;
+import controller.command.Median;
 import controller.command.RedComponent;
 import controller.command.Save;
 import controller.command.Sepia;
 import controller.command.Sharpen;
 import controller.command.ValueComponent;
 import controller.command.VerticalFlip;
+import model.EdgeMode;
 import model.ProcessorModel;
 import view.ProcessorView;
 
@@ -31,6 +37,9 @@ import view.ProcessorView;
  * Represents simple functions for the controller.ProcessorController interface.
  */
 public class ProcessorControllerImpl implements ProcessorController {
+  // the commands of the text protocol by name, which need no controller or model to look up
+  private static final Map<String, Function<String[], ImageProcessorCommand>> COMMANDS =
+          Collections.unmodifiableMap(textCommands());
   private final ProcessorModel model;
   private final ProcessorView view;
   private final Readable input;
@@ -66,28 +75,7 @@ public class ProcessorControllerImpl implements ProcessorController {
 
   @Override
   public void runProcessor() {
-    String welcomeMessage = "Welcome to the image processor!\n"
-            + "Please enter a command in one of the following formats to start: \n"
-            + "load image-path image-name\n"
-            + "save image-path image-name\n"
-            + "red-component image-name dest-image-name\n"
-            + "green-component image-name dest-image-name\n"
-            + "blue-component image-name dest-image-name\n"
-            + "value-component image-name dest-image-name\n"
-            + "intensity-component image-name dest-image-name\n"
-            + "luma-component image-name dest-image-name\n"
-            + "vertical-flip image-name dest-image-name\n"
-            + "horizontal-flip image-name dest-image-name\n"
-            + "brighten increment image-name dest-image-name\n"
-            + "blur image-name dest-image-name\n"
-            + "sharpen image-name dest-image-name\n"
-            + "greyscale image-name dest-image-name\n"
-            + "sepia image-name dest-image-name\n";
-
-    // check if displaying welcome message is successful
-    if (!renderMessageSuccessful(welcomeMessage)) {
-      throw new IllegalStateException("Error: controller failed to write welcome message");
-    }
+    this.renderWelcomeMessage();
 
     // create map of commands
     Map<String, Function<String[], ImageProcessorCommand>> knownCommands =
@@ -107,89 +95,137 @@ public class ProcessorControllerImpl implements ProcessorController {
         continue;
       }
 
-      // parse command as a String array, first String is the command name
-      String commandName = userInput[0];
-
-      if (commandName.equalsIgnoreCase("q")
-              || commandName.equalsIgnoreCase("quit")) {
+      if (isQuit(userInput)) {
         // if user wants to quit, display quit message and stop program
-        try {
-          this.view.renderMessage("Image processor quit. Goodbye!");
-          scan.close();
-          return;
-        } catch (IOException e) {
-          throw new IllegalStateException("error: controller failed to write quit message");
-        }
+        this.flushSaves();
+        this.renderQuitMessage();
+        scan.close();
+        return;
       }
 
-      // get command function from known commands
-      Function<String[], ImageProcessorCommand> commandFunction =
-              knownCommands.getOrDefault(commandName, null);
-
-      // ask for new input if the command is invalid
-      if (commandFunction == null) {
-        if (!renderMessageSuccessful(
-                "Error: command " + commandName + " not found. Please re-enter: \n")) {
-          throw new IllegalStateException("error: controller failed to write message");
-        }
+      ImageProcessorCommand command;
+      try {
+        command = this.parseCommand(userInput, knownCommands);
       }
-      else {
-        ImageProcessorCommand command;
-        // if not enough arguments provided, ask to reenter
-        try {
-          command = commandFunction.apply(Arrays.copyOfRange(
-                  userInput, 1, userInput.length));
-        }
-        catch (IndexOutOfBoundsException e) {
-          // IndexOutOfBoundsException occurs when there are not enough arguments in the command
-          if (!renderMessageSuccessful("Error: Not enough arguments given. Please re-enter: \n")) {
-            throw new IllegalStateException("error: controller failed to write message");
-          }
-          continue;
-        }
-        catch (NumberFormatException e) {
-          // NumberFormatException occurs when expected int argument but given something else
-          String errorMessage = "Error: Non-integer value given when integer arg expected."
-                  + " Please re-enter: \n";
-          if (!renderMessageSuccessful(errorMessage)) {
-            throw new IllegalStateException("error: controller failed to write message");
-          }
-          continue;
-        }
-        catch (IllegalArgumentException e) {
-          // IllegalArgumentException occurs when argument is unexpectedly empty or null
-          String errorMessage = "Error: Null or empty argument given to command."
-                  + " Please re-enter: \n";
-          if (!renderMessageSuccessful(errorMessage)) {
-            throw new IllegalStateException("error: controller failed to write message");
-          }
-          continue;
-        }
-
-        try {
-          command.executeCommand(this.model);
-        }
-        catch (IllegalArgumentException e) {
-          // if exception is thrown regarding input, ask user to reenter command
-          if (!renderMessageSuccessful(e.getMessage() + "\nPlease re-enter: \n")) {
-            throw new IllegalStateException("error: controller failed to write message");
-          }
-          continue;
-        }
-
-        // after executing command, confirm to user that command was executed successfully
-        if (!this.renderMessageSuccessful("Command executed successfully!\n")) {
-          throw new IllegalStateException("error: controller failed to write message");
-        }
+      catch (IllegalArgumentException e) {
+        // ask for new input if the command is invalid
+        this.renderMessage(e.getMessage());
+        continue;
       }
+
+      this.renderMessage(this.executeCommand(command));
     }
 
     // if no more input and processor has not quit, throw exception:
     // scanner fails to read input or not enough input provided
     scan.close();
+    this.flushSaves();
     throw new IllegalStateException("Error: failed to read input");
   }
 
+  // prints the formats of every command to the display
+  protected void renderWelcomeMessage() {
+    String welcomeMessage = "Welcome to the image processor!\n"
+            + "Please enter a command in one of the following formats to start: \n"
+            + "load image-path image-name\n"
+            + "save image-path image-name\n"
+            + "red-component image-name dest-image-name\n"
+            + "green-component image-name dest-image-name\n"
+            + "blue-component image-name dest-image-name\n"
+            + "value-component image-name dest-image-name\n"
+            + "intensity-component image-name dest-image-name\n"
+            + "luma-component image-name dest-image-name\n"
+            + "vertical-flip image-name dest-image-name\n"
+            + "horizontal-flip image-name dest-image-name\n"
+            + "brighten increment image-name dest-image-name\n"
+            + "blur image-name dest-image-name [zero|clamp|mirror|wrap]\n"
+            + "sharpen image-name dest-image-name [zero|clamp|mirror|wrap]\n"
+            + "box-blur radius image-name dest-image-name [zero|clamp|mirror|wrap]\n"
+            + "gaussian-blur sigma image-name dest-image-name [zero|clamp|mirror|wrap]\n"
+            + "filter kernel-path image-name dest-image-name [zero|clamp|mirror|wrap]\n"
+            + "median radius image-name dest-image-name [clamp|zero|mirror|wrap]\n"
+            + "greyscale image-name dest-image-name\n"
+            + "sepia image-name dest-image-name\n";
+
+    // check if displaying welcome message is successful
+    if (!renderMessageSuccessful(welcomeMessage)) {
+      throw new IllegalStateException("Error: controller failed to write welcome message");
+    }
+  }
+
+  // waits for every save to be written, throwing the error of the first that failed
+  protected void flushSaves() {
+    this.model.flush();
+  }
+
+  // prints the message shown when the processor quits
+  protected void renderQuitMessage() {
+    try {
+      this.view.renderMessage("Image processor quit. Goodbye!");
+    } catch (IOException e) {
+      throw new IllegalStateException("error: controller failed to write quit message");
+    }
+  }
+
+  // prints a message to the display, throwing an exception if it fails
+  protected void renderMessage(String message) {
+    if (!renderMessageSuccessful(message)) {
+      throw new IllegalStateException("error: controller failed to write message");
+    }
+  }
+
+  // returns whether a line of input, split at spaces, asks to quit the processor
+  protected static boolean isQuit(String[] userInput) {
+    return userInput[0].equalsIgnoreCase("q") || userInput[0].equalsIgnoreCase("quit");
+  }
+
+  // makes the command a line of input, split at spaces, asks for, throwing an
+  // IllegalArgumentException with the message asking to re-enter it if it cannot be made
+  protected ImageProcessorCommand parseCommand(String[] userInput,
+          Map<String, Function<String[], ImageProcessorCommand>> knownCommands) {
+    // parse command as a String array, first String is the command name
+    String commandName = userInput[0];
+
+    // get command function from known commands
+    Function<String[], ImageProcessorCommand> commandFunction =
+            knownCommands.getOrDefault(commandName, null);
+    if (commandFunction == null) {
+      throw new IllegalArgumentException(
+              "Error: command " + commandName + " not found. Please re-enter: \n");
+    }
+
+    try {
+      return commandFunction.apply(Arrays.copyOfRange(userInput, 1, userInput.length));
+    }
+    catch (IndexOutOfBoundsException e) {
+      // IndexOutOfBoundsException occurs when there are not enough arguments in the command
+      throw new IllegalArgumentException("Error: Not enough arguments given. Please re-enter: \n");
+    }
+    catch (NumberFormatException e) {
+      // NumberFormatException occurs when expected int argument but given something else
+      throw new IllegalArgumentException("Error: Non-integer value given when integer arg "
+              + "expected. Please re-enter: \n");
+    }
+    catch (IllegalArgumentException e) {
+      // IllegalArgumentException occurs when argument is unexpectedly empty or null
+      throw new IllegalArgumentException("Error: Null or empty argument given to command."
+              + " Please re-enter: \n");
+    }
+  }
+
+  // executes a command on the model and returns the message confirming it, or asking the user to
+  // reenter it if it was given bad input
+  protected String executeCommand(ImageProcessorCommand command) {
+    try {
+      command.executeCommand(this.model);
+    }
+    catch (IllegalArgumentException e) {
+      return e.getMessage() + "\nPlease re-enter: \n";
+    }
+    // after executing command, confirm to user that command was executed successfully
+    return "Command executed successfully!\n";
+  }
+
   @Override
   public Function<String[], ImageProcessorCommand> processCommand(String command) {
     Function<String[], ImageProcessorCommand> commandFunc =
@@ -204,6 +240,26 @@ public class ProcessorControllerImpl implements ProcessorController {
   }
 
   protected Map<String, Function<String[], ImageProcessorCommand>> createMapOfCommands() {
+    return new HashMap<>(COMMANDS);
+  }
+
+  /**
+   * Returns the function that makes the command with the given name from its arguments, without
+   * making a controller or a model.
+   * @param command                     the name of the command
+   * @return                            the function that makes the command
+   * @throws IllegalArgumentException   if there is no command with the name
+   */
+  static Function<String[], ImageProcessorCommand> textCommand(String command) {
+    Function<String[], ImageProcessorCommand> commandFunc = COMMANDS.get(command);
+    if (commandFunc == null) {
+      throw new IllegalArgumentException("Error: command not found in controller");
+    }
+    return commandFunc;
+  }
+
+  // makes the map of every command of the text protocol by name
+  private static Map<String, Function<String[], ImageProcessorCommand>> textCommands() {
     Map<String, Function<String[], ImageProcessorCommand>> knownCommands = new HashMap<>();
     knownCommands.put("load", (String[] args) -> new Load(args[0], args[1]));
     knownCommands.put("save", (String[] args) -> new Save(args[0], args[1]));
@@ -218,8 +274,25 @@ public class ProcessorControllerImpl implements ProcessorController {
     knownCommands.put("horizontal-flip", (String[] args) -> new HorizontalFlip(args[0], args[1]));
     knownCommands.put("brighten", (String[] args) ->
             new Brighten(Integer.parseInt(args[0]), args[1], args[2]));
-    knownCommands.put("blur", (String[] args) -> new Blur(args[0], args[1]));
-    knownCommands.put("sharpen", (String[] args) -> new Sharpen(args[0], args[1]));
+    knownCommands.put("blur", (String[] args) -> args.length > 2
+            ? new Blur(args[0], args[1], EdgeMode.fromName(args[2]))
+            : new Blur(args[0], args[1]));
+    knownCommands.put("sharpen", (String[] args) -> args.length > 2
+            ? new Sharpen(args[0], args[1], EdgeMode.fromName(args[2]))
+            : new Sharpen(args[0], args[1]));
+    knownCommands.put("box-blur", (String[] args) -> args.length > 3
+            ? new BoxBlur(Integer.parseInt(args[0]), args[1], args[2], EdgeMode.fromName(args[3]))
+            : new BoxBlur(Integer.parseInt(args[0]), args[1], args[2]));
+    knownCommands.put("gaussian-blur", (String[] args) -> args.length > 3
+            ? new GaussianBlur(Double.parseDouble(args[0]), args[1], args[2],
+                    EdgeMode.fromName(args[3]))
+            : new GaussianBlur(Double.parseDouble(args[0]), args[1], args[2]));
+    knownCommands.put("filter", (String[] args) -> args.length > 3
+            ? new Filter(args[0], args[1], args[2], EdgeMode.fromName(args[3]))
+            : new Filter(args[0], args[1], args[2]));
+    knownCommands.put("median", (String[] args) -> args.length > 3
+            ? new Median(Integer.parseInt(args[0]), args[1], args[2], EdgeMode.fromName(args[3]))
+            : new Median(Integer.parseInt(args[0]), args[1], args[2]));
     knownCommands.put("greyscale", (String[] args) -> new Greyscale(args[0], args[1]));
     knownCommands.put("sepia", (String[] args) -> new Sepia(args[0], args[1]));
     return knownCommands;
@@ -6,6 +6,7 @@ import java.io.StringReader;
 import java.util.function.Function;
 
 import controller.command.ImageProcessorCommand;
+import model.EdgeMode;
 import model.ProcessorModel;
 import model.ProcessorModelImpl;
 import view.ProcessorGUIView;
@@ -112,6 +113,64 @@ public class ProcessorGUIControllerImpl implements ProcessorController, ActionLi
 
         break;
       }
+      case "Box Blur": {
+        try {
+          int radius = this.view.getBoxBlurRadius();
+          String currImageName = this.model.getNameLastEdited();
+          String newImageName = currImageName + "BoxBlur";
+          this.model.boxBlur(radius, currImageName, newImageName, EdgeMode.CLAMP);
+          this.view.updateImage(newImageName);
+        }
+        catch (IllegalArgumentException exception) {
+          break;
+        }
+
+        break;
+      }
+      case "Gaussian Blur": {
+        try {
+          double sigma = this.view.getGaussianSigma();
+          String currImageName = this.model.getNameLastEdited();
+          String newImageName = currImageName + "GaussianBlur";
+          this.model.gaussianBlur(sigma, currImageName, newImageName, EdgeMode.CLAMP);
+          this.view.updateImage(newImageName);
+        }
+        catch (IllegalArgumentException exception) {
+          break;
+        }
+
+        break;
+      }
+      case "Median": {
+        try {
+          int radius = this.view.getMedianRadius();
+          String currImageName = this.model.getNameLastEdited();
+          String newImageName = currImageName + "Median";
+          this.model.median(radius, currImageName, newImageName, EdgeMode.CLAMP);
+          this.view.updateImage(newImageName);
+        }
+        catch (IllegalArgumentException exception) {
+          break;
+        }
+
+        break;
+      }
+      case "Custom Filter": {
+        String kernelPath = this.view.getKernelPath();
+        if (kernelPath != null) {
+          try {
+            String currImageName = this.model.getNameLastEdited();
+            String newImageName = currImageName + "CustomFilter";
+            this.model.filter(kernelPath, currImageName, newImageName, EdgeMode.CLAMP);
+            this.view.updateImage(newImageName);
+          }
+          catch (IllegalArgumentException exception) {
+            break;
+          }
+        }
+
+        break;
+      }
       default: {
         // for commands that represent image operations with no arguments besides name, use commands
         String currImageName = this.model.getNameLastEdited();
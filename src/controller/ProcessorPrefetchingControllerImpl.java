@@ -0,0 +1,200 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import controller.command.ImageProcessorCommand;
+import controller.command.Load;
+import model.ImageModel;
+import model.ProcessorModel;
+import view.ProcessorView;
+
+/**
+ * A text controller that reads the whole script before running it one line at a time, and reads
+ * the images of upcoming load commands on background threads while the lines before them run.
+ * When a load command is reached, the image read for it is added to the model instead of reading
+ * the file then. Messages are the same as the ones ProcessorControllerImpl prints.
+ *
+ * <p>At most maxPrefetched images are read ahead at once, counting the ones that are read and
+ * waiting for their command, so the memory they take stays bounded. A load is not read ahead
+ * while a command before it may still write its file, such as a save to the same path, or
+ * a command that does not tell what it writes.
+ */
+public class ProcessorPrefetchingControllerImpl extends ProcessorControllerImpl {
+  /**
+   * The number of images read ahead at once by default.
+   */
+  public static final int DEFAULT_MAX_PREFETCHED = 2;
+  // the most lines past the current one looked through for load commands
+  private static final int LOOK_AHEAD_LINES = 256;
+  private final ProcessorModel model;
+  private final Readable input;
+  private final int maxPrefetched;
+
+  /**
+   * Constructs a controller that reads up to maxPrefetched images ahead at once.
+   * @param model                       where the data of the image processor is stored
+   * @param view                        the display of the image processor
+   * @param input                       the location where the script will be read
+   * @param maxPrefetched               the most images to read ahead at once
+   * @throws IllegalArgumentException   if model, view, or input is null, or maxPrefetched is less
+   *                                    than 1
+   */
+  public ProcessorPrefetchingControllerImpl(ProcessorModel model, ProcessorView view,
+                                            Readable input, int maxPrefetched) {
+    super(model, view, input);
+    if (maxPrefetched < 1) {
+      throw new IllegalArgumentException("error: most prefetched images must be positive");
+    }
+    this.model = model;
+    this.input = input;
+    this.maxPrefetched = maxPrefetched;
+  }
+
+  /**
+   * Constructs a controller that reads up to DEFAULT_MAX_PREFETCHED images ahead at once.
+   * @param model                       where the data of the image processor is stored
+   * @param view                        the display of the image processor
+   * @param input                       the location where the script will be read
+   * @throws IllegalArgumentException   if model, view, or input is null
+   */
+  public ProcessorPrefetchingControllerImpl(ProcessorModel model, ProcessorView view,
+                                            Readable input) {
+    this(model, view, input, DEFAULT_MAX_PREFETCHED);
+  }
+
+  @Override
+  public void runProcessor() {
+    this.renderWelcomeMessage();
+
+    Map<String, Function<String[], ImageProcessorCommand>> knownCommands =
+            this.createMapOfCommands();
+
+    // read the script up to its quit command, keeping the command of each line, or null and the
+    // message answering it if it has no command
+    List<ImageProcessorCommand> commands = new ArrayList<>();
+    List<String> messages = new ArrayList<>();
+    boolean quit = false;
+    Scanner scan = new Scanner(this.input);
+    while (!quit) {
+      String[] userInput;
+      try {
+        userInput = scan.nextLine().split(" ");
+      }
+      catch (NoSuchElementException e) {
+        break;
+      }
+
+      if (isQuit(userInput)) {
+        quit = true;
+      }
+      else {
+        try {
+          commands.add(this.parseCommand(userInput, knownCommands));
+          messages.add(null);
+        }
+        catch (IllegalArgumentException e) {
+          commands.add(null);
+          messages.add(e.getMessage());
+        }
+      }
+    }
+    scan.close();
+
+    ExecutorService executor = Executors.newFixedThreadPool(this.maxPrefetched, runnable -> {
+      Thread thread = new Thread(runnable, "processor-prefetch");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // the images being read ahead, by the line of their load command
+    Map<Integer, Future<ImageModel>> prefetched = new HashMap<>();
+    try {
+      for (int line = 0; line < commands.size(); line++) {
+        this.prefetch(commands, line, prefetched, executor);
+
+        ImageProcessorCommand command = commands.get(line);
+        if (command == null) {
+          this.renderMessage(messages.get(line));
+          continue;
+        }
+        Future<ImageModel> image = prefetched.remove(line);
+        if (image != null) {
+          // hand over the image that was read ahead, failing the same way the load would
+          command = model -> model.addImage(awaitImage(image));
+        }
+        this.renderMessage(this.executeCommand(command));
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    this.flushSaves();
+    if (!quit) {
+      // the script ended without asking to quit, as when reading line by line
+      throw new IllegalStateException("Error: failed to read input");
+    }
+    this.renderQuitMessage();
+  }
+
+  // starts reading the images of the load commands from the given line on, until as many images
+  // as allowed are being read ahead, stopping at the first command that may write files it does
+  // not tell about
+  private void prefetch(List<ImageProcessorCommand> commands, int line,
+                        Map<Integer, Future<ImageModel>> prefetched, ExecutorService executor) {
+    // the files written by the lines from the given one up to the one looked at
+    Set<String> written = new HashSet<>();
+    int end = Math.min(commands.size(), line + LOOK_AHEAD_LINES);
+    for (int ahead = line; ahead < end && prefetched.size() < this.maxPrefetched; ahead++) {
+      ImageProcessorCommand command = commands.get(ahead);
+      if (command == null) {
+        continue;
+      }
+
+      if (command instanceof Load && !prefetched.containsKey(ahead)
+              && Collections.disjoint(written, command.getReads())) {
+        Load load = (Load) command;
+        prefetched.put(ahead, executor.submit(() -> load.readImage(this.model)));
+      }
+
+      Set<String> writes = command.getWrites();
+      if (writes == null) {
+        return;
+      }
+      written.addAll(writes);
+    }
+  }
+
+  // waits for an image read ahead, rethrowing anything reading it threw
+  private static ImageModel awaitImage(Future<ImageModel> image) {
+    try {
+      return image.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Error: interrupted while reading an image");
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+}
@@ -0,0 +1,255 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import controller.command.ImageProcessorCommand;
+import model.ProcessorModel;
+import view.ProcessorView;
+
+/**
+ * A text controller that reads the whole script before running it, and runs commands that do not
+ * depend on each other at the same time. Messages are printed in the order of the script, and are
+ * the same as the ones ProcessorControllerImpl prints.
+ *
+ * <p>A command depends on the last command before it that writes an image or file it reads or
+ * writes, and on every command since then that reads an image or file it writes, so every command
+ * sees the same images as if the script ran one line at a time, even when a name is used again
+ * for another image. Commands that do not tell what they read and write run alone. A long script
+ * then takes about as long as its longest chain of dependent commands instead of all of them.
+ *
+ * <p>A command that writes a file also waits for every command before it. When a command fails
+ * unexpectedly, the script stops with its exception, and the commands that depend on it never
+ * run. Commands after it that only make images may already have run, but no command after it
+ * writes a file, so the files written are the ones the script would write line by line.
+ */
+public class ProcessorScheduledControllerImpl extends ProcessorControllerImpl {
+  private final Readable input;
+  private final int maxCommands;
+
+  /**
+   * Constructs a controller that runs up to maxCommands commands at the same time.
+   * @param model                       where the data of the image processor is stored
+   * @param view                        the display of the image processor
+   * @param input                       the location where the script will be read
+   * @param maxCommands                 the most commands to run at the same time
+   * @throws IllegalArgumentException   if model, view, or input is null, or maxCommands is less
+   *                                    than 1
+   */
+  public ProcessorScheduledControllerImpl(ProcessorModel model, ProcessorView view,
+                                          Readable input, int maxCommands) {
+    super(model, view, input);
+    if (maxCommands < 1) {
+      throw new IllegalArgumentException("error: most commands at once must be positive");
+    }
+    this.input = input;
+    this.maxCommands = maxCommands;
+  }
+
+  /**
+   * Constructs a controller that runs up to one command for each processor at the same time.
+   * @param model                       where the data of the image processor is stored
+   * @param view                        the display of the image processor
+   * @param input                       the location where the script will be read
+   * @throws IllegalArgumentException   if model, view, or input is null
+   */
+  public ProcessorScheduledControllerImpl(ProcessorModel model, ProcessorView view,
+                                          Readable input) {
+    this(model, view, input, Runtime.getRuntime().availableProcessors());
+  }
+
+  @Override
+  public void runProcessor() {
+    this.renderWelcomeMessage();
+
+    Map<String, Function<String[], ImageProcessorCommand>> knownCommands =
+            this.createMapOfCommands();
+
+    // read the script up to its quit command, making the command of each line
+    List<Step> steps = new ArrayList<>();
+    boolean quit = false;
+    Scanner scan = new Scanner(this.input);
+    while (!quit) {
+      String[] userInput;
+      try {
+        userInput = scan.nextLine().split(" ");
+      }
+      catch (NoSuchElementException e) {
+        break;
+      }
+
+      if (isQuit(userInput)) {
+        quit = true;
+      }
+      else {
+        try {
+          steps.add(new Step(this.parseCommand(userInput, knownCommands), null));
+        }
+        catch (IllegalArgumentException e) {
+          steps.add(new Step(null, e.getMessage()));
+        }
+      }
+    }
+    scan.close();
+
+    ExecutorService executor = Executors.newFixedThreadPool(this.maxCommands, runnable -> {
+      Thread thread = new Thread(runnable, "processor-command");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      this.schedule(steps, executor);
+
+      // print the message of each line once it and every line before it are done
+      for (Step step : steps) {
+        this.renderMessage(step.awaitMessage());
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    this.flushSaves();
+    if (!quit) {
+      // the script ended without asking to quit, as when reading line by line
+      throw new IllegalStateException("Error: failed to read input");
+    }
+    this.renderQuitMessage();
+  }
+
+  // starts every command once the commands it depends on are done
+  private void schedule(List<Step> steps, ExecutorService executor) {
+    // the last command to write each image or file, and the commands that read it since then
+    Map<String, Step> lastWriter = new HashMap<>();
+    Map<String, List<Step>> readersSinceWrite = new HashMap<>();
+    // the last command that ran alone, and every command since then
+    Step lastBarrier = null;
+    List<Step> sinceBarrier = new ArrayList<>();
+    // the last command to write a file, and every command since then
+    Step lastFileWriter = null;
+    List<Step> sinceFileWriter = new ArrayList<>();
+
+    for (Step step : steps) {
+      if (step.command == null) {
+        continue;
+      }
+
+      List<Step> dependencies = new ArrayList<>();
+      if (lastBarrier != null) {
+        dependencies.add(lastBarrier);
+      }
+      Set<String> reads = step.command.getReads();
+      Set<String> writes = step.command.getWrites();
+      if (reads == null || writes == null) {
+        // commands that do not tell what they use wait for, and are waited for by, everything
+        dependencies.addAll(sinceBarrier);
+        lastBarrier = step;
+        sinceBarrier.clear();
+        lastWriter.clear();
+        readersSinceWrite.clear();
+      }
+      else {
+        for (String resource : reads) {
+          // read after write
+          addDependency(dependencies, lastWriter.get(resource));
+        }
+        for (String resource : writes) {
+          // write after write, and write after read
+          addDependency(dependencies, lastWriter.get(resource));
+          for (Step reader : readersSinceWrite.getOrDefault(resource, List.of())) {
+            addDependency(dependencies, reader);
+          }
+        }
+        for (String resource : reads) {
+          readersSinceWrite.computeIfAbsent(resource, key -> new ArrayList<>()).add(step);
+        }
+        for (String resource : writes) {
+          lastWriter.put(resource, step);
+          readersSinceWrite.remove(resource);
+        }
+        sinceBarrier.add(step);
+      }
+
+      if (writes == null || writes.stream().anyMatch(ImageProcessorCommand::isFileResource)) {
+        // commands that may write a file wait for every command before them, so nothing after
+        // a command that fails is written
+        addDependency(dependencies, lastFileWriter);
+        for (Step earlier : sinceFileWriter) {
+          addDependency(dependencies, earlier);
+        }
+        lastFileWriter = step;
+        sinceFileWriter.clear();
+      }
+      else {
+        sinceFileWriter.add(step);
+      }
+
+      step.start(dependencies, executor);
+    }
+  }
+
+  // adds a step to the dependencies unless it is null or already in them
+  private static void addDependency(List<Step> dependencies, Step step) {
+    if (step != null && !dependencies.contains(step)) {
+      dependencies.add(step);
+    }
+  }
+
+  // one line of the script: a command to run, or the message the line was answered with
+  private final class Step {
+    private final ImageProcessorCommand command;
+    private final String message;
+    private CompletableFuture<String> result;
+
+    private Step(ImageProcessorCommand command, String message) {
+      this.command = command;
+      this.message = message;
+    }
+
+    // runs the command on the executor once every dependency is done
+    private void start(List<Step> dependencies, ExecutorService executor) {
+      CompletableFuture<?>[] waitFor = new CompletableFuture<?>[dependencies.size()];
+      for (int index = 0; index < waitFor.length; index++) {
+        waitFor[index] = dependencies.get(index).result;
+      }
+      // a command that failed unexpectedly stops the script where it is, so the commands
+      // that depend on it are never run, as when reading line by line
+      this.result = CompletableFuture.allOf(waitFor).thenApplyAsync(
+          ignored -> executeCommand(this.command), executor);
+    }
+
+    // waits for the command and returns its message, rethrowing anything unexpected it threw
+    private String awaitMessage() {
+      if (this.command == null) {
+        return this.message;
+      }
+      try {
+        return this.result.get();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Error: interrupted while running the script");
+      }
+      catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+      }
+    }
+  }
+}
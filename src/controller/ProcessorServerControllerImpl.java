@@ -0,0 +1,247 @@
+package controller;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import controller.command.ImageProcessorCommand;
+import model.ProcessorModel;
+import view.ProcessorView;
+import view.ProcessorViewImpl;
+
+/**
+ * Represents a controller that keeps the processor running as a server on this computer, so
+ * that many scripts can be run without starting the program again each time. It listens on a TCP
+ * port of the loopback address, or on a Unix-domain socket, and every client that connects gets
+ * a session of its own.
+ *
+ * <p>A session speaks the same text protocol as -text: it is sent the welcome message, then one
+ * command per line, each answered with the message ProcessorControllerImpl prints, until it
+ * sends q or quit or closes the connection. Every session has its own model, so the names of its
+ * images are only seen by that session, while the threads and caches of the processor are
+ * shared. Sessions run on virtual threads when the Java runtime has them and otherwise on a pool
+ * of threads that grows with the number of sessions.
+ *
+ * <p>A session can load and save any file the server can, so the server only lets the user
+ * running it connect where it can. A Unix-domain socket file is made readable and writable by
+ * its owner alone right after it is bound; since another user could connect before that, the
+ * socket should be made in a directory only that user can enter. The loopback address cannot be
+ * restricted this way, so a port is open to every user of this computer.
+ */
+public class ProcessorServerControllerImpl implements ProcessorController {
+  private final Supplier<ProcessorModel> models;
+  private final ProcessorView view;
+  private final String address;
+  // the connections of the sessions that are running, closed when the server stops
+  private final Map<SocketChannel, Boolean> sessions;
+  private volatile ServerSocketChannel server;
+  private volatile boolean stopped;
+
+  /**
+   * Constructs a controller.ProcessorServerControllerImpl object.
+   * @param models                      makes the empty model each session runs on
+   * @param view                        where the address and errors of the server are shown
+   * @param address                     a port number to listen on the loopback address, or the
+   *                                    path of a Unix-domain socket to make
+   * @throws IllegalArgumentException   if any argument is null, or the port is out of range
+   */
+  public ProcessorServerControllerImpl(Supplier<ProcessorModel> models, ProcessorView view,
+                                       String address) {
+    if (models == null || view == null || address == null) {
+      throw new IllegalArgumentException("error: argument null when constructing controller");
+    }
+    if (isPort(address)) {
+      int port = Integer.parseInt(address);
+      if (port < 0 || port > 65535) {
+        throw new IllegalArgumentException("error: port must be from 0 to 65535");
+      }
+    }
+
+    this.models = models;
+    this.view = view;
+    this.address = address;
+    this.sessions = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public void runProcessor() {
+    SocketAddress socketAddress;
+    boolean bound = false;
+    try {
+      if (isPort(this.address)) {
+        socketAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                Integer.parseInt(this.address));
+        this.server = ServerSocketChannel.open();
+      }
+      else {
+        socketAddress = UnixDomainSocketAddress.of(this.address);
+        this.server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+      }
+      this.server.bind(socketAddress);
+      bound = true;
+      if (!isPort(this.address)) {
+        restrictToOwner(this.address);
+      }
+      ControllerThreads.render(this.view,
+              "Listening on " + this.server.getLocalAddress() + "\n");
+    }
+    catch (IOException | UnsupportedOperationException e) {
+      this.stop();
+      if (bound) {
+        this.deleteSocketFile();
+      }
+      throw new IllegalStateException("Error: failed to listen on " + this.address);
+    }
+
+    // without virtual threads, a pool that starts a thread whenever every thread has a session
+    ExecutorService executor = ControllerThreads.newExecutor(Executors::newCachedThreadPool);
+    AtomicInteger sessionCount = new AtomicInteger();
+    try {
+      while (!this.stopped) {
+        SocketChannel client;
+        try {
+          client = this.server.accept();
+        }
+        catch (ClosedChannelException e) {
+          // stop() closed the server
+          break;
+        }
+        catch (IOException e) {
+          ControllerThreads.render(this.view,
+                  "Error: failed to accept a session: " + e.getMessage() + "\n");
+          continue;
+        }
+
+        int session = sessionCount.incrementAndGet();
+        this.sessions.put(client, Boolean.TRUE);
+        if (this.stopped) {
+          // stop() may have closed the sessions before this one was added
+          this.sessions.remove(client);
+          closeQuietly(client);
+          break;
+        }
+        executor.execute(() -> this.runSession(client, session));
+      }
+    }
+    finally {
+      this.stop();
+      // sessions still running end when their connections were closed by stop()
+      executor.shutdown();
+      this.deleteSocketFile();
+    }
+  }
+
+  /**
+   * Stops the server, closing the connections of the sessions that are running. The call to
+   * runProcessor() then returns.
+   */
+  public void stop() {
+    this.stopped = true;
+    ServerSocketChannel current = this.server;
+    if (current != null) {
+      try {
+        current.close();
+      }
+      catch (IOException e) {
+        // already closed
+      }
+    }
+    for (SocketChannel client : this.sessions.keySet()) {
+      closeQuietly(client);
+    }
+  }
+
+  @Override
+  public Function<String[], ImageProcessorCommand> processCommand(String command) {
+    return ProcessorControllerImpl.textCommand(command);
+  }
+
+  // runs one session with a model of its own until the client quits or disconnects
+  private void runSession(SocketChannel client, int session) {
+    try (PrintStream out = new PrintStream(Channels.newOutputStream(client), true,
+            StandardCharsets.UTF_8)) {
+      ProcessorController controller = new ProcessorControllerImpl(this.models.get(),
+              new ProcessorViewImpl(out), new InputStreamReader(Channels.newInputStream(client),
+              StandardCharsets.UTF_8));
+      try {
+        controller.runProcessor();
+      }
+      catch (IllegalStateException e) {
+        // a client that disconnects without quitting fails to read input, which is not an error
+        if (!"Error: failed to read input".equals(e.getMessage())) {
+          out.append(e.getMessage()).append("\n");
+          ControllerThreads.render(this.view,
+                  "Error: session " + session + ": " + e.getMessage() + "\n");
+        }
+      }
+      catch (RuntimeException e) {
+        // one session should never stop the server
+        out.append("Error: ").append(e.toString()).append("\n");
+        ControllerThreads.render(this.view, "Error: session " + session + ": " + e + "\n");
+      }
+    }
+    finally {
+      this.sessions.remove(client);
+      closeQuietly(client);
+    }
+  }
+
+  // lets only the user running the server connect to a socket file, since connecting needs
+  // write permission to it; file systems without POSIX permissions are left as they are
+  private static void restrictToOwner(String path) throws IOException {
+    try {
+      Files.setPosixFilePermissions(Paths.get(path), PosixFilePermissions.fromString("rw-------"));
+    }
+    catch (UnsupportedOperationException e) {
+      // the file system has no POSIX permissions
+    }
+  }
+
+  // removes the file of a Unix-domain socket
+  private void deleteSocketFile() {
+    if (!isPort(this.address)) {
+      try {
+        Files.deleteIfExists(Paths.get(this.address));
+      }
+      catch (IOException e) {
+        // the socket file is left behind
+      }
+    }
+  }
+
+  // closes a connection that may already be closed
+  private static void closeQuietly(SocketChannel client) {
+    try {
+      client.close();
+    }
+    catch (IOException e) {
+      // already closed
+    }
+  }
+
+  // returns whether an address is a port number rather than the path of a socket
+  private static boolean isPort(String address) {
+    return !address.isEmpty() && address.length() <= 5
+            && address.chars().allMatch(Character::isDigit);
+  }
+}
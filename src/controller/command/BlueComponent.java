@@ -1,5 +1,7 @@
 package controller.command;
 
+import java.util.Set;
+
 import model.ProcessorModel;
 
 /**
@@ -29,4 +31,14 @@ public class BlueComponent implements ImageProcessorCommand {
   public void executeCommand(ProcessorModel model) {
     model.blueComponent(this.imageName, this.destImageName);
   }
+
+  @Override
+  public Set<String> getReads() {
+    return Set.of(this.imageName);
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(this.destImageName);
+  }
 }
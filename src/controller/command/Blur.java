@@ -1,5 +1,8 @@
 package controller.command;
 
+import java.util.Set;
+
+import model.EdgeMode;
 import model.ProcessorModel;
 
 /**
@@ -8,26 +11,52 @@ import model.ProcessorModel;
 public class Blur implements ImageProcessorCommand {
   String imageName;
   String destImageName;
+  EdgeMode edgeMode;
 
   /**
-   * Constructs a Blur object.
+   * Constructs a Blur object that reads pixels past the edges of the image as black.
    * @param imageName                   the current name of the image
    * @param destImageName               the name of the new image created
    * @throws IllegalArgumentException   when either name is null or empty
    */
   public Blur(String imageName, String destImageName) {
+    this(imageName, destImageName, EdgeMode.ZERO);
+  }
+
+  /**
+   * Constructs a Blur object.
+   * @param imageName                   the current name of the image
+   * @param destImageName               the name of the new image created
+   * @param edgeMode                    how pixels past the edges of the image are read
+   * @throws IllegalArgumentException   when either name is null or empty, or edgeMode is null
+   */
+  public Blur(String imageName, String destImageName, EdgeMode edgeMode) {
     if (imageName == null || destImageName == null) {
       throw new IllegalArgumentException("error: given null path or name");
     }
     if (imageName.equals("") || destImageName.equals("")) {
       throw new IllegalArgumentException("error: given empty path or name");
     }
+    if (edgeMode == null) {
+      throw new IllegalArgumentException("error: given null edge mode");
+    }
     this.imageName = imageName;
     this.destImageName = destImageName;
+    this.edgeMode = edgeMode;
   }
 
   @Override
   public void executeCommand(ProcessorModel model) {
-    model.blur(this.imageName, this.destImageName);
+    model.blur(this.imageName, this.destImageName, this.edgeMode);
+  }
+
+  @Override
+  public Set<String> getReads() {
+    return Set.of(this.imageName);
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(this.destImageName);
   }
 }
@@ -0,0 +1,70 @@
+package controller.command;
+
+import java.util.Set;
+
+import model.EdgeMode;
+import model.ProcessorModel;
+
+/**
+ * Represents the command to blur an image with a box of any radius in the image processor.
+ */
+public class BoxBlur implements ImageProcessorCommand {
+  int radius;
+  String imageName;
+  String destImageName;
+  EdgeMode edgeMode;
+
+  /**
+   * Constructs a BoxBlur object that reads pixels past the edges of the image as black.
+   * @param radius                      the radius of the box, which is 2 * radius + 1 wide
+   * @param imageName                   the current name of the image
+   * @param destImageName               the name of the new image created
+   * @throws IllegalArgumentException   when either name is null or empty, or radius is negative
+   */
+  public BoxBlur(int radius, String imageName, String destImageName) {
+    this(radius, imageName, destImageName, EdgeMode.ZERO);
+  }
+
+  /**
+   * Constructs a BoxBlur object.
+   * @param radius                      the radius of the box, which is 2 * radius + 1 wide
+   * @param imageName                   the current name of the image
+   * @param destImageName               the name of the new image created
+   * @param edgeMode                    how pixels past the edges of the image are read
+   * @throws IllegalArgumentException   when either name is null or empty, radius is negative or
+   *                                    edgeMode is null
+   */
+  public BoxBlur(int radius, String imageName, String destImageName, EdgeMode edgeMode) {
+    if (imageName == null || destImageName == null) {
+      throw new IllegalArgumentException("error: given null path or name");
+    }
+    if (imageName.equals("") || destImageName.equals("")) {
+      throw new IllegalArgumentException("error: given empty path or name");
+    }
+    if (radius < 0) {
+      throw new IllegalArgumentException("error: radius must not be negative");
+    }
+    if (edgeMode == null) {
+      throw new IllegalArgumentException("error: given null edge mode");
+    }
+    this.radius = radius;
+    this.imageName = imageName;
+    this.destImageName = destImageName;
+    this.edgeMode = edgeMode;
+  }
+
+  @Override
+  public void executeCommand(ProcessorModel model) {
+    model.boxBlur(this.radius, this.imageName, this.destImageName, this.edgeMode);
+  }
+
+  @Override
+  public Set<String> getReads() {
+    return Set.of(this.imageName);
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(this.destImageName);
+  }
+}
@@ -1,5 +1,7 @@
 package controller.command;
 
+import java.util.Set;
+
 import model.ProcessorModel;
 
 /**
@@ -32,4 +34,14 @@ public class Brighten implements ImageProcessorCommand {
   public void executeCommand(ProcessorModel model) {
     model.brighten(this.increment, this.imageName, this.destImageName);
   }
+
+  @Override
+  public Set<String> getReads() {
+    return Set.of(this.imageName);
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(this.destImageName);
+  }
 }
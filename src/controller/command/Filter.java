@@ -0,0 +1,71 @@
+package controller.command;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import model.EdgeMode;
+import model.ProcessorModel;
+
+/**
+ * Represents the command to filter an image with a kernel read from a file in the image
+ * processor.
+ */
+public class Filter implements ImageProcessorCommand {
+  String kernelPath;
+  String imageName;
+  String destImageName;
+  EdgeMode edgeMode;
+
+  /**
+   * Constructs a Filter object that reads pixels past the edges of the image as black.
+   * @param kernelPath                  the path of the file holding the kernel
+   * @param imageName                   the current name of the image
+   * @param destImageName               the name of the new image created
+   * @throws IllegalArgumentException   when the path or either name is null or empty
+   */
+  public Filter(String kernelPath, String imageName, String destImageName) {
+    this(kernelPath, imageName, destImageName, EdgeMode.ZERO);
+  }
+
+  /**
+   * Constructs a Filter object.
+   * @param kernelPath                  the path of the file holding the kernel
+   * @param imageName                   the current name of the image
+   * @param destImageName               the name of the new image created
+   * @param edgeMode                    how pixels past the edges of the image are read
+   * @throws IllegalArgumentException   when the path or either name is null or empty, or edgeMode
+   *                                    is null
+   */
+  public Filter(String kernelPath, String imageName, String destImageName, EdgeMode edgeMode) {
+    if (kernelPath == null || imageName == null || destImageName == null) {
+      throw new IllegalArgumentException("error: given null path or name");
+    }
+    if (kernelPath.equals("") || imageName.equals("") || destImageName.equals("")) {
+      throw new IllegalArgumentException("error: given empty path or name");
+    }
+    if (edgeMode == null) {
+      throw new IllegalArgumentException("error: given null edge mode");
+    }
+    this.kernelPath = kernelPath;
+    this.imageName = imageName;
+    this.destImageName = destImageName;
+    this.edgeMode = edgeMode;
+  }
+
+  @Override
+  public void executeCommand(ProcessorModel model) {
+    model.filter(this.kernelPath, this.imageName, this.destImageName, this.edgeMode);
+  }
+
+  @Override
+  public Set<String> getReads() {
+    return new HashSet<>(Arrays.asList(this.imageName,
+            ImageProcessorCommand.fileResource(this.kernelPath)));
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(this.destImageName);
+  }
+}
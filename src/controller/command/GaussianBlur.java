@@ -0,0 +1,72 @@
+package controller.command;
+
+import java.util.Set;
+
+import model.EdgeMode;
+import model.ProcessorModel;
+
+/**
+ * Represents the command to blur an image with an approximate Gaussian of any standard deviation
+ * in the image processor.
+ */
+public class GaussianBlur implements ImageProcessorCommand {
+  double sigma;
+  String imageName;
+  String destImageName;
+  EdgeMode edgeMode;
+
+  /**
+   * Constructs a GaussianBlur object that reads pixels past the edges of the image as black.
+   * @param sigma                       the standard deviation of the Gaussian, in pixels
+   * @param imageName                   the current name of the image
+   * @param destImageName               the name of the new image created
+   * @throws IllegalArgumentException   when either name is null or empty, or sigma is not greater
+   *                                    than 0
+   */
+  public GaussianBlur(double sigma, String imageName, String destImageName) {
+    this(sigma, imageName, destImageName, EdgeMode.ZERO);
+  }
+
+  /**
+   * Constructs a GaussianBlur object.
+   * @param sigma                       the standard deviation of the Gaussian, in pixels
+   * @param imageName                   the current name of the image
+   * @param destImageName               the name of the new image created
+   * @param edgeMode                    how pixels past the edges of the image are read
+   * @throws IllegalArgumentException   when either name is null or empty, sigma is not greater
+   *                                    than 0 or edgeMode is null
+   */
+  public GaussianBlur(double sigma, String imageName, String destImageName, EdgeMode edgeMode) {
+    if (imageName == null || destImageName == null) {
+      throw new IllegalArgumentException("error: given null path or name");
+    }
+    if (imageName.equals("") || destImageName.equals("")) {
+      throw new IllegalArgumentException("error: given empty path or name");
+    }
+    if (!(sigma > 0)) {
+      throw new IllegalArgumentException("error: sigma must be greater than 0");
+    }
+    if (edgeMode == null) {
+      throw new IllegalArgumentException("error: given null edge mode");
+    }
+    this.sigma = sigma;
+    this.imageName = imageName;
+    this.destImageName = destImageName;
+    this.edgeMode = edgeMode;
+  }
+
+  @Override
+  public void executeCommand(ProcessorModel model) {
+    model.gaussianBlur(this.sigma, this.imageName, this.destImageName, this.edgeMode);
+  }
+
+  @Override
+  public Set<String> getReads() {
+    return Set.of(this.imageName);
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(this.destImageName);
+  }
+}
@@ -1,9 +1,16 @@
 package controller.command;
 
+import java.nio.file.Paths;
+import java.util.Set;
+
 import model.ProcessorModel;
 
 /**
  * Represents the command interface for the Image Processor.
+ *
+ * <p>Commands can tell what they read and write, which are the names of images and the paths of
+ * files, so that commands which share nothing can be run at the same time. A command that does
+ * not tell is run alone, after every command before it and before every command after it.
  */
 public interface ImageProcessorCommand {
   /**
@@ -11,5 +18,42 @@ public interface ImageProcessorCommand {
    * @param model   the model to be executed on
    */
   void executeCommand(ProcessorModel model);
-}
 
+  /**
+   * Returns the names of the images this command reads, and the files it reads as given by
+   * fileResource().
+   * @return    what this command reads, or null if it is not known
+   */
+  default Set<String> getReads() {
+    return null;
+  }
+
+  /**
+   * Returns the names of the images this command writes, and the files it writes as given by
+   * fileResource().
+   * @return    what this command writes, or null if it is not known
+   */
+  default Set<String> getWrites() {
+    return null;
+  }
+
+  /**
+   * Returns the name a file is read or written under in getReads() and getWrites(), which is the
+   * same for every path to the file and never the name of an image, unless an image is named
+   * like it.
+   * @param path    the path of the file
+   * @return        file: followed by the absolute path of the file
+   */
+  static String fileResource(String path) {
+    return "file:" + Paths.get(path).toAbsolutePath().normalize();
+  }
+
+  /**
+   * Returns whether something read or written by a command is a file rather than an image.
+   * @param resource    an entry of getReads() or getWrites()
+   * @return            true if the entry was given by fileResource()
+   */
+  static boolean isFileResource(String resource) {
+    return resource.startsWith("file:");
+  }
+}
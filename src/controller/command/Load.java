@@ -1,6 +1,9 @@
 package controller.command;
 
+import java.util.Set;
+
 import controller.command.ImageProcessorCommand;
+import model.ImageModel;
 import model.ProcessorModel;
 
 /**
@@ -30,5 +33,24 @@ public class Load implements ImageProcessorCommand {
   public void executeCommand(ProcessorModel model) {
     model.load(this.imagePath, this.imageName);
   }
-}
 
+  /**
+   * Reads the image this command loads without adding it to the model, so that it can be read
+   * ahead of time and added when the command is reached.
+   * @param model   the model to read the image with
+   * @return        the image this command loads
+   */
+  public ImageModel readImage(ProcessorModel model) {
+    return model.readImage(this.imagePath, this.imageName);
+  }
+
+  @Override
+  public Set<String> getReads() {
+    return Set.of(ImageProcessorCommand.fileResource(this.imagePath));
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(this.imageName);
+  }
+}
@@ -0,0 +1,72 @@
+package controller.command;
+
+import java.util.Set;
+
+import model.EdgeMode;
+import model.ProcessorModel;
+
+/**
+ * Represents the command to replace every pixel of an image with the median of the square of
+ * pixels around it in the image processor, which removes specks of noise.
+ */
+public class Median implements ImageProcessorCommand {
+  int radius;
+  String imageName;
+  String destImageName;
+  EdgeMode edgeMode;
+
+  /**
+   * Constructs a Median object that reads pixels past the edges of the image from the nearest
+   * edge pixel, because black pixels would darken the medians along the edges.
+   * @param radius                      the radius of the square, which is 2 * radius + 1 wide
+   * @param imageName                   the current name of the image
+   * @param destImageName               the name of the new image created
+   * @throws IllegalArgumentException   when either name is null or empty, or radius is negative
+   */
+  public Median(int radius, String imageName, String destImageName) {
+    this(radius, imageName, destImageName, EdgeMode.CLAMP);
+  }
+
+  /**
+   * Constructs a Median object.
+   * @param radius                      the radius of the square, which is 2 * radius + 1 wide
+   * @param imageName                   the current name of the image
+   * @param destImageName               the name of the new image created
+   * @param edgeMode                    how pixels past the edges of the image are read
+   * @throws IllegalArgumentException   when either name is null or empty, radius is negative or
+   *                                    edgeMode is null
+   */
+  public Median(int radius, String imageName, String destImageName, EdgeMode edgeMode) {
+    if (imageName == null || destImageName == null) {
+      throw new IllegalArgumentException("error: given null path or name");
+    }
+    if (imageName.equals("") || destImageName.equals("")) {
+      throw new IllegalArgumentException("error: given empty path or name");
+    }
+    if (radius < 0) {
+      throw new IllegalArgumentException("error: radius must not be negative");
+    }
+    if (edgeMode == null) {
+      throw new IllegalArgumentException("error: given null edge mode");
+    }
+    this.radius = radius;
+    this.imageName = imageName;
+    this.destImageName = destImageName;
+    this.edgeMode = edgeMode;
+  }
+
+  @Override
+  public void executeCommand(ProcessorModel model) {
+    model.median(this.radius, this.imageName, this.destImageName, this.edgeMode);
+  }
+
+  @Override
+  public Set<String> getReads() {
+    return Set.of(this.imageName);
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(this.destImageName);
+  }
+}
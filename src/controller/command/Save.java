@@ -1,5 +1,7 @@
 package controller.command;
 
+import java.util.Set;
+
 import controller.command.ImageProcessorCommand;
 import model.ProcessorModel;
 
@@ -30,4 +32,14 @@ public class Save implements ImageProcessorCommand {
   public void executeCommand(ProcessorModel model) {
     model.save(this.imagePath, this.imageName);
   }
+
+  @Override
+  public Set<String> getReads() {
+    return Set.of(this.imageName);
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(ImageProcessorCommand.fileResource(this.imagePath));
+  }
 }
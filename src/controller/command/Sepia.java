@@ -1,5 +1,7 @@
 package controller.command;
 
+import java.util.Set;
+
 import model.ProcessorModel;
 
 /**
@@ -29,4 +31,14 @@ public class Sepia implements ImageProcessorCommand {
   public void executeCommand(ProcessorModel model) {
     model.sepia(this.imageName, this.destImageName);
   }
-}
\ No newline at end of file
+
+  @Override
+  public Set<String> getReads() {
+    return Set.of(this.imageName);
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(this.destImageName);
+  }
+}
@@ -1,5 +1,8 @@
 package controller.command;
 
+import java.util.Set;
+
+import model.EdgeMode;
 import model.ProcessorModel;
 
 /**
@@ -8,25 +11,52 @@ import model.ProcessorModel;
 public class Sharpen implements ImageProcessorCommand {
   String imageName;
   String destImageName;
+  EdgeMode edgeMode;
 
   /**
-   * Constructs a Sharpen object.
-   * @param imageName the current name of the image
-   * @param destImageName the name of the new image created
+   * Constructs a Sharpen object that reads pixels past the edges of the image as black.
+   * @param imageName                   the current name of the image
+   * @param destImageName               the name of the new image created
+   * @throws IllegalArgumentException   when either name is null or empty
    */
   public Sharpen(String imageName, String destImageName) {
+    this(imageName, destImageName, EdgeMode.ZERO);
+  }
+
+  /**
+   * Constructs a Sharpen object.
+   * @param imageName                   the current name of the image
+   * @param destImageName               the name of the new image created
+   * @param edgeMode                    how pixels past the edges of the image are read
+   * @throws IllegalArgumentException   when either name is null or empty, or edgeMode is null
+   */
+  public Sharpen(String imageName, String destImageName, EdgeMode edgeMode) {
     if (imageName == null || destImageName == null) {
       throw new IllegalArgumentException("error: given null path or name");
     }
     if (imageName.equals("") || destImageName.equals("")) {
       throw new IllegalArgumentException("error: given empty path or name");
     }
+    if (edgeMode == null) {
+      throw new IllegalArgumentException("error: given null edge mode");
+    }
     this.imageName = imageName;
     this.destImageName = destImageName;
+    this.edgeMode = edgeMode;
   }
 
   @Override
   public void executeCommand(ProcessorModel model) {
-    model.sharpen(this.imageName, this.destImageName);
+    model.sharpen(this.imageName, this.destImageName, this.edgeMode);
+  }
+
+  @Override
+  public Set<String> getReads() {
+    return Set.of(this.imageName);
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(this.destImageName);
   }
 }
@@ -1,5 +1,7 @@
 package controller.command;
 
+import java.util.Set;
+
 import controller.command.ImageProcessorCommand;
 import model.ProcessorModel;
 
@@ -30,5 +32,14 @@ public class ValueComponent implements ImageProcessorCommand {
   public void executeCommand(ProcessorModel model) {
     model.valueComponent(this.imageName, this.destImageName);
   }
-}
 
+  @Override
+  public Set<String> getReads() {
+    return Set.of(this.imageName);
+  }
+
+  @Override
+  public Set<String> getWrites() {
+    return Set.of(this.destImageName);
+  }
+}
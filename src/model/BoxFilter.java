@@ -0,0 +1,174 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Blurs packed rasters with box filters, which replace every component with the mean of the
+ * square of components around it. Each box is applied with running sums, a horizontal pass and
+ * then a vertical pass, that add the component entering the box and subtract the one leaving it,
+ * so the cost per pixel does not depend on the radius. The vertical pass adds whole rows at a
+ * time into a row of column sums, which reads the image in order instead of down its columns. On
+ * large images the horizontal pass is split into stripes of rows and the vertical pass into
+ * stripes of columns, which model.Parallelism spreads over its threads.
+ *
+ * <p>A Gaussian blur is approximated by three box blurs in a row whose sizes are chosen so that
+ * together they have the Gaussian's variance. Each box rounds its mean to the nearest integer.
+ */
+final class BoxFilter {
+  // the largest radius, the same as the median filter's, which keeps the sum of a row of a box
+  // in an int and the tables of neighbors past the edges small
+  static final int MAX_RADIUS = MedianFilter.MAX_RADIUS;
+  // the largest standard deviation, whose boxes have radii of at most sigma + 1 and so at most
+  // MAX_RADIUS
+  static final double MAX_SIGMA = MAX_RADIUS - 1;
+  // the number of box blurs that approximate a Gaussian blur
+  private static final int GAUSSIAN_PASSES = 3;
+  // the fewest columns the vertical pass gives a thread, so that threads rarely write to the
+  // same cache line
+  private static final int MIN_COLUMN_STRIPE = 64;
+
+  // this class only has static methods
+  private BoxFilter() {
+  }
+
+  /**
+   * Returns the radii of the box blurs that together approximate a Gaussian blur with the given
+   * standard deviation.
+   *
+   * @param sigma   the standard deviation of the Gaussian, greater than 0 and at most MAX_SIGMA
+   * @return        the radius of each box blur
+   */
+  static int[] gaussianRadii(double sigma) {
+    // the variance of a box of odd width w is (w^2 - 1) / 12, and variances add, so use boxes of
+    // the odd width just below the ideal one and of the next odd width, as many of each as gets
+    // closest to sigma^2 in total
+    double variance = 12 * sigma * sigma;
+    int lower = (int) Math.floor(Math.sqrt(variance / GAUSSIAN_PASSES + 1));
+    if (lower % 2 == 0) {
+      lower--;
+    }
+    long lowerCount = Math.round((variance - GAUSSIAN_PASSES * (double) lower * lower
+            - 4.0 * GAUSSIAN_PASSES * lower - 3.0 * GAUSSIAN_PASSES) / (-4.0 * lower - 4));
+    lowerCount = Math.max(0, Math.min(GAUSSIAN_PASSES, lowerCount));
+
+    int[] radii = new int[GAUSSIAN_PASSES];
+    for (int pass = 0; pass < GAUSSIAN_PASSES; pass++) {
+      int boxWidth = pass < lowerCount ? lower : lower + 2;
+      radii[pass] = (boxWidth - 1) / 2;
+    }
+    return radii;
+  }
+
+  /**
+   * Applies a box blur of each of the given radii to every pixel of the raster, one after the
+   * other.
+   *
+   * @param raster      the packed RGB values of the image in row-major order
+   * @param width       the width of the image
+   * @param height      the height of the image
+   * @param radii       the radius of each box blur, where a box of radius r is 2r + 1 wide, at
+   *                    most MAX_RADIUS
+   * @param edgeMode    how neighbors outside of the image are read
+   * @return            the raster of the blurred image
+   */
+  static int[] apply(int[] raster, int width, int height, int[] radii, EdgeMode edgeMode) {
+    int[][] planes = new int[3][raster.length];
+    for (int index = 0; index < raster.length; index++) {
+      int rgb = raster[index];
+      planes[0][index] = (rgb >> 16) & 0xFF;
+      planes[1][index] = (rgb >> 8) & 0xFF;
+      planes[2][index] = rgb & 0xFF;
+    }
+
+    int[] sums = new int[raster.length];
+    long[] columnSums = new long[width];
+    for (int radius : radii) {
+      if (radius == 0) {
+        continue;
+      }
+      int[] cols = Convolution.resolveAll(width, radius, edgeMode);
+      int[] rows = Convolution.resolveAll(height, radius, edgeMode);
+      for (int[] plane : planes) {
+        Parallelism.forEachStripe(height, width, (first, last) ->
+                sumRows(plane, sums, width, first, last, radius, cols));
+        Parallelism.forEachStripe(width, height, MIN_COLUMN_STRIPE, (first, last) ->
+                averageColumns(sums, plane, width, height, first, last, radius, rows,
+                        columnSums));
+      }
+    }
+
+    int[] blurred = new int[raster.length];
+    for (int index = 0; index < raster.length; index++) {
+      blurred[index] = (planes[0][index] << 16) | (planes[1][index] << 8) | planes[2][index];
+    }
+    return blurred;
+  }
+
+  // writes the sum of the 2 * radius + 1 components around each component of the rows in
+  // [firstRow, lastRow)
+  private static void sumRows(int[] plane, int[] sums, int width, int firstRow, int lastRow,
+                              int radius, int[] cols) {
+    int boxWidth = 2 * radius + 1;
+    for (int row = firstRow; row < lastRow; row++) {
+      int rowStart = row * width;
+      int sum = 0;
+      for (int index = 0; index < boxWidth; index++) {
+        sum += valueAt(plane, rowStart, cols[index]);
+      }
+
+      for (int col = 0; col < width; col++) {
+        sums[rowStart + col] = sum;
+        if (col + 1 < width) {
+          // the box moves right: cols is shifted by the radius, so col + boxWidth enters
+          sum += valueAt(plane, rowStart, cols[col + boxWidth])
+                  - valueAt(plane, rowStart, cols[col]);
+        }
+      }
+    }
+  }
+
+  // writes the rounded mean of the 2 * radius + 1 row sums around each position of the columns
+  // in [firstCol, lastCol), keeping the sums of those columns in the same range of columnSums
+  private static void averageColumns(int[] sums, int[] plane, int width, int height,
+                                     int firstCol, int lastCol, int radius, int[] rows,
+                                     long[] columnSums) {
+    int boxWidth = 2 * radius + 1;
+    long area = (long) boxWidth * boxWidth;
+    long half = area / 2;
+
+    Arrays.fill(columnSums, firstCol, lastCol, 0);
+    for (int index = 0; index < boxWidth; index++) {
+      addRow(sums, rows[index], width, firstCol, lastCol, columnSums, 1);
+    }
+
+    for (int row = 0; row < height; row++) {
+      int rowStart = row * width;
+      for (int col = firstCol; col < lastCol; col++) {
+        // every sum is positive, so adding half before dividing rounds to the nearest
+        plane[rowStart + col] = (int) ((columnSums[col] + half) / area);
+      }
+      if (row + 1 < height) {
+        addRow(sums, rows[row + boxWidth], width, firstCol, lastCol, columnSums, 1);
+        addRow(sums, rows[row], width, firstCol, lastCol, columnSums, -1);
+      }
+    }
+  }
+
+  // adds the columns in [firstCol, lastCol) of a row of sums, or subtracts them if sign is -1,
+  // to the column sums, unless the row is black
+  private static void addRow(int[] sums, int imageRow, int width, int firstCol, int lastCol,
+                             long[] columnSums, int sign) {
+    if (imageRow < 0) {
+      return;
+    }
+    int rowStart = imageRow * width;
+    for (int col = firstCol; col < lastCol; col++) {
+      columnSums[col] += sign * sums[rowStart + col];
+    }
+  }
+
+  // returns the component at a resolved column of a row, or 0 if the column is black
+  private static int valueAt(int[] plane, int rowStart, int imageCol) {
+    return imageCol < 0 ? 0 : plane[rowStart + imageCol];
+  }
+}
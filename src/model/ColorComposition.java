@@ -0,0 +1,57 @@
+package model;
+
+/**
+ * Represents how deferred chains of color transformations and brightness adjustments are
+ * combined before they are applied to an image.
+ */
+public enum ColorComposition {
+  /**
+   * Each transformation is applied on its own to the result of the one before it, rounding and
+   * clamping in between, so the result is exactly the same as applying them one at a time.
+   */
+  STEPWISE,
+
+  /**
+   * Transformations are multiplied into one only when no result of the first can be clamped, so
+   * clamping is exact and only the rounding in between is skipped. Otherwise they are applied
+   * stepwise.
+   */
+  EXACT_CLAMPING,
+
+  /**
+   * Transformations are always multiplied into one, skipping the rounding and clamping in between.
+   */
+  ALGEBRAIC;
+
+  /**
+   * Combines two operations into one according to this composition.
+   *
+   * @param first   the operation applied first
+   * @param next    the operation applied to the result of the first
+   * @return        an operation with the result of applying both
+   */
+  PointOperation combine(PointOperation first, PointOperation next) {
+    // lookup tables already compose exactly, so only other operations are multiplied together
+    boolean bothTables = first instanceof LookupTable && next instanceof LookupTable;
+    if (this != STEPWISE && !bothTables) {
+      ColorTransformation firstTransformation = asColorTransformation(first);
+      ColorTransformation nextTransformation = asColorTransformation(next);
+      if (firstTransformation != null && nextTransformation != null
+              && (this == ALGEBRAIC || firstTransformation.staysInRange())) {
+        return firstTransformation.compose(nextTransformation);
+      }
+    }
+    return first.andThen(next);
+  }
+
+  // returns the operation as a color transformation, or null if it cannot be written as one
+  private static ColorTransformation asColorTransformation(PointOperation operation) {
+    if (operation instanceof ColorTransformation) {
+      return (ColorTransformation) operation;
+    }
+    if (operation instanceof LookupTable) {
+      return ((LookupTable) operation).toColorTransformation();
+    }
+    return null;
+  }
+}
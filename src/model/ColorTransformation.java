@@ -0,0 +1,162 @@
+package model;
+
+/**
+ * Represents an affine color transformation: a 3x3 matrix multiplied by the RGB values of a pixel
+ * plus an offset for each channel. Each result is rounded down and kept between 0 and 255. Two
+ * transformations can be composed into one, which multiplies each pixel once instead of twice but
+ * skips the rounding and clamping between them.
+ */
+public final class ColorTransformation implements PointOperation {
+  // the matrix in row-major order, so the red row comes first
+  private final double[] matrix;
+  private final double[] offset;
+
+  // constructs a transformation that takes ownership of the given arrays
+  private ColorTransformation(double[] matrix, double[] offset) {
+    this.matrix = matrix;
+    this.offset = offset;
+  }
+
+  /**
+   * Returns a transformation that multiplies the given 3x3 kernel by the RGB values of a pixel.
+   *
+   * @param kernel                      the kernel used to apply the color transformation
+   * @return                            the color transformation
+   * @throws IllegalArgumentException   if the kernel is not 3x3
+   */
+  public static ColorTransformation of(double[][] kernel) {
+    return of(kernel, new double[3]);
+  }
+
+  /**
+   * Returns a transformation that multiplies the given 3x3 kernel by the RGB values of a pixel and
+   * adds the given offset to each channel.
+   *
+   * @param kernel                      the kernel used to apply the color transformation
+   * @param offset                      the values added to the red, green and blue results
+   * @return                            the color transformation
+   * @throws IllegalArgumentException   if the kernel is not 3x3 or the offset does not have 3
+   *                                    values
+   */
+  public static ColorTransformation of(double[][] kernel, double[] offset) {
+    if (kernel == null || kernel.length != 3 || kernel[0].length != 3 || kernel[1].length != 3
+            || kernel[2].length != 3) {
+      throw new IllegalArgumentException("error: given kernel must be 3x3");
+    }
+
+    if (offset == null || offset.length != 3) {
+      throw new IllegalArgumentException("error: given offset must have 3 values");
+    }
+
+    double[] matrix = new double[9];
+    for (int row = 0; row < 3; row++) {
+      System.arraycopy(kernel[row], 0, matrix, row * 3, 3);
+    }
+    return new ColorTransformation(matrix, offset.clone());
+  }
+
+  /**
+   * Returns a transformation that adds the given increment to all components of a pixel, which is
+   * the same as brightening with a maximum RGB value of 255.
+   *
+   * @param adjust  the increment to add to each component
+   * @return        the color transformation
+   */
+  public static ColorTransformation brightness(int adjust) {
+    return new ColorTransformation(new double[]{1, 0, 0, 0, 1, 0, 0, 0, 1},
+            new double[]{adjust, adjust, adjust});
+  }
+
+  /**
+   * Returns a transformation that copies the given channel of a pixel into all three channels.
+   *
+   * @param channel the channel to copy, 0 for red, 1 for green and 2 for blue
+   * @return        the color transformation
+   */
+  static ColorTransformation component(int channel) {
+    double[] matrix = new double[9];
+    for (int row = 0; row < 3; row++) {
+      matrix[row * 3 + channel] = 1;
+    }
+    return new ColorTransformation(matrix, new double[3]);
+  }
+
+  /**
+   * Returns a single transformation that multiplies by this transformation's matrix and then the
+   * given one's. Unlike {@link #andThen}, the result of this transformation is not rounded or
+   * clamped before the next one is applied.
+   *
+   * @param next  the transformation to apply after this one
+   * @return      the composed transformation
+   */
+  public ColorTransformation compose(ColorTransformation next) {
+    double[] composedMatrix = new double[9];
+    double[] composedOffset = new double[3];
+
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < 3; col++) {
+        double sum = 0;
+        for (int middle = 0; middle < 3; middle++) {
+          sum += next.matrix[row * 3 + middle] * this.matrix[middle * 3 + col];
+        }
+        composedMatrix[row * 3 + col] = sum;
+      }
+
+      double shifted = next.offset[row];
+      for (int middle = 0; middle < 3; middle++) {
+        shifted += next.matrix[row * 3 + middle] * this.offset[middle];
+      }
+      composedOffset[row] = shifted;
+    }
+
+    return new ColorTransformation(composedMatrix, composedOffset);
+  }
+
+  /**
+   * Returns whether every result of this transformation is between 0 and 255 before clamping,
+   * for any pixel. When it is, clamping the result before another transformation changes nothing,
+   * so composing with the next transformation only skips the rounding in between.
+   *
+   * @return true if no result of this transformation is ever clamped
+   */
+  public boolean staysInRange() {
+    for (int row = 0; row < 3; row++) {
+      double min = this.offset[row];
+      double max = this.offset[row];
+      for (int col = 0; col < 3; col++) {
+        double weight = this.matrix[row * 3 + col] * 255;
+        if (weight < 0) {
+          min += weight;
+        }
+        else {
+          max += weight;
+        }
+      }
+
+      if (min < 0 || max >= 256) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int apply(int rgb) {
+    int red = Pixel.redOf(rgb);
+    int green = Pixel.greenOf(rgb);
+    int blue = Pixel.blueOf(rgb);
+    double[] m = this.matrix;
+    return Pixel.pack(
+            Pixel.adjustValue((int) Math.floor(
+                    m[0] * red + m[1] * green + m[2] * blue + this.offset[0])),
+            Pixel.adjustValue((int) Math.floor(
+                    m[3] * red + m[4] * green + m[5] * blue + this.offset[1])),
+            Pixel.adjustValue((int) Math.floor(
+                    m[6] * red + m[7] * green + m[8] * blue + this.offset[2])));
+  }
+
+  @Override
+  public void applyAll(int[] source, int[] dest, int start, int end) {
+    PixelKernels.INSTANCE.colorTransform(this.matrix, this.offset, source, dest, start, end);
+  }
+}
@@ -0,0 +1,415 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Applies filter kernels to packed rasters. Neighbors outside of the image are read according to
+ * an edge mode. Each sum is truncated to an integer and kept between 0 and the image's maximum
+ * RGB value.
+ *
+ * <p>The image is filtered in tiles small enough to stay in cache. Each tile first copies its
+ * pixels and a halo of neighbors around them, resolved through the edge mode, into separate
+ * planes for the red, green and blue components, so the filter loops read neither packed pixels
+ * nor positions outside of the plane and need no checks. Each weight is applied to a whole row of
+ * the tile at once through model.PixelKernels, which may use SIMD instructions. Large images are
+ * filtered with their tiles spread over the pool of model.Parallelism. Every pixel is computed
+ * with the same operations in the same order no matter which tile or thread computes it, so the
+ * result never depends on the number of threads.
+ *
+ * <p>Kernels that are not separable in fixed point are applied through the taps model.Kernel
+ * worked out for them, skipping zero weights. Kernels stored in fixed point are applied with
+ * integer multiply-adds, folding mirrored pairs of equal weights, and a shift that truncates
+ * toward zero like a cast does, which gives exactly the same results as the floating point sums.
+ * Large kernels that are not separable are handed to model.FourierConvolution.
+ */
+final class Convolution {
+  private static final int TILE_WIDTH = 256;
+  private static final int TILE_HEIGHT = 32;
+  // the planes a thread filters its tiles in, kept between tiles and calls to avoid allocating
+  private static final ThreadLocal<Planes> PLANES = ThreadLocal.withInitial(Planes::new);
+
+  // this class only has static methods
+  private Convolution() {
+  }
+
+  /**
+   * Applies the kernel to every pixel of the raster, using separate horizontal and vertical
+   * passes when the kernel is separable in fixed point.
+   *
+   * @param raster      the packed RGB values of the image in row-major order
+   * @param width       the width of the image
+   * @param height      the height of the image
+   * @param kernel      the kernel to apply
+   * @param edgeMode    how neighbors outside of the image are read
+   * @param maxValue    the largest value a component may have
+   * @return            the raster of the filtered image
+   */
+  static int[] apply(int[] raster, int width, int height, Kernel kernel, EdgeMode edgeMode,
+                     int maxValue) {
+    int[] filtered = new int[raster.length];
+    if (FourierConvolution.suits(kernel)) {
+      FourierConvolution.apply(raster, width, height, kernel, edgeMode, maxValue, filtered);
+      return filtered;
+    }
+
+    Job job = new Job(raster, width, height, kernel, edgeMode, maxValue, filtered);
+
+    if (!Parallelism.isParallel(raster.length) || job.tileCount <= 1) {
+      job.filterTiles(0, job.tileCount);
+    }
+    else {
+      Parallelism.pool().invoke(new TileTask(job, 0, job.tileCount));
+    }
+    return filtered;
+  }
+
+  // the scratch space of one thread: the padded component planes of a tile, the results of the
+  // horizontal pass of a kernel separable in fixed point and the sums of the row of the tile
+  // being filtered
+  private static final class Planes {
+    private int[] red = new int[0];
+    private int[] green = new int[0];
+    private int[] blue = new int[0];
+    private int[] fixedPassRed = new int[0];
+    private int[] fixedPassGreen = new int[0];
+    private int[] fixedPassBlue = new int[0];
+    private double[] redSums = new double[0];
+    private double[] greenSums = new double[0];
+    private double[] blueSums = new double[0];
+    private int[] fixedRedSums = new int[0];
+    private int[] fixedGreenSums = new int[0];
+    private int[] fixedBlueSums = new int[0];
+
+    // makes sure the component planes hold at least the given number of values
+    private void ensurePadded(int size) {
+      if (this.red.length < size) {
+        this.red = new int[size];
+        this.green = new int[size];
+        this.blue = new int[size];
+      }
+    }
+
+    // makes sure the fixed point pass planes hold at least the given number of values
+    private void ensureFixedPass(int size) {
+      if (this.fixedPassRed.length < size) {
+        this.fixedPassRed = new int[size];
+        this.fixedPassGreen = new int[size];
+        this.fixedPassBlue = new int[size];
+      }
+    }
+
+    // makes sure the sums of a row of the tile hold at least the given number of values
+    private void ensureSums(int size) {
+      if (this.redSums.length < size) {
+        this.redSums = new double[size];
+        this.greenSums = new double[size];
+        this.blueSums = new double[size];
+        this.fixedRedSums = new int[size];
+        this.fixedGreenSums = new int[size];
+        this.fixedBlueSums = new int[size];
+      }
+    }
+  }
+
+  // filters a range of tiles, splitting it in half until it is a single tile
+  private static final class TileTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final Job job;
+    private final int first;
+    private final int last;
+
+    private TileTask(Job job, int first, int last) {
+      this.job = job;
+      this.first = first;
+      this.last = last;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.last - this.first <= 1) {
+        this.job.filterTiles(this.first, this.last);
+        return;
+      }
+
+      int middle = (this.first + this.last) >>> 1;
+      invokeAll(new TileTask(this.job, this.first, middle),
+              new TileTask(this.job, middle, this.last));
+    }
+  }
+
+  // the image, kernel and destination of one call, shared by every tile
+  private static final class Job {
+    private final int[] raster;
+    private final int width;
+    private final int height;
+    private final Kernel kernel;
+    private final int maxValue;
+    private final int[] filtered;
+    private final int centerRow;
+    private final int centerCol;
+    // the image row and column read at each position from -center to size + center - 1,
+    // shifted so that position -center is at index 0, with -1 for neighbors that are black
+    private final int[] rows;
+    private final int[] cols;
+    private final int tileCols;
+    private final int tileCount;
+
+    private Job(int[] raster, int width, int height, Kernel kernel, EdgeMode edgeMode,
+                int maxValue, int[] filtered) {
+      this.raster = raster;
+      this.width = width;
+      this.height = height;
+      this.kernel = kernel;
+      this.maxValue = maxValue;
+      this.filtered = filtered;
+      this.centerRow = kernel.getHeight() / 2;
+      this.centerCol = kernel.getWidth() / 2;
+      this.rows = resolveAll(height, this.centerRow, edgeMode);
+      this.cols = resolveAll(width, this.centerCol, edgeMode);
+      this.tileCols = (width + TILE_WIDTH - 1) / TILE_WIDTH;
+      this.tileCount = this.tileCols * ((height + TILE_HEIGHT - 1) / TILE_HEIGHT);
+    }
+
+    // filters the tiles with indices in [first, last) on the calling thread
+    private void filterTiles(int first, int last) {
+      Planes planes = PLANES.get();
+      for (int tile = first; tile < last; tile++) {
+        int top = (tile / this.tileCols) * TILE_HEIGHT;
+        int left = (tile % this.tileCols) * TILE_WIDTH;
+        this.filterTile(top, left, Math.min(TILE_HEIGHT, this.height - top),
+                Math.min(TILE_WIDTH, this.width - left), planes);
+      }
+    }
+
+    // copies a tile and its halo into the planes and filters it with the fastest path that
+    // fits the kernel
+    private void filterTile(int top, int left, int tileHeight, int tileWidth, Planes planes) {
+      int paddedHeight = tileHeight + 2 * this.centerRow;
+      int paddedWidth = tileWidth + 2 * this.centerCol;
+      planes.ensurePadded(paddedHeight * paddedWidth);
+      this.pad(top, left, paddedHeight, paddedWidth, planes);
+
+      if (this.kernel.fixedVertical() != null) {
+        planes.ensureFixedPass(paddedHeight * tileWidth);
+        this.separableFixed(top, left, tileHeight, tileWidth, paddedWidth, planes);
+      }
+      else if (this.kernel.isFixedPoint()) {
+        this.directFixed(top, left, tileHeight, tileWidth, paddedWidth, planes);
+      }
+      else {
+        this.direct(top, left, tileHeight, tileWidth, paddedWidth, planes);
+      }
+    }
+
+    // splits the components of the tile and its halo into the planes; black neighbors are zero,
+    // which adds nothing to a sum, just like skipping them
+    private void pad(int top, int left, int paddedHeight, int paddedWidth, Planes planes) {
+      int[] red = planes.red;
+      int[] green = planes.green;
+      int[] blue = planes.blue;
+
+      for (int paddedRow = 0; paddedRow < paddedHeight; paddedRow++) {
+        int imageRow = this.rows[top + paddedRow];
+        int planeStart = paddedRow * paddedWidth;
+        int rowStart = imageRow * this.width;
+
+        for (int paddedCol = 0; paddedCol < paddedWidth; paddedCol++) {
+          int imageCol = this.cols[left + paddedCol];
+          int rgb = imageRow < 0 || imageCol < 0 ? 0 : this.raster[rowStart + imageCol];
+          red[planeStart + paddedCol] = (rgb >> 16) & 0xFF;
+          green[planeStart + paddedCol] = (rgb >> 8) & 0xFF;
+          blue[planeStart + paddedCol] = rgb & 0xFF;
+        }
+      }
+    }
+
+    // multiplies every nonzero weight of the kernel by its neighbor for every pixel of the tile,
+    // a whole row of the tile per weight, so every pixel adds its weights in the same order
+    private void direct(int top, int left, int tileHeight, int tileWidth, int paddedWidth,
+                        Planes planes) {
+      PixelKernels kernels = PixelKernels.INSTANCE;
+      int[] offsets = this.offsets(this.kernel.taps(), paddedWidth);
+      double[] weights = this.kernel.tapWeights();
+      planes.ensureSums(tileWidth);
+      double[] redSums = planes.redSums;
+      double[] greenSums = planes.greenSums;
+      double[] blueSums = planes.blueSums;
+
+      for (int row = 0; row < tileHeight; row++) {
+        Arrays.fill(redSums, 0, tileWidth, 0);
+        Arrays.fill(greenSums, 0, tileWidth, 0);
+        Arrays.fill(blueSums, 0, tileWidth, 0);
+
+        int rowStart = row * paddedWidth;
+        for (int tap = 0; tap < offsets.length; tap++) {
+          double weight = weights[tap];
+          int planeStart = rowStart + offsets[tap];
+          kernels.multiplyAdd(weight, planes.red, planeStart, redSums, 0, tileWidth);
+          kernels.multiplyAdd(weight, planes.green, planeStart, greenSums, 0, tileWidth);
+          kernels.multiplyAdd(weight, planes.blue, planeStart, blueSums, 0, tileWidth);
+        }
+
+        int outputStart = (top + row) * this.width + left;
+        for (int col = 0; col < tileWidth; col++) {
+          this.filtered[outputStart + col] = pack(redSums[col], greenSums[col], blueSums[col],
+                  this.maxValue);
+        }
+      }
+    }
+
+    // returns the offset in a padded plane of the neighbor read by each of the given indices of
+    // the kernel, or -1 for each index that is -1
+    private int[] offsets(int[] indices, int paddedWidth) {
+      int kernelWidth = this.kernel.getWidth();
+      int[] offsets = new int[indices.length];
+      for (int tap = 0; tap < indices.length; tap++) {
+        offsets[tap] = indices[tap] < 0 ? -1
+                : (indices[tap] / kernelWidth) * paddedWidth + indices[tap] % kernelWidth;
+      }
+      return offsets;
+    }
+
+    // multiplies every nonzero fixed point weight of the kernel by its neighbor for every pixel,
+    // a whole row of the tile per weight, and each folded pair of equal weights by the sum of
+    // their two neighbors
+    private void directFixed(int top, int left, int tileHeight, int tileWidth, int paddedWidth,
+                             Planes planes) {
+      PixelKernels kernels = PixelKernels.INSTANCE;
+      int[] offsets = this.offsets(this.kernel.fixedTaps(), paddedWidth);
+      int[] mirroredOffsets = this.offsets(this.kernel.mirroredTaps(), paddedWidth);
+      int[] weights = this.kernel.fixedTapWeights();
+      int shift = this.kernel.fixedShift();
+      planes.ensureSums(tileWidth);
+      int[] redSums = planes.fixedRedSums;
+      int[] greenSums = planes.fixedGreenSums;
+      int[] blueSums = planes.fixedBlueSums;
+
+      for (int row = 0; row < tileHeight; row++) {
+        Arrays.fill(redSums, 0, tileWidth, 0);
+        Arrays.fill(greenSums, 0, tileWidth, 0);
+        Arrays.fill(blueSums, 0, tileWidth, 0);
+
+        int rowStart = row * paddedWidth;
+        for (int tap = 0; tap < offsets.length; tap++) {
+          int weight = weights[tap];
+          int planeStart = rowStart + offsets[tap];
+          if (mirroredOffsets[tap] < 0) {
+            kernels.multiplyAdd(weight, planes.red, planeStart, redSums, 0, tileWidth);
+            kernels.multiplyAdd(weight, planes.green, planeStart, greenSums, 0, tileWidth);
+            kernels.multiplyAdd(weight, planes.blue, planeStart, blueSums, 0, tileWidth);
+          }
+          else {
+            int mirroredStart = rowStart + mirroredOffsets[tap];
+            kernels.multiplyAddPairs(weight, planes.red, planeStart, mirroredStart, redSums, 0,
+                    tileWidth);
+            kernels.multiplyAddPairs(weight, planes.green, planeStart, mirroredStart, greenSums,
+                    0, tileWidth);
+            kernels.multiplyAddPairs(weight, planes.blue, planeStart, mirroredStart, blueSums, 0,
+                    tileWidth);
+          }
+        }
+
+        int outputStart = (top + row) * this.width + left;
+        for (int col = 0; col < tileWidth; col++) {
+          this.filtered[outputStart + col] = packFixed(redSums[col], greenSums[col],
+                  blueSums[col], shift, this.maxValue);
+        }
+      }
+    }
+
+    // runs the fixed point horizontal kernel over every row of the padded tile and then the
+    // fixed point vertical kernel over the integer results, shifting by both passes' fractional
+    // bits at the end
+    private void separableFixed(int top, int left, int tileHeight, int tileWidth,
+                                int paddedWidth, Planes planes) {
+      PixelKernels kernels = PixelKernels.INSTANCE;
+      int[] vertical = this.kernel.fixedVertical();
+      int[] horizontal = this.kernel.fixedHorizontal();
+      int shift = this.kernel.verticalShift() + this.kernel.horizontalShift();
+      int paddedHeight = tileHeight + 2 * this.centerRow;
+      int[] passRed = planes.fixedPassRed;
+      int[] passGreen = planes.fixedPassGreen;
+      int[] passBlue = planes.fixedPassBlue;
+      Arrays.fill(passRed, 0, paddedHeight * tileWidth, 0);
+      Arrays.fill(passGreen, 0, paddedHeight * tileWidth, 0);
+      Arrays.fill(passBlue, 0, paddedHeight * tileWidth, 0);
+
+      for (int row = 0; row < paddedHeight; row++) {
+        int planeStart = row * paddedWidth;
+        int passStart = row * tileWidth;
+        for (int kernelCol = 0; kernelCol < horizontal.length; kernelCol++) {
+          int weight = horizontal[kernelCol];
+          kernels.multiplyAdd(weight, planes.red, planeStart + kernelCol, passRed, passStart,
+                  tileWidth);
+          kernels.multiplyAdd(weight, planes.green, planeStart + kernelCol, passGreen,
+                  passStart, tileWidth);
+          kernels.multiplyAdd(weight, planes.blue, planeStart + kernelCol, passBlue, passStart,
+                  tileWidth);
+        }
+      }
+
+      planes.ensureSums(tileWidth);
+      int[] redSums = planes.fixedRedSums;
+      int[] greenSums = planes.fixedGreenSums;
+      int[] blueSums = planes.fixedBlueSums;
+      for (int row = 0; row < tileHeight; row++) {
+        Arrays.fill(redSums, 0, tileWidth, 0);
+        Arrays.fill(greenSums, 0, tileWidth, 0);
+        Arrays.fill(blueSums, 0, tileWidth, 0);
+        for (int kernelRow = 0; kernelRow < vertical.length; kernelRow++) {
+          int passStart = (row + kernelRow) * tileWidth;
+          int weight = vertical[kernelRow];
+          kernels.multiplyAdd(weight, passRed, passStart, redSums, 0, tileWidth);
+          kernels.multiplyAdd(weight, passGreen, passStart, greenSums, 0, tileWidth);
+          kernels.multiplyAdd(weight, passBlue, passStart, blueSums, 0, tileWidth);
+        }
+
+        int outputStart = (top + row) * this.width + left;
+        for (int col = 0; col < tileWidth; col++) {
+          this.filtered[outputStart + col] = packFixed(redSums[col], greenSums[col],
+                  blueSums[col], shift, this.maxValue);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the position in the image read for each position from -center to size + center - 1
+   * along one axis, shifted so that position -center is at index 0, with -1 for neighbors that
+   * are black.
+   *
+   * @param size      the size of the image along the axis
+   * @param center    the number of positions read past each edge
+   * @param edgeMode  how positions outside of the image are read
+   * @return          the position read for each position
+   */
+  static int[] resolveAll(int size, int center, EdgeMode edgeMode) {
+    int[] resolved = new int[size + 2 * center];
+    for (int index = 0; index < resolved.length; index++) {
+      resolved[index] = edgeMode.resolve(index - center, size);
+    }
+    return resolved;
+  }
+
+  // divides fixed point sums by 2^shift, truncating toward zero like a cast from a double, then
+  // keeps them between 0 and the maximum value and packs them
+  static int packFixed(int red, int green, int blue, int shift, int maxValue) {
+    // adding 2^shift - 1 to negative sums makes the arithmetic shift round toward zero
+    int bias = (1 << shift) - 1;
+    return (clamp((red + ((red >> 31) & bias)) >> shift, maxValue) << 16)
+            | (clamp((green + ((green >> 31) & bias)) >> shift, maxValue) << 8)
+            | clamp((blue + ((blue >> 31) & bias)) >> shift, maxValue);
+  }
+
+  // truncates the sums to integers, keeps them between 0 and the maximum value and packs them
+  static int pack(double red, double green, double blue, int maxValue) {
+    return (clamp((int) red, maxValue) << 16) | (clamp((int) green, maxValue) << 8)
+            | clamp((int) blue, maxValue);
+  }
+
+  // keeps a component between 0 and the maximum value
+  private static int clamp(int value, int maxValue) {
+    return Math.min(Math.max(value, 0), maxValue);
+  }
+}
@@ -0,0 +1,246 @@
+package model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Represents an image that is the result of point operations on a source image which have not
+ * been applied yet. Point operations on a deferred image are combined with the pending operation
+ * instead of being applied, so a chain of them is fused into one pass over the source. The pixels
+ * are computed once, the first time anything reads them, such as saving or displaying the image
+ * or applying a filter to it. How chained color transformations are combined is set by a
+ * model.ColorComposition.
+ */
+public class DeferredImageModel implements ImageModel {
+  private final ImageModel source;
+  // null when there is no pending operation and this image is the source itself
+  private final PointOperation operation;
+  private final String name;
+  private final ColorComposition composition;
+  private ImageModel materialized;
+
+  // constructs a deferred image for the given operation on the source
+  private DeferredImageModel(ImageModel source, PointOperation operation, String name,
+                             ColorComposition composition) {
+    this.source = source;
+    this.operation = operation;
+    this.name = name;
+    this.composition = composition;
+    this.materialized = operation == null ? source : null;
+  }
+
+  /**
+   * Returns a deferred version of the given image, on which point operations are fused instead of
+   * applied. Deferred images are returned as they are.
+   *
+   * @param image                       the image to defer operations on
+   * @return                            a deferred image with the same pixels as the given image
+   * @throws IllegalArgumentException   if image is null
+   */
+  public static DeferredImageModel wrap(ImageModel image) {
+    return wrap(image, ColorComposition.STEPWISE);
+  }
+
+  /**
+   * Returns a deferred version of the given image, on which point operations are fused instead of
+   * applied and color transformations are combined with the given composition. Deferred images
+   * are returned as they are.
+   *
+   * @param image                       the image to defer operations on
+   * @param composition                 how chained color transformations are combined
+   * @return                            a deferred image with the same pixels as the given image
+   * @throws IllegalArgumentException   if image or composition is null
+   */
+  public static DeferredImageModel wrap(ImageModel image, ColorComposition composition) {
+    if (image == null || composition == null) {
+      throw new IllegalArgumentException("error: given null image or composition");
+    }
+
+    if (image instanceof DeferredImageModel) {
+      return (DeferredImageModel) image;
+    }
+    return new DeferredImageModel(image, null, image.getName(), composition);
+  }
+
+  // returns the image with the pending operation applied, computing it the first time
+  private synchronized ImageModel materialize() {
+    if (this.materialized == null) {
+      this.materialized = this.source.applyPointOperation(this.name, this.operation);
+    }
+    return this.materialized;
+  }
+
+  // returns a deferred image that applies the given operation after this image's operation
+  private ImageModel defer(String name, PointOperation next) {
+    if (RasterImageModel.invalidName(name)) {
+      throw new IllegalArgumentException("error: empty name");
+    }
+
+    synchronized (this) {
+      // once this image has been computed, start the new chain from its pixels
+      if (this.materialized != null) {
+        return new DeferredImageModel(this.materialized, next, name, this.composition);
+      }
+    }
+    return new DeferredImageModel(this.source, this.composition.combine(this.operation, next),
+            name, this.composition);
+  }
+
+  @Override
+  public List<List<Pixel>> getPixels() {
+    return this.materialize().getPixels();
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    return this.materialize().getRGB(row, col);
+  }
+
+  @Override
+  public void getRGBRow(int row, int[] dest, int offset) {
+    this.materialize().getRGBRow(row, dest, offset);
+  }
+
+  @Override
+  public void getRGBRegion(int startRow, int startCol, int regionWidth, int regionHeight,
+                           int[] dest, int offset) {
+    this.materialize().getRGBRegion(startRow, startCol, regionWidth, regionHeight, dest, offset);
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.source.getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    return this.source.getHeight();
+  }
+
+  @Override
+  public int getMaxRGB() {
+    return this.source.getMaxRGB();
+  }
+
+  @Override
+  public ImageModel getImageAllRed(String name) {
+    return this.defer(name, PointOperation.redComponent());
+  }
+
+  @Override
+  public ImageModel getImageAllBlue(String name) {
+    return this.defer(name, PointOperation.blueComponent());
+  }
+
+  @Override
+  public ImageModel getImageAllGreen(String name) {
+    return this.defer(name, PointOperation.greenComponent());
+  }
+
+  @Override
+  public ImageModel getImageAllValue(String name) {
+    return this.defer(name, PointOperation.valueComponent());
+  }
+
+  @Override
+  public ImageModel getImageAllIntensity(String name) {
+    return this.defer(name, PointOperation.intensityComponent());
+  }
+
+  @Override
+  public ImageModel getImageAllLuma(String name) {
+    return this.defer(name, PointOperation.lumaComponent());
+  }
+
+  @Override
+  public ImageModel getImageFlipHorizontal(String name) {
+    return this.materialize().getImageFlipHorizontal(name);
+  }
+
+  @Override
+  public ImageModel getImageFlipVertical(String name) {
+    return this.materialize().getImageFlipVertical(name);
+  }
+
+  @Override
+  public ImageModel getImageAdjustBrightness(String name, int adjust) {
+    return this.defer(name, PointOperation.adjustBrightness(adjust, this.getMaxRGB()));
+  }
+
+  @Override
+  public ImageModel applyPointOperation(String name, PointOperation operation) {
+    return this.defer(name, operation);
+  }
+
+  @Override
+  public ImageModel applyFilter(String name, double[][] kernel) {
+    return this.materialize().applyFilter(name, kernel);
+  }
+
+  @Override
+  public ImageModel applyFilter(String name, double[][] kernel, EdgeMode edgeMode) {
+    return this.materialize().applyFilter(name, kernel, edgeMode);
+  }
+
+  @Override
+  public ImageModel applyFilter(String name, Kernel kernel, EdgeMode edgeMode) {
+    return this.materialize().applyFilter(name, kernel, edgeMode);
+  }
+
+  @Override
+  public ImageModel applySeparableFilter(String name, double[] vertical, double[] horizontal) {
+    return this.materialize().applySeparableFilter(name, vertical, horizontal);
+  }
+
+  @Override
+  public ImageModel applySeparableFilter(String name, double[] vertical, double[] horizontal,
+                                         EdgeMode edgeMode) {
+    return this.materialize().applySeparableFilter(name, vertical, horizontal, edgeMode);
+  }
+
+  @Override
+  public ImageModel applyBoxBlur(String name, int radius, EdgeMode edgeMode) {
+    return this.materialize().applyBoxBlur(name, radius, edgeMode);
+  }
+
+  @Override
+  public ImageModel applyMedianFilter(String name, int radius, EdgeMode edgeMode) {
+    return this.materialize().applyMedianFilter(name, radius, edgeMode);
+  }
+
+  @Override
+  public ImageModel applyGaussianBlur(String name, double sigma, EdgeMode edgeMode) {
+    return this.materialize().applyGaussianBlur(name, sigma, edgeMode);
+  }
+
+  @Override
+  public ImageModel applyColorTransformation(String name, double[][] kernel) {
+    if (RasterImageModel.invalidName(name)) {
+      throw new IllegalArgumentException("error: empty name");
+    }
+
+    try {
+      return this.defer(name, PointOperation.colorTransformation(kernel));
+    }
+    catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("error: provided invalid kernel");
+    }
+  }
+
+  @Override
+  public Map<Integer, Integer> getHistogram(Function<Pixel, Integer> func) {
+    return this.materialize().getHistogram(func);
+  }
+
+  @Override
+  public Histogram getHistogram(Set<HistogramChannel> channels) {
+    return this.materialize().getHistogram(channels);
+  }
+}
@@ -0,0 +1,69 @@
+package model;
+
+/**
+ * Represents how a filter reads the neighbors of a pixel that fall outside of the image.
+ */
+public enum EdgeMode {
+  /**
+   * Neighbors outside of the image are black, so they add nothing to the sum.
+   */
+  ZERO,
+
+  /**
+   * Neighbors outside of the image take the value of the nearest pixel on the edge.
+   */
+  CLAMP,
+
+  /**
+   * The image is reflected across its edges, including the edge pixel, so the neighbor one pixel
+   * past the edge is the edge pixel itself.
+   */
+  MIRROR,
+
+  /**
+   * The image repeats, so neighbors past one edge are read from the opposite edge.
+   */
+  WRAP;
+
+  /**
+   * Returns the position inside the image that a neighbor at the given position is read from.
+   *
+   * @param index   the position of the neighbor along one axis, which may be outside the image
+   * @param size    the size of the image along that axis
+   * @return        the position to read, or -1 if the neighbor is black
+   */
+  public int resolve(int index, int size) {
+    if (index >= 0 && index < size) {
+      return index;
+    }
+
+    switch (this) {
+      case CLAMP:
+        return index < 0 ? 0 : size - 1;
+      case MIRROR:
+        // the reflected image repeats every two sizes, reversed in the second half
+        int period = Math.floorMod(index, 2 * size);
+        return period < size ? period : 2 * size - 1 - period;
+      case WRAP:
+        return Math.floorMod(index, size);
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Returns the edge mode with the given name, ignoring case.
+   *
+   * @param name                        the name of the edge mode, such as "clamp"
+   * @return                            the edge mode
+   * @throws IllegalArgumentException   if no edge mode has the given name
+   */
+  public static EdgeMode fromName(String name) {
+    for (EdgeMode mode : values()) {
+      if (mode.name().equalsIgnoreCase(name)) {
+        return mode;
+      }
+    }
+    throw new IllegalArgumentException("error: unknown edge mode " + name);
+  }
+}
@@ -0,0 +1,386 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Applies large kernels that are not separable with fast Fourier transforms, which takes a
+ * number of operations per pixel that grows with the logarithm of the kernel's size instead of
+ * with its number of weights.
+ *
+ * <p>The image is filtered in blocks so memory stays bounded however large the image is. Each
+ * block is copied with a halo of neighbors, resolved through the edge mode, into a grid whose
+ * sides are powers of two, transformed, multiplied by the transform of the kernel and transformed
+ * back. The results the halo wrapped around onto are thrown away, which leaves exactly the
+ * block's filtered pixels. The red and green components share one complex transform, as its real
+ * and imaginary parts, since the kernel is real and never mixes the two.
+ *
+ * <p>Transforms round differently than direct sums, so a component that lands within rounding
+ * error of a whole number can come out one lower or higher than the direct filter gives. Kernels
+ * stored in fixed point have results that are whole multiples of a power of two, so their results
+ * are rounded to the nearest such multiple and are exactly the same as the direct filter's.
+ */
+final class FourierConvolution {
+  // kernels with at least this many weights are transformed unless they are separable
+  static final int MIN_WEIGHTS = 15 * 15;
+  private static final int MIN_TRANSFORM_SIZE = 64;
+  private static final int MAX_TRANSFORM_SIZE = 1024;
+  // the grids a thread transforms its blocks in, kept between blocks and calls
+  private static final ThreadLocal<Grids> GRIDS = ThreadLocal.withInitial(Grids::new);
+
+  // this class only has static methods
+  private FourierConvolution() {
+  }
+
+  /**
+   * Returns whether the given kernel is faster to apply with Fourier transforms than directly.
+   *
+   * @param kernel  the kernel to check
+   * @return        true if the kernel is large and not separable
+   */
+  static boolean suits(Kernel kernel) {
+    return !kernel.isSeparable() && kernel.getHeight() * kernel.getWidth() >= MIN_WEIGHTS;
+  }
+
+  /**
+   * Applies the kernel to every pixel of the raster, writing the results into another raster.
+   *
+   * @param raster      the packed RGB values of the image in row-major order
+   * @param width       the width of the image
+   * @param height      the height of the image
+   * @param kernel      the kernel to apply
+   * @param edgeMode    how neighbors outside of the image are read
+   * @param maxValue    the largest value a component may have
+   * @param filtered    the raster to write the filtered image into
+   */
+  static void apply(int[] raster, int width, int height, Kernel kernel, EdgeMode edgeMode,
+                    int maxValue, int[] filtered) {
+    Job job = new Job(raster, width, height, kernel, edgeMode, maxValue, filtered);
+
+    if (!Parallelism.isParallel(raster.length) || job.blockCount <= 1) {
+      job.filterBlocks(0, job.blockCount);
+    }
+    else {
+      Parallelism.pool().invoke(new BlockTask(job, 0, job.blockCount));
+    }
+  }
+
+  // returns the side of the transform grid for a kernel side, a power of two that leaves room
+  // for a block several times wider than the halo
+  private static int transformSize(int kernelSize) {
+    int size = MIN_TRANSFORM_SIZE;
+    while (size < 4 * (kernelSize - 1) && size < MAX_TRANSFORM_SIZE) {
+      size <<= 1;
+    }
+    // a kernel larger than the cap still needs room for at least one filtered pixel per block
+    while (size < kernelSize) {
+      size <<= 1;
+    }
+    return size;
+  }
+
+  // the scratch space of one thread: two complex grids and a column of each
+  private static final class Grids {
+    private double[] firstReal = new double[0];
+    private double[] firstImaginary = new double[0];
+    private double[] secondReal = new double[0];
+    private double[] secondImaginary = new double[0];
+    private double[] columnReal = new double[0];
+    private double[] columnImaginary = new double[0];
+
+    // makes sure the grids hold at least the given number of values and the columns the given
+    // height
+    private void ensure(int size, int columnHeight) {
+      if (this.firstReal.length < size) {
+        this.firstReal = new double[size];
+        this.firstImaginary = new double[size];
+        this.secondReal = new double[size];
+        this.secondImaginary = new double[size];
+      }
+      if (this.columnReal.length < columnHeight) {
+        this.columnReal = new double[columnHeight];
+        this.columnImaginary = new double[columnHeight];
+      }
+    }
+  }
+
+  // filters a range of blocks, splitting it in half until it is a single block
+  private static final class BlockTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final Job job;
+    private final int first;
+    private final int last;
+
+    private BlockTask(Job job, int first, int last) {
+      this.job = job;
+      this.first = first;
+      this.last = last;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.last - this.first <= 1) {
+        this.job.filterBlocks(this.first, this.last);
+        return;
+      }
+
+      int middle = (this.first + this.last) >>> 1;
+      invokeAll(new BlockTask(this.job, this.first, middle),
+              new BlockTask(this.job, middle, this.last));
+    }
+  }
+
+  // the image, kernel transform and destination of one call, shared by every block
+  private static final class Job {
+    private final int[] raster;
+    private final int width;
+    private final int height;
+    private final int maxValue;
+    private final int[] filtered;
+    private final int kernelHeight;
+    private final int kernelWidth;
+    // the image row and column read at each position from -center to size + center - 1,
+    // shifted so that position -center is at index 0, with -1 for neighbors that are black
+    private final int[] rows;
+    private final int[] cols;
+    // the fractional bits of the kernel's fixed point weights, or -1 if it has none
+    private final int fixedShift;
+    private final int gridHeight;
+    private final int gridWidth;
+    private final int blockHeight;
+    private final int blockWidth;
+    private final int blockCols;
+    private final int blockCount;
+    // the transform of the kernel, scaled so the inverse transform needs no division
+    private final double[] kernelReal;
+    private final double[] kernelImaginary;
+    // the twiddle factors of the row and column transforms
+    private final double[] rowCos;
+    private final double[] rowSin;
+    private final double[] colCos;
+    private final double[] colSin;
+
+    private Job(int[] raster, int width, int height, Kernel kernel, EdgeMode edgeMode,
+                int maxValue, int[] filtered) {
+      this.raster = raster;
+      this.width = width;
+      this.height = height;
+      this.maxValue = maxValue;
+      this.filtered = filtered;
+      this.kernelHeight = kernel.getHeight();
+      this.kernelWidth = kernel.getWidth();
+      this.rows = Convolution.resolveAll(height, this.kernelHeight / 2, edgeMode);
+      this.cols = Convolution.resolveAll(width, this.kernelWidth / 2, edgeMode);
+      this.fixedShift = kernel.isFixedPoint() ? kernel.fixedShift() : -1;
+
+      this.gridHeight = transformSize(this.kernelHeight);
+      this.gridWidth = transformSize(this.kernelWidth);
+      this.blockHeight = this.gridHeight - this.kernelHeight + 1;
+      this.blockWidth = this.gridWidth - this.kernelWidth + 1;
+      this.blockCols = (width + this.blockWidth - 1) / this.blockWidth;
+      this.blockCount = this.blockCols * ((height + this.blockHeight - 1) / this.blockHeight);
+
+      this.rowCos = new double[this.gridWidth / 2];
+      this.rowSin = new double[this.gridWidth / 2];
+      twiddles(this.rowCos, this.rowSin, this.gridWidth);
+      this.colCos = new double[this.gridHeight / 2];
+      this.colSin = new double[this.gridHeight / 2];
+      twiddles(this.colCos, this.colSin, this.gridHeight);
+
+      // the filter sums weight (r, c) times the neighbor r rows down and c columns right, which
+      // a circular convolution gives when the weight is placed at (-r, -c)
+      int size = this.gridHeight * this.gridWidth;
+      double[] weights = kernel.weights();
+      double scale = 1.0 / size;
+      this.kernelReal = new double[size];
+      this.kernelImaginary = new double[size];
+      for (int row = 0; row < this.kernelHeight; row++) {
+        int gridRow = (this.gridHeight - row) % this.gridHeight;
+        for (int col = 0; col < this.kernelWidth; col++) {
+          int gridCol = (this.gridWidth - col) % this.gridWidth;
+          this.kernelReal[gridRow * this.gridWidth + gridCol] =
+                  weights[row * this.kernelWidth + col] * scale;
+        }
+      }
+      Grids grids = new Grids();
+      grids.ensure(0, this.gridHeight);
+      this.transform2d(this.kernelReal, this.kernelImaginary, this.gridHeight, false, grids);
+    }
+
+    // filters the blocks with indices in [first, last) on the calling thread
+    private void filterBlocks(int first, int last) {
+      Grids grids = GRIDS.get();
+      grids.ensure(this.gridHeight * this.gridWidth, this.gridHeight);
+      for (int block = first; block < last; block++) {
+        int top = (block / this.blockCols) * this.blockHeight;
+        int left = (block % this.blockCols) * this.blockWidth;
+        this.filterBlock(top, left, Math.min(this.blockHeight, this.height - top),
+                Math.min(this.blockWidth, this.width - left), grids);
+      }
+    }
+
+    // transforms a block and its halo, multiplies it by the kernel's transform and writes the
+    // part that did not wrap around back into the image
+    private void filterBlock(int top, int left, int blockHeight, int blockWidth, Grids grids) {
+      int paddedHeight = blockHeight + this.kernelHeight - 1;
+      int paddedWidth = blockWidth + this.kernelWidth - 1;
+      this.pad(top, left, paddedHeight, paddedWidth, grids);
+
+      // rows below the padded block are zero and stay zero through the row transforms
+      this.transform2d(grids.firstReal, grids.firstImaginary, paddedHeight, false, grids);
+      this.transform2d(grids.secondReal, grids.secondImaginary, paddedHeight, false, grids);
+      this.multiply(grids.firstReal, grids.firstImaginary);
+      this.multiply(grids.secondReal, grids.secondImaginary);
+      this.transform2d(grids.firstReal, grids.firstImaginary, this.gridHeight, true, grids);
+      this.transform2d(grids.secondReal, grids.secondImaginary, this.gridHeight, true, grids);
+
+      double[] red = grids.firstReal;
+      double[] green = grids.firstImaginary;
+      double[] blue = grids.secondReal;
+      for (int row = 0; row < blockHeight; row++) {
+        int outputStart = (top + row) * this.width + left;
+        int gridStart = row * this.gridWidth;
+        for (int col = 0; col < blockWidth; col++) {
+          int index = gridStart + col;
+          this.filtered[outputStart + col] = this.pack(red[index], green[index], blue[index]);
+        }
+      }
+    }
+
+    // splits the components of the block and its halo into the grids, red and green as the
+    // real and imaginary parts of the first and blue as the real part of the second, with zeros
+    // everywhere else
+    private void pad(int top, int left, int paddedHeight, int paddedWidth, Grids grids) {
+      double[] red = grids.firstReal;
+      double[] green = grids.firstImaginary;
+      double[] blue = grids.secondReal;
+      int size = this.gridHeight * this.gridWidth;
+      Arrays.fill(red, 0, size, 0);
+      Arrays.fill(green, 0, size, 0);
+      Arrays.fill(blue, 0, size, 0);
+      Arrays.fill(grids.secondImaginary, 0, size, 0);
+
+      for (int paddedRow = 0; paddedRow < paddedHeight; paddedRow++) {
+        int imageRow = this.rows[top + paddedRow];
+        if (imageRow < 0) {
+          continue;
+        }
+        int gridStart = paddedRow * this.gridWidth;
+        int rowStart = imageRow * this.width;
+
+        for (int paddedCol = 0; paddedCol < paddedWidth; paddedCol++) {
+          int imageCol = this.cols[left + paddedCol];
+          if (imageCol >= 0) {
+            int rgb = this.raster[rowStart + imageCol];
+            red[gridStart + paddedCol] = (rgb >> 16) & 0xFF;
+            green[gridStart + paddedCol] = (rgb >> 8) & 0xFF;
+            blue[gridStart + paddedCol] = rgb & 0xFF;
+          }
+        }
+      }
+    }
+
+    // multiplies a transformed grid by the transform of the kernel, element by element
+    private void multiply(double[] real, double[] imaginary) {
+      int size = this.gridHeight * this.gridWidth;
+      for (int index = 0; index < size; index++) {
+        double a = real[index];
+        double b = imaginary[index];
+        double c = this.kernelReal[index];
+        double d = this.kernelImaginary[index];
+        real[index] = a * c - b * d;
+        imaginary[index] = a * d + b * c;
+      }
+    }
+
+    // truncates the results to integers, or rounds them to the kernel's fixed point first, and
+    // packs them
+    private int pack(double red, double green, double blue) {
+      if (this.fixedShift < 0) {
+        return Convolution.pack(red, green, blue, this.maxValue);
+      }
+
+      double scale = 1 << this.fixedShift;
+      return Convolution.packFixed((int) Math.round(red * scale),
+              (int) Math.round(green * scale), (int) Math.round(blue * scale), this.fixedShift,
+              this.maxValue);
+    }
+
+    // transforms every row of a grid that has values in it, then every column
+    private void transform2d(double[] real, double[] imaginary, int usedRows, boolean inverse,
+                             Grids grids) {
+      for (int row = 0; row < usedRows; row++) {
+        transform(real, imaginary, row * this.gridWidth, this.gridWidth, this.rowCos,
+                this.rowSin, inverse);
+      }
+
+      // columns are copied out so the transform reads consecutive values
+      double[] columnReal = grids.columnReal;
+      double[] columnImaginary = grids.columnImaginary;
+      for (int col = 0; col < this.gridWidth; col++) {
+        for (int row = 0; row < this.gridHeight; row++) {
+          columnReal[row] = real[row * this.gridWidth + col];
+          columnImaginary[row] = imaginary[row * this.gridWidth + col];
+        }
+        transform(columnReal, columnImaginary, 0, this.gridHeight, this.colCos, this.colSin,
+                inverse);
+        for (int row = 0; row < this.gridHeight; row++) {
+          real[row * this.gridWidth + col] = columnReal[row];
+          imaginary[row * this.gridWidth + col] = columnImaginary[row];
+        }
+      }
+    }
+  }
+
+  // fills the cosines and sines of the first half of the roots of unity of the given size
+  private static void twiddles(double[] cos, double[] sin, int size) {
+    for (int index = 0; index < cos.length; index++) {
+      double angle = -2 * Math.PI * index / size;
+      cos[index] = Math.cos(angle);
+      sin[index] = Math.sin(angle);
+    }
+  }
+
+  // transforms size complex values starting at offset in place with an iterative radix-2 fast
+  // Fourier transform, without dividing by the size when inverse
+  private static void transform(double[] real, double[] imaginary, int offset, int size,
+                                double[] cos, double[] sin, boolean inverse) {
+    // put the values in bit-reversed order
+    for (int index = 1, reversed = 0; index < size; index++) {
+      int bit = size >> 1;
+      while ((reversed & bit) != 0) {
+        reversed ^= bit;
+        bit >>= 1;
+      }
+      reversed ^= bit;
+      if (index < reversed) {
+        double swap = real[offset + index];
+        real[offset + index] = real[offset + reversed];
+        real[offset + reversed] = swap;
+        swap = imaginary[offset + index];
+        imaginary[offset + index] = imaginary[offset + reversed];
+        imaginary[offset + reversed] = swap;
+      }
+    }
+
+    // combine pairs of transforms of half the length, doubling the length each time
+    for (int length = 2; length <= size; length <<= 1) {
+      int half = length >> 1;
+      int step = size / length;
+      for (int start = offset; start < offset + size; start += length) {
+        for (int index = 0; index < half; index++) {
+          double twiddleReal = cos[index * step];
+          double twiddleImaginary = inverse ? -sin[index * step] : sin[index * step];
+          int even = start + index;
+          int odd = even + half;
+          double oddReal = real[odd] * twiddleReal - imaginary[odd] * twiddleImaginary;
+          double oddImaginary = real[odd] * twiddleImaginary + imaginary[odd] * twiddleReal;
+          real[odd] = real[even] - oddReal;
+          imaginary[odd] = imaginary[even] - oddImaginary;
+          real[even] += oddReal;
+          imaginary[even] += oddImaginary;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,288 @@
+package model;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Represents the histograms of an image for a set of channels. Each channel is counted in 256
+ * bins, one for every component value, and all of the channels are counted in a single pass over
+ * the image's pixels. Large images are split into stripes of rows that are counted in parallel
+ * into their own bins, which are added together at the end, so the counts are exactly the same
+ * as counting on one thread.
+ */
+public final class Histogram {
+  private static final int BIN_COUNT = 256;
+  private static final int RED = HistogramChannel.RED.ordinal();
+  private static final int GREEN = HistogramChannel.GREEN.ordinal();
+  private static final int BLUE = HistogramChannel.BLUE.ordinal();
+  private static final int INTENSITY = HistogramChannel.INTENSITY.ordinal();
+  // images with fewer pixels than this are counted on the calling thread
+  private static final int PARALLEL_THRESHOLD = 1 << 18;
+  // the most pixels a single stripe counts before it is split in two
+  private static final int STRIPE_SIZE = 1 << 16;
+
+  // bins[channel ordinal][value] is the number of pixels with the value, null if not counted
+  private final int[][] bins;
+
+  // constructs a histogram that takes ownership of the given bins, indexed by channel ordinal
+  Histogram(int[][] bins) {
+    this.bins = bins;
+  }
+
+  /**
+   * Counts every pixel of a raster for the given channels. Large rasters are counted in parallel.
+   *
+   * @param raster                      the packed RGB values of an image
+   * @param channels                    the channels to count
+   * @return                            the histogram of the raster
+   * @throws IllegalArgumentException   if raster or channels is null
+   */
+  public static Histogram of(int[] raster, Set<HistogramChannel> channels) {
+    if (raster == null || channels == null) {
+      throw new IllegalArgumentException("error: given null raster or channels");
+    }
+
+    if (raster.length < PARALLEL_THRESHOLD || Parallelism.getThreads() == 1) {
+      return of(raster, 0, raster.length, channels);
+    }
+    // copy the channels so workers never read a set the caller might change
+    Set<HistogramChannel> channelsCopy = EnumSet.noneOf(HistogramChannel.class);
+    channelsCopy.addAll(channels);
+    return Parallelism.pool().invoke(new CountTask(raster, 0, raster.length,
+            channelsCopy));
+  }
+
+  /**
+   * Counts the pixels in a range of a raster for the given channels.
+   *
+   * @param raster                      the packed RGB values of an image
+   * @param start                       the first index to count, inclusive
+   * @param end                         the last index to count, exclusive
+   * @param channels                    the channels to count
+   * @return                            the histogram of the range
+   * @throws IllegalArgumentException   if raster or channels is null
+   */
+  public static Histogram of(int[] raster, int start, int end, Set<HistogramChannel> channels) {
+    if (raster == null || channels == null) {
+      throw new IllegalArgumentException("error: given null raster or channels");
+    }
+
+    int[][] bins = new int[HistogramChannel.values().length][];
+    for (HistogramChannel channel : channels) {
+      bins[channel.ordinal()] = new int[BIN_COUNT];
+    }
+
+    if (channels.size() == bins.length) {
+      countAll(raster, start, end, bins[RED], bins[GREEN], bins[BLUE], bins[INTENSITY]);
+    }
+    else {
+      countSome(raster, start, end, bins[RED], bins[GREEN], bins[BLUE], bins[INTENSITY]);
+    }
+    return new Histogram(bins);
+  }
+
+  // counts every channel, which is what the GUI asks for every time an image is shown
+  private static void countAll(int[] raster, int start, int end, int[] red, int[] green,
+                               int[] blue, int[] intensity) {
+    for (int index = start; index < end; index++) {
+      int rgb = raster[index];
+      int r = (rgb >> 16) & 0xFF;
+      int g = (rgb >> 8) & 0xFF;
+      int b = rgb & 0xFF;
+      red[r]++;
+      green[g]++;
+      blue[b]++;
+      intensity[(r + g + b) / 3]++;
+    }
+  }
+
+  // counts the channels whose bins are not null
+  private static void countSome(int[] raster, int start, int end, int[] red, int[] green,
+                                int[] blue, int[] intensity) {
+    for (int index = start; index < end; index++) {
+      int rgb = raster[index];
+      int r = (rgb >> 16) & 0xFF;
+      int g = (rgb >> 8) & 0xFF;
+      int b = rgb & 0xFF;
+      if (red != null) {
+        red[r]++;
+      }
+      if (green != null) {
+        green[g]++;
+      }
+      if (blue != null) {
+        blue[b]++;
+      }
+      if (intensity != null) {
+        intensity[(r + g + b) / 3]++;
+      }
+    }
+  }
+
+  // adds the counts of another histogram of the same channels to this one
+  private void add(Histogram other) {
+    for (int channel = 0; channel < this.bins.length; channel++) {
+      int[] channelBins = this.bins[channel];
+      if (channelBins != null) {
+        int[] otherBins = other.bins[channel];
+        for (int value = 0; value < BIN_COUNT; value++) {
+          channelBins[value] += otherBins[value];
+        }
+      }
+    }
+  }
+
+  // counts a range of a raster, splitting it in half until each stripe is small enough
+  private static final class CountTask extends RecursiveTask<Histogram> {
+    private static final long serialVersionUID = 1L;
+    private final int[] raster;
+    private final int start;
+    private final int end;
+    private final Set<HistogramChannel> channels;
+
+    private CountTask(int[] raster, int start, int end, Set<HistogramChannel> channels) {
+      this.raster = raster;
+      this.start = start;
+      this.end = end;
+      this.channels = channels;
+    }
+
+    @Override
+    protected Histogram compute() {
+      if (this.end - this.start <= STRIPE_SIZE) {
+        return of(this.raster, this.start, this.end, this.channels);
+      }
+
+      int middle = (this.start + this.end) >>> 1;
+      CountTask second = new CountTask(this.raster, middle, this.end, this.channels);
+      second.fork();
+      Histogram histogram = new CountTask(this.raster, this.start, middle, this.channels)
+              .compute();
+      histogram.add(second.join());
+      return histogram;
+    }
+  }
+
+  /**
+   * Returns the channels counted in this histogram.
+   *
+   * @return the counted channels
+   */
+  public Set<HistogramChannel> getChannels() {
+    Set<HistogramChannel> channels = EnumSet.noneOf(HistogramChannel.class);
+    for (HistogramChannel channel : HistogramChannel.values()) {
+      if (this.bins[channel.ordinal()] != null) {
+        channels.add(channel);
+      }
+    }
+    return channels;
+  }
+
+  /**
+   * Returns whether the given channel is counted in this histogram.
+   *
+   * @param channel the channel to check
+   * @return        true if the channel was counted
+   */
+  public boolean hasChannel(HistogramChannel channel) {
+    return channel != null && this.bins[channel.ordinal()] != null;
+  }
+
+  // returns the bins of a channel without copying them, checking that it was counted
+  int[] binsOf(HistogramChannel channel) {
+    if (!this.hasChannel(channel)) {
+      throw new IllegalArgumentException("error: channel was not counted");
+    }
+    return this.bins[channel.ordinal()];
+  }
+
+  // returns whether every one of the given channels was counted
+  boolean hasChannels(Set<HistogramChannel> channels) {
+    for (HistogramChannel channel : channels) {
+      if (!this.hasChannel(channel)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // returns a histogram of only the given channels, which must all have been counted, sharing
+  // this histogram's bins since they are never changed once it is built
+  Histogram select(Set<HistogramChannel> channels) {
+    if (channels.size() == this.getChannels().size()) {
+      return this;
+    }
+
+    int[][] selected = new int[this.bins.length][];
+    for (HistogramChannel channel : channels) {
+      selected[channel.ordinal()] = this.binsOf(channel);
+    }
+    return new Histogram(selected);
+  }
+
+  /**
+   * Returns the number of pixels with the given value in the given channel.
+   *
+   * @param channel                     the channel to look in
+   * @param value                       the value to count, between 0 and 255
+   * @return                            the number of pixels with the value
+   * @throws IllegalArgumentException   if the channel was not counted or value is not between 0
+   *                                    and 255
+   */
+  public int getCount(HistogramChannel channel, int value) {
+    if (Pixel.componentInvalid(value)) {
+      throw new IllegalArgumentException("error: value must be between 0 and 255");
+    }
+    return this.binsOf(channel)[value];
+  }
+
+  /**
+   * Returns a copy of the 256 bins of the given channel.
+   *
+   * @param channel                     the channel to get the bins of
+   * @return                            the number of pixels with each value of the channel
+   * @throws IllegalArgumentException   if the channel was not counted
+   */
+  public int[] getBins(HistogramChannel channel) {
+    return this.binsOf(channel).clone();
+  }
+
+  /**
+   * Returns the largest number of pixels in any bin of any counted channel.
+   *
+   * @return the largest bin of this histogram
+   */
+  public int getMaxCount() {
+    int max = 0;
+    for (int[] channelBins : this.bins) {
+      if (channelBins != null) {
+        for (int count : channelBins) {
+          max = Math.max(max, count);
+        }
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Returns the given channel as a map from each value that occurs in the image to the number of
+   * pixels with that value. Values that do not occur are not in the map.
+   *
+   * @param channel                     the channel to get the map of
+   * @return                            a map of (value, frequency) entries
+   * @throws IllegalArgumentException   if the channel was not counted
+   */
+  public Map<Integer, Integer> toMap(HistogramChannel channel) {
+    int[] channelBins = this.binsOf(channel);
+    Map<Integer, Integer> histogram = new HashMap<Integer, Integer>();
+    for (int value = 0; value < BIN_COUNT; value++) {
+      if (channelBins[value] != 0) {
+        histogram.put(value, channelBins[value]);
+      }
+    }
+    return histogram;
+  }
+}
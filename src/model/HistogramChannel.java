@@ -0,0 +1,12 @@
+package model;
+
+/**
+ * Represents a value of a pixel that a histogram can count: one of its three components or its
+ * intensity, which is the average of the components rounded down.
+ */
+public enum HistogramChannel {
+  RED,
+  GREEN,
+  BLUE,
+  INTENSITY
+}
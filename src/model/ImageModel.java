@@ -2,6 +2,7 @@ package model;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
@@ -10,12 +11,50 @@ import java.util.function.Function;
  */
 public interface ImageModel {
   /**
-   * Convenience method used for testing.
+   * Convenience method used for testing. The grid is built from the image's raster on every call,
+   * so image operations should use {@link #getRGB}, {@link #getRGBRow} or {@link #getRGBRegion}
+   * instead.
    *
    * @return this image's list of pixels
    */
   List<List<Pixel>> getPixels();
 
+  /**
+   * Returns the packed RGB value of the pixel at the given position, with red in bits 16-23,
+   * green in bits 8-15 and blue in bits 0-7.
+   *
+   * @param row                         the row of the pixel
+   * @param col                         the column of the pixel
+   * @return                            the packed RGB value of the pixel
+   * @throws IndexOutOfBoundsException  if the position is outside of the image
+   */
+  int getRGB(int row, int col);
+
+  /**
+   * Copies one row of packed RGB values into the given array.
+   *
+   * @param row                         the row to copy
+   * @param dest                        the array to copy the row into
+   * @param offset                      the index in dest where the first pixel of the row goes
+   * @throws IndexOutOfBoundsException  if the row is outside of the image or dest is too small
+   */
+  void getRGBRow(int row, int[] dest, int offset);
+
+  /**
+   * Copies a rectangular region of packed RGB values into the given array in row-major order,
+   * with regionWidth values per row.
+   *
+   * @param startRow                    the top row of the region
+   * @param startCol                    the left column of the region
+   * @param regionWidth                 the width of the region in pixels
+   * @param regionHeight                the height of the region in pixels
+   * @param dest                        the array to copy the region into
+   * @param offset                      the index in dest where the top left pixel goes
+   * @throws IndexOutOfBoundsException  if the region is outside of the image or dest is too small
+   */
+  void getRGBRegion(int startRow, int startCol, int regionWidth, int regionHeight,
+                    int[] dest, int offset);
+
   /**
    * Returns the name of this model.ImageModel.
    *
@@ -135,14 +174,123 @@ public interface ImageModel {
   ImageModel getImageAdjustBrightness(String name, int adjust);
 
   /**
-   * Applies the given kernel to all pixels of the image.
+   * Applies the given point operation to all pixels of the image in a single pass. A chain of
+   * operations can be combined with {@link PointOperation#andThen} first, which composes chained
+   * lookup tables into a single table.
+   *
+   * @param name                        the name of the new image
+   * @param operation                   the operation to apply to each pixel
+   * @return                            a new image with the operation applied
+   * @throws IllegalArgumentException   if name is invalid
+   */
+  ImageModel applyPointOperation(String name, PointOperation operation);
+
+  /**
+   * Applies the given kernel to all pixels of the image. The kernel may be rectangular, but its
+   * width and height must both be odd. Kernels that are the outer product of two 1D kernels in
+   * fixed point are applied as two 1D passes.
    *
    * @param name   the name of the new image
    * @param kernel matrix to apply to the image
-   * @return a new image with the kernel applied
+   * @return a new image with the kernel applied, or null if the kernel's width or height is even
+   * @throws IllegalArgumentException if name is invalid or the rows of the kernel are not all the
+   *                                  same length
    */
   ImageModel applyFilter(String name, double[][] kernel);
 
+  /**
+   * Applies the given kernel to all pixels of the image, reading neighbors outside of the image
+   * according to the given edge mode.
+   *
+   * @param name     the name of the new image
+   * @param kernel   matrix to apply to the image
+   * @param edgeMode how neighbors outside of the image are read
+   * @return a new image with the kernel applied, or null if the kernel's width or height is even
+   * @throws IllegalArgumentException if name is invalid, edgeMode is null or the rows of the
+   *                                  kernel are not all the same length
+   */
+  ImageModel applyFilter(String name, double[][] kernel, EdgeMode edgeMode);
+
+  /**
+   * Applies the given kernel, which has already been analyzed, to all pixels of the image,
+   * reading neighbors outside of the image according to the given edge mode.
+   *
+   * @param name                        the name of the new image
+   * @param kernel                      the kernel to apply
+   * @param edgeMode                    how neighbors outside of the image are read
+   * @return                            a new image with the kernel applied
+   * @throws IllegalArgumentException   if name is invalid, or kernel or edgeMode is null
+   */
+  ImageModel applyFilter(String name, Kernel kernel, EdgeMode edgeMode);
+
+  /**
+   * Applies the kernel that is the outer product of the given 1D kernels to all pixels of the
+   * image, as a horizontal pass followed by a vertical pass when both are in fixed point.
+   *
+   * @param name                        the name of the new image
+   * @param vertical                    the weights of the vertical pass, from top to bottom
+   * @param horizontal                  the weights of the horizontal pass, from left to right
+   * @return                            a new image with the kernel applied
+   * @throws IllegalArgumentException   if name is invalid or either kernel does not have an odd
+   *                                    length
+   */
+  ImageModel applySeparableFilter(String name, double[] vertical, double[] horizontal);
+
+  /**
+   * Applies the kernel that is the outer product of the given 1D kernels to all pixels of the
+   * image, reading neighbors outside of the image according to the given edge mode.
+   *
+   * @param name                        the name of the new image
+   * @param vertical                    the weights of the vertical pass, from top to bottom
+   * @param horizontal                  the weights of the horizontal pass, from left to right
+   * @param edgeMode                    how neighbors outside of the image are read
+   * @return                            a new image with the kernel applied
+   * @throws IllegalArgumentException   if name is invalid, edgeMode is null or either kernel
+   *                                    does not have an odd length
+   */
+  ImageModel applySeparableFilter(String name, double[] vertical, double[] horizontal,
+                                  EdgeMode edgeMode);
+
+  /**
+   * Replaces every component of the image with the mean of the square of components around it,
+   * rounded to the nearest integer. The cost per pixel does not depend on the radius.
+   *
+   * @param name                        the name of the new image
+   * @param radius                      the radius of the box, which is 2 * radius + 1 wide
+   * @param edgeMode                    how neighbors outside of the image are read
+   * @return                            a new image with the box blur applied
+   * @throws IllegalArgumentException   if name is invalid, edgeMode is null or radius is negative
+   *                                    or too large
+   */
+  ImageModel applyBoxBlur(String name, int radius, EdgeMode edgeMode);
+
+  /**
+   * Replaces every component of the image with the median of the square of components around
+   * it, which removes specks of noise while keeping edges sharp. The cost per pixel does not
+   * depend on the radius.
+   *
+   * @param name                        the name of the new image
+   * @param radius                      the radius of the square, which is 2 * radius + 1 wide
+   * @param edgeMode                    how neighbors outside of the image are read
+   * @return                            a new image with the median filter applied
+   * @throws IllegalArgumentException   if name is invalid, edgeMode is null or radius is negative
+   *                                    or too large
+   */
+  ImageModel applyMedianFilter(String name, int radius, EdgeMode edgeMode);
+
+  /**
+   * Blurs the image with three box blurs in a row, which together approximate a Gaussian blur
+   * with the given standard deviation. The cost per pixel does not depend on the deviation.
+   *
+   * @param name                        the name of the new image
+   * @param sigma                       the standard deviation of the Gaussian, in pixels
+   * @param edgeMode                    how neighbors outside of the image are read
+   * @return                            a new image with the blur applied
+   * @throws IllegalArgumentException   if name is invalid, edgeMode is null or sigma is not
+   *                                    greater than 0 or is too large
+   */
+  ImageModel applyGaussianBlur(String name, double sigma, EdgeMode edgeMode);
+
   /**
    * Multiplies the given kernel by the RGB values of the image.
    *
@@ -157,4 +305,12 @@ public interface ImageModel {
    * @return a map containing the (value, frequency) entries of each pixel of the image
    */
   Map<Integer, Integer> getHistogram(Function<Pixel, Integer> func);
+
+  /**
+   * Counts the pixels of the image for the given channels in a single pass.
+   * @param channels                    the channels to count
+   * @return                            the histogram of the image for the given channels
+   * @throws IllegalArgumentException   if channels is null
+   */
+  Histogram getHistogram(Set<HistogramChannel> channels);
 }
\ No newline at end of file
@@ -0,0 +1,455 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Represents a filter kernel with an odd number of rows and columns, centered on its middle
+ * entry. A kernel that is the outer product of a vertical and a horizontal 1D kernel is
+ * separable. Separable kernels are detected exactly: every entry must be the product of its two
+ * 1D weights with no rounding.
+ *
+ * <p>A kernel whose weights are all whole multiples of a small power of two, like the blur and
+ * sharpen kernels, is also stored in fixed point, as integer weights scaled by that power. Sums of
+ * such weights times component values are exact in floating point, so applying the integer
+ * weights and then dividing by the power gives exactly the same results.
+ *
+ * <p>A separable kernel whose 1D kernels are both in fixed point is applied as a horizontal pass
+ * followed by a vertical pass, which takes height + width multiplications per pixel instead of
+ * height * width. Other separable kernels are applied one weight at a time like any other kernel:
+ * summing the passes in floating point rounds differently than summing every weight does, so a
+ * component within rounding error of a whole number could be truncated one lower or higher.
+ *
+ * <p>Kernels that are not separable are applied one weight at a time. Weights that are zero are
+ * skipped, and in fixed point, pairs of equal weights mirrored through the center are folded into
+ * one multiplication of the sum of their two neighbors, which integer arithmetic makes exact. All
+ * of this is worked out once when the kernel is created, and kernels created with {@link #of} are
+ * kept by their weights, so a kernel read again for every image of a batch is only analyzed once.
+ */
+public final class Kernel {
+  // the most fractional bits of a fixed point weight, so that the two passes of a separable
+  // kernel together never shift by more than an int holds
+  private static final int MAX_FIXED_SHIFT = 15;
+  // the largest component value, which bounds every sum of weights times components
+  private static final long MAX_COMPONENT = 255;
+  // the number of kernels kept by their weights, dropping the least recently used
+  private static final int CACHE_SIZE = 64;
+  private static final Map<Weights, Kernel> CACHE = Collections.synchronizedMap(
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Weights, Kernel> eldest) {
+          return this.size() > CACHE_SIZE;
+        }
+      });
+
+  private final int height;
+  private final int width;
+  // the weights in row-major order
+  private final double[] weights;
+  // the 1D kernels whose outer product is this kernel, or null if it is not separable
+  private final double[] vertical;
+  private final double[] horizontal;
+  // the weights times 2^fixedShift, or null if they cannot all be written that way
+  private final int[] fixedWeights;
+  private final int fixedShift;
+  // the 1D kernels in fixed point, or null if the kernel is not separable in fixed point
+  private final int[] fixedVertical;
+  private final int verticalShift;
+  private final int[] fixedHorizontal;
+  private final int horizontalShift;
+  // the indices of the nonzero weights in row-major order, and those weights
+  private final int[] taps;
+  private final double[] tapWeights;
+  // the indices of the nonzero fixed point weights, the index of the equal weight mirrored
+  // through the center that each is folded with or -1, and the fixed point weights, or null if
+  // the kernel is not stored in fixed point
+  private final int[] fixedTaps;
+  private final int[] mirroredTaps;
+  private final int[] fixedTapWeights;
+
+  // constructs a kernel that takes ownership of the given arrays, finding out whether its
+  // weights can be written in fixed point
+  private Kernel(int height, int width, double[] weights, double[] vertical,
+                 double[] horizontal) {
+    this.height = height;
+    this.width = width;
+    this.weights = weights;
+    this.vertical = vertical;
+    this.horizontal = horizontal;
+
+    this.fixedShift = fixedShift(weights, 1);
+    this.fixedWeights = this.fixedShift < 0 ? null : toFixed(weights, this.fixedShift);
+
+    int horizontalShift = horizontal == null ? -1 : fixedShift(horizontal, 1);
+    int verticalShift = -1;
+    if (horizontalShift >= 0) {
+      // the vertical pass multiplies sums of the horizontal pass, not single components
+      verticalShift = fixedShift(vertical, sumOfMagnitudes(toFixed(horizontal,
+              horizontalShift)));
+    }
+    if (verticalShift >= 0) {
+      this.fixedVertical = toFixed(vertical, verticalShift);
+      this.verticalShift = verticalShift;
+      this.fixedHorizontal = toFixed(horizontal, horizontalShift);
+      this.horizontalShift = horizontalShift;
+    }
+    else {
+      this.fixedVertical = null;
+      this.verticalShift = -1;
+      this.fixedHorizontal = null;
+      this.horizontalShift = -1;
+    }
+
+    this.taps = nonzero(weights);
+    this.tapWeights = new double[this.taps.length];
+    for (int tap = 0; tap < this.taps.length; tap++) {
+      this.tapWeights[tap] = weights[this.taps[tap]];
+    }
+
+    if (this.fixedWeights == null) {
+      this.fixedTaps = null;
+      this.mirroredTaps = null;
+      this.fixedTapWeights = null;
+    }
+    else {
+      int[][] folded = fold(this.fixedWeights);
+      this.fixedTaps = folded[0];
+      this.mirroredTaps = folded[1];
+      this.fixedTapWeights = new int[this.fixedTaps.length];
+      for (int tap = 0; tap < this.fixedTaps.length; tap++) {
+        this.fixedTapWeights[tap] = this.fixedWeights[this.fixedTaps[tap]];
+      }
+    }
+  }
+
+  // returns the indices of the weights that are not zero, in order
+  private static int[] nonzero(double[] weights) {
+    int count = 0;
+    for (double weight : weights) {
+      if (weight != 0) {
+        count++;
+      }
+    }
+
+    int[] indices = new int[count];
+    count = 0;
+    for (int index = 0; index < weights.length; index++) {
+      if (weights[index] != 0) {
+        indices[count++] = index;
+      }
+    }
+    return indices;
+  }
+
+  // returns the indices of the nonzero weights in order, leaving out those folded into an earlier
+  // weight, and the index of the weight each one is folded with, or -1; the weight mirrored
+  // through the center of index i is at index length - 1 - i
+  private static int[][] fold(int[] weights) {
+    int[] taps = new int[weights.length];
+    int[] mirrored = new int[weights.length];
+    int count = 0;
+    for (int index = 0; index < weights.length; index++) {
+      int mirror = weights.length - 1 - index;
+      if (weights[index] == 0 || mirror < index && weights[mirror] == weights[index]) {
+        continue;
+      }
+      taps[count] = index;
+      mirrored[count] = mirror > index && weights[mirror] == weights[index] ? mirror : -1;
+      count++;
+    }
+    return new int[][]{Arrays.copyOf(taps, count), Arrays.copyOf(mirrored, count)};
+  }
+
+  // returns the fewest fractional bits that write every weight as a whole number, or -1 if
+  // more than the maximum are needed or a sum of the weights times components, each scaled by
+  // up to the given factor, could overflow an int
+  private static int fixedShift(double[] weights, long inputScale) {
+    for (int shift = 0; shift <= MAX_FIXED_SHIFT; shift++) {
+      double scale = 1 << shift;
+      boolean whole = true;
+      long magnitude = 0;
+      for (double weight : weights) {
+        double scaled = weight * scale;
+        if (scaled != Math.rint(scaled) || Math.abs(scaled) > Integer.MAX_VALUE) {
+          whole = false;
+          break;
+        }
+        magnitude += Math.abs((long) scaled);
+      }
+
+      if (whole) {
+        return magnitude * inputScale * MAX_COMPONENT <= Integer.MAX_VALUE ? shift : -1;
+      }
+    }
+    return -1;
+  }
+
+  // returns the weights times 2^shift as integers
+  private static int[] toFixed(double[] weights, int shift) {
+    int[] fixed = new int[weights.length];
+    for (int index = 0; index < weights.length; index++) {
+      fixed[index] = (int) (weights[index] * (1 << shift));
+    }
+    return fixed;
+  }
+
+  // returns the sum of the absolute values of the weights
+  private static long sumOfMagnitudes(int[] weights) {
+    long sum = 0;
+    for (int weight : weights) {
+      sum += Math.abs((long) weight);
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the kernel with the given weights, finding out whether it is separable. A kernel with
+   * the same weights as one created recently is returned without analyzing it again.
+   *
+   * @param kernel                      the weights of the kernel, one array per row
+   * @return                            the kernel
+   * @throws IllegalArgumentException   if the kernel is null, its rows are not all the same
+   *                                    length, or it does not have an odd number of rows and
+   *                                    columns
+   */
+  public static Kernel of(double[][] kernel) {
+    if (kernel == null || kernel.length % 2 == 0 || kernel[0] == null
+            || kernel[0].length % 2 == 0) {
+      throw new IllegalArgumentException("error: kernel dimensions must be odd");
+    }
+
+    int height = kernel.length;
+    int width = kernel[0].length;
+    double[] weights = new double[height * width];
+    for (int row = 0; row < height; row++) {
+      if (kernel[row] == null || kernel[row].length != width) {
+        throw new IllegalArgumentException("error: kernel rows must have the same length");
+      }
+      System.arraycopy(kernel[row], 0, weights, row * width, width);
+    }
+
+    Weights key = new Weights(height, width, weights);
+    Kernel cached = CACHE.get(key);
+    if (cached == null) {
+      cached = analyze(height, width, weights);
+      CACHE.put(key, cached);
+    }
+    return cached;
+  }
+
+  // finds out whether the weights are separable and creates the kernel, which takes ownership of
+  // them
+  private static Kernel analyze(int height, int width, double[] weights) {
+    // find a nonzero entry to scale the 1D kernels by
+    int pivot = -1;
+    for (int index = 0; index < weights.length && pivot < 0; index++) {
+      if (weights[index] != 0) {
+        pivot = index;
+      }
+    }
+    if (pivot < 0) {
+      return new Kernel(height, width, weights, null, null);
+    }
+
+    // the pivot's row is the horizontal kernel and its column, divided by the pivot, is the
+    // vertical kernel; the kernel is separable if every product gives back its entry exactly
+    int pivotRow = pivot / width;
+    int pivotCol = pivot % width;
+    double[] horizontal = new double[width];
+    System.arraycopy(weights, pivotRow * width, horizontal, 0, width);
+    double[] vertical = new double[height];
+    for (int row = 0; row < height; row++) {
+      vertical[row] = weights[row * width + pivotCol] / weights[pivot];
+    }
+
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        if (vertical[row] * horizontal[col] != weights[row * width + col]) {
+          return new Kernel(height, width, weights, null, null);
+        }
+      }
+    }
+    return new Kernel(height, width, weights, vertical, horizontal);
+  }
+
+  /**
+   * Returns the separable kernel that is the outer product of the given 1D kernels.
+   *
+   * @param vertical                    the weights of the vertical pass, from top to bottom
+   * @param horizontal                  the weights of the horizontal pass, from left to right
+   * @return                            the kernel
+   * @throws IllegalArgumentException   if either kernel is null or does not have an odd length
+   */
+  public static Kernel separable(double[] vertical, double[] horizontal) {
+    if (vertical == null || horizontal == null || vertical.length % 2 == 0
+            || horizontal.length % 2 == 0) {
+      throw new IllegalArgumentException("error: kernel dimensions must be odd");
+    }
+
+    double[] weights = new double[vertical.length * horizontal.length];
+    for (int row = 0; row < vertical.length; row++) {
+      for (int col = 0; col < horizontal.length; col++) {
+        weights[row * horizontal.length + col] = vertical[row] * horizontal[col];
+      }
+    }
+    return new Kernel(vertical.length, horizontal.length, weights, vertical.clone(),
+            horizontal.clone());
+  }
+
+  /**
+   * Returns the number of rows of this kernel.
+   *
+   * @return the height of the kernel
+   */
+  public int getHeight() {
+    return this.height;
+  }
+
+  /**
+   * Returns the number of columns of this kernel.
+   *
+   * @return the width of the kernel
+   */
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Returns the weight at the given position of this kernel.
+   *
+   * @param row                         the row of the weight
+   * @param col                         the column of the weight
+   * @return                            the weight
+   * @throws IndexOutOfBoundsException  if the position is outside of the kernel
+   */
+  public double getWeight(int row, int col) {
+    if (row < 0 || row >= this.height || col < 0 || col >= this.width) {
+      throw new IndexOutOfBoundsException("error: position is outside of the kernel");
+    }
+    return this.weights[row * this.width + col];
+  }
+
+  /**
+   * Returns whether this kernel is the outer product of a vertical and a horizontal 1D kernel.
+   * Only kernels whose 1D kernels are in fixed point are applied in two passes.
+   *
+   * @return true if the kernel is separable
+   */
+  public boolean isSeparable() {
+    return this.vertical != null;
+  }
+
+  /**
+   * Returns whether every weight of this kernel is a whole multiple of a small power of two, so
+   * the kernel can be applied with integer arithmetic.
+   *
+   * @return true if the kernel is stored in fixed point
+   */
+  public boolean isFixedPoint() {
+    return this.fixedWeights != null;
+  }
+
+  // returns the fixed point weights in row-major order without copying them, or null
+  int[] fixedWeights() {
+    return this.fixedWeights;
+  }
+
+  // returns the number of fractional bits of the fixed point weights
+  int fixedShift() {
+    return this.fixedShift;
+  }
+
+  // returns the vertical 1D kernel in fixed point without copying it, or null
+  int[] fixedVertical() {
+    return this.fixedVertical;
+  }
+
+  // returns the number of fractional bits of the fixed point vertical kernel
+  int verticalShift() {
+    return this.verticalShift;
+  }
+
+  // returns the horizontal 1D kernel in fixed point without copying it, or null
+  int[] fixedHorizontal() {
+    return this.fixedHorizontal;
+  }
+
+  // returns the number of fractional bits of the fixed point horizontal kernel
+  int horizontalShift() {
+    return this.horizontalShift;
+  }
+
+  // returns the indices of the nonzero weights in row-major order without copying them
+  int[] taps() {
+    return this.taps;
+  }
+
+  // returns the nonzero weights in row-major order without copying them
+  double[] tapWeights() {
+    return this.tapWeights;
+  }
+
+  // returns the indices of the nonzero fixed point weights that are not folded into an earlier
+  // one without copying them, or null
+  int[] fixedTaps() {
+    return this.fixedTaps;
+  }
+
+  // returns the index of the weight each fixed point tap is folded with, or -1, without copying
+  // them, or null
+  int[] mirroredTaps() {
+    return this.mirroredTaps;
+  }
+
+  // returns the fixed point weight of each fixed point tap without copying them, or null
+  int[] fixedTapWeights() {
+    return this.fixedTapWeights;
+  }
+
+  // returns the weights in row-major order without copying them
+  double[] weights() {
+    return this.weights;
+  }
+
+  // returns the vertical 1D kernel without copying it, or null if the kernel is not separable
+  double[] vertical() {
+    return this.vertical;
+  }
+
+  // returns the horizontal 1D kernel without copying it, or null if the kernel is not separable
+  double[] horizontal() {
+    return this.horizontal;
+  }
+
+  // the size and weights of a kernel, which identify it in the cache
+  private static final class Weights {
+    private final int height;
+    private final int width;
+    private final double[] weights;
+    private final int hash;
+
+    private Weights(int height, int width, double[] weights) {
+      this.height = height;
+      this.width = width;
+      this.weights = weights;
+      this.hash = 31 * (31 * height + width) + Arrays.hashCode(weights);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Weights)) {
+        return false;
+      }
+      Weights that = (Weights) other;
+      return this.height == that.height && this.width == that.width
+              && Arrays.equals(this.weights, that.weights);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+  }
+}
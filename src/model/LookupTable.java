@@ -0,0 +1,217 @@
+package model;
+
+/**
+ * Represents a point operation compiled into three 256-entry lookup tables, one for each output
+ * channel. Each output channel is read from its table at the value of one input channel, so an
+ * operation like brighten reads each channel from itself while a component visualization reads
+ * all three from the same channel. Two lookup tables compose into a single lookup table, so a
+ * chain of them costs one table lookup per channel no matter how long it is.
+ */
+public final class LookupTable implements PointOperation {
+  private static final int RED = 0;
+  private static final int GREEN = 1;
+  private static final int BLUE = 2;
+  private static final int TABLE_SIZE = 256;
+
+  // tables[channel][value] is the output of the channel when its source channel has the value
+  private final int[][] tables;
+  // sources[channel] is the input channel that the output channel is looked up from
+  private final int[] sources;
+  // the same operation as a color transformation, or null if it is not one
+  private final ColorTransformation colorTransformation;
+
+  // constructs a lookup table that takes ownership of the given arrays
+  private LookupTable(int[][] tables, int[] sources, ColorTransformation colorTransformation) {
+    this.tables = tables;
+    this.sources = sources;
+    this.colorTransformation = colorTransformation;
+  }
+
+  /**
+   * Returns a lookup table that maps each channel through its own table.
+   *
+   * @param redTable                    the output red value for each input red value
+   * @param greenTable                  the output green value for each input green value
+   * @param blueTable                   the output blue value for each input blue value
+   * @return                            a lookup table with copies of the given tables
+   * @throws IllegalArgumentException   if a table does not have 256 entries between 0 and 255
+   */
+  public static LookupTable of(int[] redTable, int[] greenTable, int[] blueTable) {
+    int[][] tables = {copyTable(redTable), copyTable(greenTable), copyTable(blueTable)};
+    return new LookupTable(tables, new int[]{RED, GREEN, BLUE}, null);
+  }
+
+  // copies a table, checking that it has one valid component for every component value
+  private static int[] copyTable(int[] table) {
+    if (table == null || table.length != TABLE_SIZE) {
+      throw new IllegalArgumentException("error: lookup table must have 256 entries");
+    }
+
+    for (int value : table) {
+      if (Pixel.componentInvalid(value)) {
+        throw new IllegalArgumentException("error: lookup table entry is invalid");
+      }
+    }
+
+    return table.clone();
+  }
+
+  /**
+   * Returns a lookup table that increments/decrements all components of a pixel by the given
+   * integer, keeping each component between 0 and the given maximum value.
+   *
+   * @param adjust        the increment to add to each component
+   * @param maxRGBValue   the largest value a component may have after adjusting
+   * @return              a lookup table that adjusts the brightness of each pixel
+   */
+  public static LookupTable brightness(int adjust, int maxRGBValue) {
+    int[] table = new int[TABLE_SIZE];
+    for (int value = 0; value < TABLE_SIZE; value++) {
+      table[value] = Math.min(Math.max(value + adjust, 0), maxRGBValue);
+    }
+
+    // all three channels can share the table since none of them are changed afterwards
+    return new LookupTable(new int[][]{table, table, table}, new int[]{RED, GREEN, BLUE},
+            maxRGBValue == 255 ? ColorTransformation.brightness(adjust) : null);
+  }
+
+  /**
+   * Returns a lookup table that sets all components of a pixel to its red value.
+   *
+   * @return a lookup table that visualizes the red component
+   */
+  public static LookupTable redComponent() {
+    return component(RED);
+  }
+
+  /**
+   * Returns a lookup table that sets all components of a pixel to its green value.
+   *
+   * @return a lookup table that visualizes the green component
+   */
+  public static LookupTable greenComponent() {
+    return component(GREEN);
+  }
+
+  /**
+   * Returns a lookup table that sets all components of a pixel to its blue value.
+   *
+   * @return a lookup table that visualizes the blue component
+   */
+  public static LookupTable blueComponent() {
+    return component(BLUE);
+  }
+
+  // returns a lookup table that copies the given channel into all channels
+  private static LookupTable component(int channel) {
+    int[] identity = new int[TABLE_SIZE];
+    for (int value = 0; value < TABLE_SIZE; value++) {
+      identity[value] = value;
+    }
+    return new LookupTable(new int[][]{identity, identity, identity},
+            new int[]{channel, channel, channel}, ColorTransformation.component(channel));
+  }
+
+  /**
+   * Returns a single lookup table with the same result as applying this table and then the
+   * given one.
+   *
+   * @param next  the lookup table to apply to the result of this one
+   * @return      the composed lookup table
+   */
+  public LookupTable compose(LookupTable next) {
+    int[][] composedTables = new int[3][TABLE_SIZE];
+    int[] composedSources = new int[3];
+
+    for (int channel = RED; channel <= BLUE; channel++) {
+      // the next table reads this channel from one of this table's outputs, which in turn is
+      // read from one of the original inputs
+      int middleChannel = next.sources[channel];
+      composedSources[channel] = this.sources[middleChannel];
+      for (int value = 0; value < TABLE_SIZE; value++) {
+        composedTables[channel][value] =
+                next.tables[channel][this.tables[middleChannel][value]];
+      }
+    }
+
+    return new LookupTable(composedTables, composedSources, null);
+  }
+
+  /**
+   * Returns the color transformation with exactly the same result as this lookup table, or null
+   * if this table cannot be written as one.
+   *
+   * @return the equivalent color transformation, or null
+   */
+  ColorTransformation toColorTransformation() {
+    return this.colorTransformation;
+  }
+
+  /**
+   * Returns the histogram of an image after this table is applied to it, computed from the
+   * histogram of the original image. Each output channel is read from a single input channel, so
+   * its counts move through its table. The intensity can only be derived when all three output
+   * channels are read from the same input channel, so it is left out otherwise.
+   *
+   * @param histogram the histogram of the original image
+   * @return          the histogram of the image after applying this table
+   */
+  Histogram remap(Histogram histogram) {
+    HistogramChannel[] channels = HistogramChannel.values();
+    int[][] bins = new int[channels.length][];
+
+    for (int channel = RED; channel <= BLUE; channel++) {
+      HistogramChannel source = channels[this.sources[channel]];
+      if (histogram.hasChannel(source)) {
+        int[] sourceBins = histogram.binsOf(source);
+        int[] table = this.tables[channel];
+        int[] remapped = new int[TABLE_SIZE];
+        for (int value = 0; value < TABLE_SIZE; value++) {
+          remapped[table[value]] += sourceBins[value];
+        }
+        bins[channel] = remapped;
+      }
+    }
+
+    HistogramChannel source = channels[this.sources[RED]];
+    if (this.sources[GREEN] == this.sources[RED] && this.sources[BLUE] == this.sources[RED]
+            && histogram.hasChannel(source)) {
+      int[] sourceBins = histogram.binsOf(source);
+      int[] intensity = new int[TABLE_SIZE];
+      for (int value = 0; value < TABLE_SIZE; value++) {
+        intensity[(this.tables[RED][value] + this.tables[GREEN][value]
+                + this.tables[BLUE][value]) / 3] += sourceBins[value];
+      }
+      bins[HistogramChannel.INTENSITY.ordinal()] = intensity;
+    }
+
+    return new Histogram(bins);
+  }
+
+  @Override
+  public PointOperation andThen(PointOperation next) {
+    if (next instanceof LookupTable) {
+      return this.compose((LookupTable) next);
+    }
+    return PointOperation.super.andThen(next);
+  }
+
+  // returns the value of the given channel in a packed RGB value
+  private static int channelOf(int rgb, int channel) {
+    return (rgb >> (16 - 8 * channel)) & 0xFF;
+  }
+
+  @Override
+  public int apply(int rgb) {
+    return Pixel.pack(this.tables[RED][channelOf(rgb, this.sources[RED])],
+            this.tables[GREEN][channelOf(rgb, this.sources[GREEN])],
+            this.tables[BLUE][channelOf(rgb, this.sources[BLUE])]);
+  }
+
+  @Override
+  public void applyAll(int[] source, int[] dest, int start, int end) {
+    PixelKernels.INSTANCE.lookup(this.tables[RED], this.tables[GREEN], this.tables[BLUE],
+            16 - 8 * this.sources[RED], 16 - 8 * this.sources[GREEN],
+            16 - 8 * this.sources[BLUE], source, dest, start, end);
+  }
+}
@@ -0,0 +1,231 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Applies median filters to packed rasters, which replace every component with the median of
+ * the square of components around it. The components of each square are counted in histograms
+ * instead of being sorted, so the cost per pixel does not depend on the radius.
+ *
+ * <p>Every column of the image keeps a histogram of the components in the column that are inside
+ * the square, and moving down a row adds the component entering each column and removes the one
+ * leaving it. The histogram of the square is the sum of the histograms of its columns, so moving
+ * right a pixel adds the histogram of the column entering the square and subtracts the one
+ * leaving it, whatever the radius. Each histogram is also kept in 16 coarse bins of 16 levels.
+ * Only the coarse bins of the square are moved along with every pixel; the fine bins of a coarse
+ * bin are brought up to date only when the median falls in it, which along a row is nearly always
+ * the same few bins. Finding the median then looks through at most 16 coarse and 16 fine bins.
+ *
+ * <p>Large images are split into stripes of rows that are filtered in parallel by
+ * model.Parallelism, each with its own column histograms. The median does not depend on the
+ * order its components are counted in, so the result never depends on the number of threads.
+ */
+final class MedianFilter {
+  // the largest radius whose square has fewer than 2^31 components
+  static final int MAX_RADIUS = 23169;
+  // the number of values a component can have
+  private static final int LEVELS = 256;
+  // the number of levels in each coarse bin is 2^COARSE_SHIFT
+  private static final int COARSE_SHIFT = 4;
+  private static final int COARSE_LEVELS = LEVELS >> COARSE_SHIFT;
+  // stripes are at least this many rows, and at least two squares, tall, since every stripe
+  // first counts the rows of a whole square into its column histograms
+  private static final int MIN_STRIPE_HEIGHT = 32;
+
+  // this class only has static methods
+  private MedianFilter() {
+  }
+
+  /**
+   * Replaces every component of the raster with the median of the square of components around
+   * it.
+   *
+   * @param raster      the packed RGB values of the image in row-major order
+   * @param width       the width of the image
+   * @param height      the height of the image
+   * @param radius      the radius of the square, which is 2 * radius + 1 wide, at most
+   *                    MAX_RADIUS
+   * @param edgeMode    how neighbors outside of the image are read
+   * @return            the raster of the filtered image
+   */
+  static int[] apply(int[] raster, int width, int height, int radius, EdgeMode edgeMode) {
+    int[] filtered = new int[raster.length];
+    Job job = new Job(raster, width, height, radius, edgeMode, filtered);
+    Parallelism.forEachStripe(height, width, Math.max(MIN_STRIPE_HEIGHT, 2 * job.window),
+            job::filterStripe);
+    return filtered;
+  }
+
+  // the image and destination of one call, shared by every stripe
+  private static final class Job {
+    private final int[] raster;
+    private final int width;
+    private final int[] filtered;
+    // the number of rows and columns in the square
+    private final int window;
+    // the number of components in the square smaller than the median
+    private final int rank;
+    // the image row and column read at each position from -radius to size + radius - 1,
+    // shifted so that position -radius is at index 0, with -1 for neighbors that are black
+    private final int[] rows;
+    private final int[] cols;
+
+    private Job(int[] raster, int width, int height, int radius, EdgeMode edgeMode,
+                int[] filtered) {
+      this.raster = raster;
+      this.width = width;
+      this.filtered = filtered;
+      this.window = 2 * radius + 1;
+      this.rank = this.window * this.window / 2;
+      this.rows = Convolution.resolveAll(height, radius, edgeMode);
+      this.cols = Convolution.resolveAll(width, radius, edgeMode);
+    }
+
+    // filters the rows in [top, bottom) on the calling thread
+    private void filterStripe(int top, int bottom) {
+      // the histograms of every column and, after them, of a column of black components
+      int[] columnFine = new int[(this.width + 1) * LEVELS];
+      int[] columnCoarse = new int[(this.width + 1) * COARSE_LEVELS];
+      int[] fine = new int[LEVELS];
+      int[] coarse = new int[COARSE_LEVELS];
+      int[] refreshed = new int[COARSE_LEVELS];
+
+      for (int shift = 16; shift >= 0; shift -= 8) {
+        this.countColumns(top, shift, columnFine, columnCoarse);
+        for (int row = top; row < bottom; row++) {
+          if (row > top) {
+            this.slideColumns(row, shift, columnFine, columnCoarse);
+          }
+          this.filterRow(row, shift, columnFine, columnCoarse, fine, coarse, refreshed);
+        }
+      }
+    }
+
+    // counts the components of the square around the given row into the column histograms
+    private void countColumns(int top, int shift, int[] columnFine, int[] columnCoarse) {
+      Arrays.fill(columnFine, 0);
+      Arrays.fill(columnCoarse, 0);
+      for (int index = 0; index < this.window; index++) {
+        int imageRow = this.rows[top + index];
+        for (int col = 0; col < this.width; col++) {
+          int value = this.valueAt(imageRow, col, shift);
+          columnFine[col * LEVELS + value]++;
+          columnCoarse[col * COARSE_LEVELS + (value >> COARSE_SHIFT)]++;
+        }
+      }
+      columnFine[this.width * LEVELS] = this.window;
+      columnCoarse[this.width * COARSE_LEVELS] = this.window;
+    }
+
+    // moves the column histograms down from the row above the given row to the given row
+    private void slideColumns(int row, int shift, int[] columnFine, int[] columnCoarse) {
+      // the square of a row covers positions row to row + window - 1 of the resolved rows
+      int leaving = this.rows[row - 1];
+      int entering = this.rows[row - 1 + this.window];
+      if (leaving == entering) {
+        return;
+      }
+      for (int col = 0; col < this.width; col++) {
+        int oldValue = this.valueAt(leaving, col, shift);
+        int newValue = this.valueAt(entering, col, shift);
+        columnFine[col * LEVELS + oldValue]--;
+        columnFine[col * LEVELS + newValue]++;
+        columnCoarse[col * COARSE_LEVELS + (oldValue >> COARSE_SHIFT)]--;
+        columnCoarse[col * COARSE_LEVELS + (newValue >> COARSE_SHIFT)]++;
+      }
+    }
+
+    // writes the median of the square around each pixel of a row into the given component
+    private void filterRow(int row, int shift, int[] columnFine, int[] columnCoarse, int[] fine,
+                           int[] coarse, int[] refreshed) {
+      Arrays.fill(coarse, 0);
+      for (int index = 0; index < this.window; index++) {
+        int column = this.columnOf(this.cols[index]);
+        moveColumn(columnCoarse, column * COARSE_LEVELS, -1, coarse, 0, COARSE_LEVELS);
+      }
+      // no fine bin has been counted for this row yet
+      Arrays.fill(refreshed, -1);
+
+      int rowStart = row * this.width;
+      for (int col = 0; col < this.width; col++) {
+        // find the coarse bin of the median, then count its fine bins and look through them
+        int count = 0;
+        int bin = 0;
+        while (count + coarse[bin] <= this.rank) {
+          count += coarse[bin];
+          bin++;
+        }
+        this.refresh(bin, col, columnFine, fine, refreshed);
+        int level = bin << COARSE_SHIFT;
+        while (count + fine[level] <= this.rank) {
+          count += fine[level];
+          level++;
+        }
+        this.filtered[rowStart + col] |= level << shift;
+
+        if (col + 1 < this.width) {
+          // the square moves right: cols is shifted by the radius, so col + window enters
+          int entering = this.columnOf(this.cols[col + this.window]);
+          int leaving = this.columnOf(this.cols[col]);
+          if (entering != leaving) {
+            moveColumn(columnCoarse, entering * COARSE_LEVELS, leaving * COARSE_LEVELS, coarse, 0,
+                    COARSE_LEVELS);
+          }
+        }
+      }
+    }
+
+    // brings the fine bins of one coarse bin of the square up to date with the square at the
+    // given column, either by moving them along from the column they were last counted at or,
+    // if that is too far back, by counting them again
+    private void refresh(int bin, int col, int[] columnFine, int[] fine, int[] refreshed) {
+      int last = refreshed[bin];
+      int start = bin << COARSE_SHIFT;
+      int length = 1 << COARSE_SHIFT;
+      if (last < 0 || 2 * (col - last) > this.window) {
+        Arrays.fill(fine, start, start + length, 0);
+        for (int index = col; index < col + this.window; index++) {
+          moveColumn(columnFine, this.columnOf(this.cols[index]) * LEVELS + start, -1, fine,
+                  start, length);
+        }
+      }
+      else {
+        for (int position = last + 1; position <= col; position++) {
+          int entering = this.columnOf(this.cols[position - 1 + this.window]);
+          int leaving = this.columnOf(this.cols[position - 1]);
+          if (entering != leaving) {
+            moveColumn(columnFine, entering * LEVELS + start, leaving * LEVELS + start, fine,
+                    start, length);
+          }
+        }
+      }
+      refreshed[bin] = col;
+    }
+
+    // returns the index of the histogram of a resolved column, with black columns last
+    private int columnOf(int imageCol) {
+      return imageCol < 0 ? this.width : imageCol;
+    }
+
+    // returns a component of the pixel at a resolved row and a column, or 0 if the row is black
+    private int valueAt(int imageRow, int col, int shift) {
+      return imageRow < 0 ? 0 : (this.raster[imageRow * this.width + col] >> shift) & 0xFF;
+    }
+  }
+
+  // adds part of the histogram of the column entering the square to the same part of the
+  // histogram of the square and subtracts the column leaving it, unless leavingStart is -1
+  private static void moveColumn(int[] columns, int enteringStart, int leavingStart,
+                                 int[] square, int squareStart, int length) {
+    if (leavingStart < 0) {
+      for (int level = 0; level < length; level++) {
+        square[squareStart + level] += columns[enteringStart + level];
+      }
+      return;
+    }
+    for (int level = 0; level < length; level++) {
+      square[squareStart + level] += columns[enteringStart + level]
+              - columns[leavingStart + level];
+    }
+  }
+}
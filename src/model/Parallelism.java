@@ -0,0 +1,164 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The fork/join pool that every whole-image operation splits its work over. Operations split an
+ * image into stripes of rows or columns, and images with fewer than PARALLEL_THRESHOLD pixels,
+ * or any image when there is a single thread, are processed on the calling thread instead.
+ *
+ * <p>The pool has one thread for each processor unless the system property
+ * imageprocessor.threads gives another number when the program starts, and setThreads() can
+ * replace it at any time. Operations that are already running finish on the pool they started
+ * on.
+ */
+public final class Parallelism {
+  /**
+   * The system property that sets the number of threads when the program starts.
+   */
+  public static final String THREADS_PROPERTY = "imageprocessor.threads";
+  // images with fewer pixels than this are processed on the calling thread
+  static final int PARALLEL_THRESHOLD = 1 << 16;
+  // the fewest pixels worth handing to another thread as one stripe
+  private static final int MIN_STRIPE_PIXELS = 1 << 14;
+  // the number of stripes given to each thread, so that threads which finish early can take over
+  // stripes from the others
+  private static final int STRIPES_PER_THREAD = 4;
+  private static volatile ForkJoinPool pool = new ForkJoinPool(threadsFromProperty());
+
+  // this class only has static methods
+  private Parallelism() {
+  }
+
+  /**
+   * Replaces the pool with one of the given number of threads. A single thread processes every
+   * image on the calling thread.
+   *
+   * @param threads                     the number of threads, at least 1
+   * @throws IllegalArgumentException   if threads is less than 1
+   */
+  public static void setThreads(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("error: number of threads must be positive");
+    }
+
+    ForkJoinPool replaced;
+    synchronized (Parallelism.class) {
+      replaced = pool;
+      pool = new ForkJoinPool(threads);
+    }
+    // tasks already given to the old pool still run to the end
+    replaced.shutdown();
+  }
+
+  /**
+   * Returns the number of threads whole-image operations are split over.
+   *
+   * @return the number of threads in the pool
+   */
+  public static int getThreads() {
+    return pool.getParallelism();
+  }
+
+  // returns the pool to split work over
+  static ForkJoinPool pool() {
+    return pool;
+  }
+
+  // returns whether an image with the given number of pixels is worth splitting over threads
+  static boolean isParallel(int pixels) {
+    return pixels >= PARALLEL_THRESHOLD && getThreads() > 1;
+  }
+
+  // the work of a whole-image operation on the rows or columns with indices in [first, last)
+  interface Stripe {
+    void apply(int first, int last);
+  }
+
+  /**
+   * Applies an operation to stripes of consecutive rows or columns that together cover all of
+   * them, in parallel if the image is large enough. Each stripe has at least enough rows or
+   * columns to be worth a task of its own, and there are a few stripes for each thread.
+   *
+   * @param length        the number of rows or columns
+   * @param itemPixels    the number of pixels in each row or column
+   * @param minItems      the fewest rows or columns a stripe may have
+   * @param stripe        the operation to apply to each stripe
+   */
+  static void forEachStripe(int length, int itemPixels, int minItems, Stripe stripe) {
+    ForkJoinPool current = pool;
+    int threads = current.getParallelism();
+    if (!isParallel(length * itemPixels)) {
+      stripe.apply(0, length);
+      return;
+    }
+
+    int items = Math.max(Math.max(minItems, (MIN_STRIPE_PIXELS + itemPixels - 1) / itemPixels),
+            (length + STRIPES_PER_THREAD * threads - 1) / (STRIPES_PER_THREAD * threads));
+    int stripeCount = (length + items - 1) / items;
+    if (stripeCount <= 1) {
+      stripe.apply(0, length);
+    }
+    else {
+      current.invoke(new StripeTask(stripe, length, items, 0, stripeCount));
+    }
+  }
+
+  /**
+   * Applies an operation to stripes of consecutive rows or columns that together cover all of
+   * them, in parallel if the image is large enough.
+   *
+   * @param length        the number of rows or columns
+   * @param itemPixels    the number of pixels in each row or column
+   * @param stripe        the operation to apply to each stripe
+   */
+  static void forEachStripe(int length, int itemPixels, Stripe stripe) {
+    forEachStripe(length, itemPixels, 1, stripe);
+  }
+
+  // applies an operation to a range of stripes, splitting it in half until it is a single stripe
+  private static final class StripeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final Stripe stripe;
+    private final int length;
+    private final int items;
+    private final int first;
+    private final int last;
+
+    private StripeTask(Stripe stripe, int length, int items, int first, int last) {
+      this.stripe = stripe;
+      this.length = length;
+      this.items = items;
+      this.first = first;
+      this.last = last;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.last - this.first <= 1) {
+        int start = this.first * this.items;
+        this.stripe.apply(start, Math.min(start + this.items, this.length));
+        return;
+      }
+
+      int middle = (this.first + this.last) >>> 1;
+      invokeAll(new StripeTask(this.stripe, this.length, this.items, this.first, middle),
+              new StripeTask(this.stripe, this.length, this.items, middle, this.last));
+    }
+  }
+
+  // reads the number of threads from the system property, or uses one for each processor
+  private static int threadsFromProperty() {
+    try {
+      int threads = Integer.parseInt(System.getProperty(THREADS_PROPERTY, ""));
+      if (threads >= 1) {
+        return threads;
+      }
+    }
+    catch (NumberFormatException e) {
+      // fall through to the default
+    }
+    return Runtime.getRuntime().availableProcessors();
+  }
+}
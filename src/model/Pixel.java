@@ -44,6 +44,60 @@ public class Pixel {
             pixel.getGreen(), pixel.getBlue());
   }
 
+  /**
+   * Constructs a pixel object from a packed RGB value.
+   *
+   * @param rgb   the packed RGB value, with red in bits 16-23, green in bits 8-15 and blue in
+   *              bits 0-7
+   * @return      a pixel with the components of the packed value
+   */
+  public static Pixel fromRGB(int rgb) {
+    return new Pixel(redOf(rgb), greenOf(rgb), blueOf(rgb));
+  }
+
+  /**
+   * Packs the given components into a single RGB value.
+   *
+   * @param red     the red component, between 0 and 255 inclusive
+   * @param green   the green component, between 0 and 255 inclusive
+   * @param blue    the blue component, between 0 and 255 inclusive
+   * @return        the packed RGB value, with red in bits 16-23, green in bits 8-15 and blue in
+   *                bits 0-7
+   */
+  public static int pack(int red, int green, int blue) {
+    return (red << 16) | (green << 8) | blue;
+  }
+
+  /**
+   * Gets the red component of a packed RGB value.
+   *
+   * @param rgb   the packed RGB value
+   * @return      the red component of the value
+   */
+  public static int redOf(int rgb) {
+    return (rgb >> 16) & 0xFF;
+  }
+
+  /**
+   * Gets the green component of a packed RGB value.
+   *
+   * @param rgb   the packed RGB value
+   * @return      the green component of the value
+   */
+  public static int greenOf(int rgb) {
+    return (rgb >> 8) & 0xFF;
+  }
+
+  /**
+   * Gets the blue component of a packed RGB value.
+   *
+   * @param rgb   the packed RGB value
+   * @return      the blue component of the value
+   */
+  public static int blueOf(int rgb) {
+    return rgb & 0xFF;
+  }
+
   // returns true if the component is NOT a valid RGB value
   protected static boolean componentInvalid(int component) {
     return component < 0 || component > 255;
@@ -76,6 +130,15 @@ public class Pixel {
     return this.blue;
   }
 
+  /**
+   * Gets this pixel's components packed into a single RGB value.
+   *
+   * @return  the packed RGB value, with red in bits 16-23, green in bits 8-15 and blue in bits 0-7
+   */
+  public int getRGB() {
+    return pack(this.red, this.green, this.blue);
+  }
+
   /**
    * Gets the pixel's value.
    *
@@ -119,11 +182,7 @@ public class Pixel {
    * @return function that sets all components of a pixel to its red value.
    */
   public static Function<Pixel, Pixel> allRed() {
-    return new Function<Pixel, Pixel>() {
-      @Override public Pixel apply(Pixel pixel) {
-        return pixel.setComponentsTo(pixel.getRed());
-      }
-    };
+    return asFunction(PointOperation.redComponent());
   }
 
   /**
@@ -132,11 +191,7 @@ public class Pixel {
    * @return function that sets all components of a pixel to its green value.
    */
   public static Function<Pixel, Pixel> allGreen() {
-    return new Function<Pixel, Pixel>() {
-      @Override public Pixel apply(Pixel pixel) {
-        return pixel.setComponentsTo(pixel.getGreen());
-      }
-    };
+    return asFunction(PointOperation.greenComponent());
   }
 
   /**
@@ -145,11 +200,7 @@ public class Pixel {
    * @return function that sets all components of a pixel to its blue value.
    */
   public static Function<Pixel, Pixel> allBlue() {
-    return new Function<Pixel, Pixel>() {
-      @Override public Pixel apply(Pixel pixel) {
-        return pixel.setComponentsTo(pixel.getBlue());
-      }
-    };
+    return asFunction(PointOperation.blueComponent());
   }
 
   /**
@@ -158,11 +209,7 @@ public class Pixel {
    * @return function that sets all components of a pixel to its maximum value.
    */
   public static Function<Pixel, Pixel> allValue() {
-    return new Function<Pixel, Pixel>() {
-      @Override public Pixel apply(Pixel pixel) {
-        return pixel.setComponentsTo(pixel.getValue());
-      }
-    };
+    return asFunction(PointOperation.valueComponent());
   }
 
   /**
@@ -171,11 +218,7 @@ public class Pixel {
    * @return function that sets all components of a pixel to its average value.
    */
   public static Function<Pixel, Pixel> allIntensity() {
-    return new Function<Pixel, Pixel>() {
-      @Override public Pixel apply(Pixel pixel) {
-        return pixel.setComponentsTo(pixel.getIntensity());
-      }
-    };
+    return asFunction(PointOperation.intensityComponent());
   }
 
   /**
@@ -184,11 +227,7 @@ public class Pixel {
    * @return function that sets all components of a pixel to its luma value.
    */
   public static Function<Pixel, Pixel> allLuma() {
-    return new Function<Pixel, Pixel>() {
-      @Override public Pixel apply(Pixel pixel) {
-        return pixel.setComponentsTo(pixel.getLuma());
-      }
-    };
+    return asFunction(PointOperation.lumaComponent());
   }
 
   /**
@@ -198,40 +237,7 @@ public class Pixel {
    * @return function that increments/decrements all components of a pixel
    */
   public Function<Pixel, Pixel> allAdjustBrightness(int adjust, int maxRGBValue) {
-    return new Function<Pixel, Pixel>() {
-      @Override public Pixel apply(Pixel pixel) {
-        int newRed = pixel.getRed() + adjust;
-        int newGreen = pixel.getGreen() + adjust;
-        int newBlue = pixel.getBlue() + adjust;
-
-        // if adjusted values go beyond threshold, set to closest acceptable value
-        if (newRed > maxRGBValue) {
-          newRed = maxRGBValue;
-        }
-
-        if (newGreen > maxRGBValue) {
-          newGreen = maxRGBValue;
-        }
-
-        if (newBlue > maxRGBValue) {
-          newBlue = maxRGBValue;
-        }
-
-        if (newRed < 0) {
-          newRed = 0;
-        }
-
-        if (newGreen < 0) {
-          newGreen = 0;
-        }
-
-        if (newBlue < 0) {
-          newBlue = 0;
-        }
-
-        return new Pixel(newRed, newGreen, newBlue);
-      }
-    };
+    return asFunction(PointOperation.adjustBrightness(adjust, maxRGBValue));
   }
 
   /**
@@ -239,42 +245,16 @@ public class Pixel {
    * @param kernel                      the kernel used to apply the color transformation
    * @return                            a function that applies the color transformation to a pixel
    *                                    with the specified kernel
-   * @throws IllegalArgumentException   if kernel's dimensions are not odd
+   * @throws IllegalArgumentException   if kernel is not 3x3
    */
   public Function<Pixel, Pixel> applyColorTransformation(double[][] kernel)
           throws IllegalArgumentException {
-    return new Function<Pixel, Pixel>() {
-      // kernel has to be 3x3
-      @Override
-      public Pixel apply(Pixel pixel) {
-        if (kernel.length != 3 || kernel[0].length != 3) {
-          throw new IllegalArgumentException("error: given kernel must be 3x3");
-        }
-
-        double rgbRed = 0;
-        double rgbGreen = 0;
-        double rgbBlue = 0;
-        for (int i = 0; i < kernel.length; i++) {
-          if (i == 0) {
-            rgbRed = kernel[i][0] * pixel.getRed() + kernel[i][1] * pixel.getGreen()
-                    + kernel[i][2] * pixel.getBlue();
-          }
-          else if (i == 1) {
-            rgbGreen = kernel[i][0] * pixel.getRed() + kernel[i][1] * pixel.getGreen()
-                    + kernel[i][2] * pixel.getBlue();
-          }
-          else if (i == 2) {
-            rgbBlue = kernel[i][0] * pixel.getRed() + kernel[i][1] * pixel.getGreen()
-                    + kernel[i][2] * pixel.getBlue();
-          }
-        }
-
-        int adjustedRed = Pixel.adjustValue((int) Math.floor(rgbRed));
-        int adjustedGreen = Pixel.adjustValue((int) Math.floor(rgbGreen));
-        int adjustedBlue = Pixel.adjustValue((int) Math.floor(rgbBlue));
-        return new Pixel(adjustedRed, adjustedGreen, adjustedBlue);
-      }
-    };
+    return asFunction(PointOperation.colorTransformation(kernel));
+  }
+
+  // adapts a point operation on packed RGB values to a function on pixels
+  private static Function<Pixel, Pixel> asFunction(PointOperation operation) {
+    return (Pixel pixel) -> Pixel.fromRGB(operation.apply(pixel.getRGB()));
   }
 
   /**
@@ -0,0 +1,116 @@
+package model;
+
+/**
+ * Represents the innermost loops of filters and point operations, which run over whole rows of
+ * packed pixels or component planes at a time so they can be implemented with SIMD instructions.
+ * Every implementation must give exactly the same results as {@link ScalarPixelKernels}.
+ *
+ * <p>An implementation built on the incubating Vector API is kept in a separate source root,
+ * because compiling it needs the jdk.incubator.vector module. It is used when it is on the class
+ * path and the module was added with --add-modules jdk.incubator.vector, unless the system
+ * property imageprocessor.vector is false. Otherwise the scalar loops are used.
+ */
+interface PixelKernels {
+  /**
+   * The loops used by the filters and point operations of this program.
+   */
+  PixelKernels INSTANCE = select();
+
+  // the class of the Vector API implementation, which may not have been compiled
+  String VECTOR_CLASS = "model.VectorPixelKernels";
+
+  // returns the Vector API implementation if it can be loaded, or the scalar one
+  private static PixelKernels select() {
+    if (!Boolean.parseBoolean(System.getProperty("imageprocessor.vector", "true"))
+            || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+      return new ScalarPixelKernels();
+    }
+
+    try {
+      return (PixelKernels) Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+    }
+    catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+      return new ScalarPixelKernels();
+    }
+  }
+
+  /**
+   * Returns a short name for these loops, such as "scalar".
+   *
+   * @return the name of the implementation
+   */
+  String name();
+
+  /**
+   * Adds the weight times each of a run of components to a run of sums.
+   *
+   * @param weight      the weight to multiply by
+   * @param source      the components
+   * @param sourceStart the index of the first component
+   * @param sums        the sums to add to
+   * @param sumsStart   the index of the first sum
+   * @param length      the number of components
+   */
+  void multiplyAdd(double weight, int[] source, int sourceStart, double[] sums, int sumsStart,
+                   int length);
+
+  /**
+   * Adds the fixed point weight times each of a run of values to a run of integer sums.
+   *
+   * @param weight      the weight to multiply by
+   * @param source      the values
+   * @param sourceStart the index of the first value
+   * @param sums        the sums to add to
+   * @param sumsStart   the index of the first sum
+   * @param length      the number of values
+   */
+  void multiplyAdd(int weight, int[] source, int sourceStart, int[] sums, int sumsStart,
+                   int length);
+
+  /**
+   * Adds the fixed point weight times the sum of each pair of values from two runs of the same
+   * array to a run of integer sums, which is how two equal weights are applied at once.
+   *
+   * @param weight      the weight to multiply by
+   * @param source      the values
+   * @param firstStart  the index of the first value of the first run
+   * @param secondStart the index of the first value of the second run
+   * @param sums        the sums to add to
+   * @param sumsStart   the index of the first sum
+   * @param length      the number of values in each run
+   */
+  void multiplyAddPairs(int weight, int[] source, int firstStart, int secondStart, int[] sums,
+                        int sumsStart, int length);
+
+  /**
+   * Multiplies a 3x3 matrix by the RGB values of a range of packed pixels and adds an offset,
+   * rounding each result down and keeping it between 0 and 255.
+   *
+   * @param matrix  the matrix in row-major order
+   * @param offset  the values added to the red, green and blue results
+   * @param source  the packed pixels to transform
+   * @param dest    the array to write the transformed pixels into
+   * @param start   the first index to transform, inclusive
+   * @param end     the last index to transform, exclusive
+   */
+  void colorTransform(double[] matrix, double[] offset, int[] source, int[] dest, int start,
+                      int end);
+
+  /**
+   * Looks up each output channel of a range of packed pixels in its table, at the value of the
+   * input channel that the given shift moves to the lowest byte.
+   *
+   * @param redTable    the output red value for each value of its input channel
+   * @param greenTable  the output green value for each value of its input channel
+   * @param blueTable   the output blue value for each value of its input channel
+   * @param redShift    the shift of the input channel of red: 16, 8 or 0
+   * @param greenShift  the shift of the input channel of green
+   * @param blueShift   the shift of the input channel of blue
+   * @param source      the packed pixels to look up
+   * @param dest        the array to write the results into
+   * @param start       the first index to look up, inclusive
+   * @param end         the last index to look up, exclusive
+   */
+  void lookup(int[] redTable, int[] greenTable, int[] blueTable, int redShift, int greenShift,
+              int blueShift, int[] source, int[] dest, int start, int end);
+}
@@ -0,0 +1,134 @@
+package model;
+
+/**
+ * Represents an image operation that computes each pixel of a new image only from the pixel at
+ * the same position in the original image. Operations work on packed RGB values, with red in bits
+ * 16-23, green in bits 8-15 and blue in bits 0-7, so applying one creates no objects per pixel.
+ */
+@FunctionalInterface
+public interface PointOperation {
+  /**
+   * Applies this operation to one pixel.
+   *
+   * @param rgb   the packed RGB value of the original pixel
+   * @return      the packed RGB value of the new pixel
+   */
+  int apply(int rgb);
+
+  /**
+   * Applies this operation to a range of a raster, writing the results to the same positions of
+   * the destination raster.
+   *
+   * @param source  the raster of the original image
+   * @param dest    the raster the new pixels are written to
+   * @param start   the first index to apply the operation to, inclusive
+   * @param end     the last index to apply the operation to, exclusive
+   */
+  default void applyAll(int[] source, int[] dest, int start, int end) {
+    for (int index = start; index < end; index++) {
+      dest[index] = this.apply(source[index]);
+    }
+  }
+
+  /**
+   * Returns an operation that applies this operation and then the given one.
+   *
+   * @param next  the operation to apply to the result of this one
+   * @return      an operation with the same result as applying both in order
+   */
+  default PointOperation andThen(PointOperation next) {
+    return (int rgb) -> next.apply(this.apply(rgb));
+  }
+
+  /**
+   * Returns an operation that sets all components of a pixel to its red value, compiled into a
+   * lookup table.
+   *
+   * @return an operation that visualizes the red component
+   */
+  static PointOperation redComponent() {
+    return LookupTable.redComponent();
+  }
+
+  /**
+   * Returns an operation that sets all components of a pixel to its green value, compiled into a
+   * lookup table.
+   *
+   * @return an operation that visualizes the green component
+   */
+  static PointOperation greenComponent() {
+    return LookupTable.greenComponent();
+  }
+
+  /**
+   * Returns an operation that sets all components of a pixel to its blue value, compiled into a
+   * lookup table.
+   *
+   * @return an operation that visualizes the blue component
+   */
+  static PointOperation blueComponent() {
+    return LookupTable.blueComponent();
+  }
+
+  /**
+   * Returns an operation that sets all components of a pixel to its maximum value.
+   *
+   * @return an operation that visualizes the value of each pixel
+   */
+  static PointOperation valueComponent() {
+    return (int rgb) -> {
+      int value = Math.max(Pixel.redOf(rgb), Math.max(Pixel.greenOf(rgb), Pixel.blueOf(rgb)));
+      return Pixel.pack(value, value, value);
+    };
+  }
+
+  /**
+   * Returns an operation that sets all components of a pixel to its average value.
+   *
+   * @return an operation that visualizes the intensity of each pixel
+   */
+  static PointOperation intensityComponent() {
+    return (int rgb) -> {
+      int intensity = (Pixel.redOf(rgb) + Pixel.greenOf(rgb) + Pixel.blueOf(rgb)) / 3;
+      return Pixel.pack(intensity, intensity, intensity);
+    };
+  }
+
+  /**
+   * Returns an operation that sets all components of a pixel to its luma value.
+   *
+   * @return an operation that visualizes the luma of each pixel
+   */
+  static PointOperation lumaComponent() {
+    return (int rgb) -> {
+      int luma = (int) Math.floor(0.2126 * Pixel.redOf(rgb) + 0.7152 * Pixel.greenOf(rgb)
+              + 0.0722 * Pixel.blueOf(rgb));
+      return Pixel.pack(luma, luma, luma);
+    };
+  }
+
+  /**
+   * Returns an operation that increments/decrements all components of a pixel by the given
+   * integer, keeping each component between 0 and the given maximum value. The operation is
+   * compiled into a lookup table.
+   *
+   * @param adjust        the increment to add to each component
+   * @param maxRGBValue   the largest value a component may have after adjusting
+   * @return              an operation that adjusts the brightness of each pixel
+   */
+  static PointOperation adjustBrightness(int adjust, int maxRGBValue) {
+    return LookupTable.brightness(adjust, maxRGBValue);
+  }
+
+  /**
+   * Returns an operation that multiplies the given 3x3 kernel by the RGB values of each pixel,
+   * rounding each result down and keeping it between 0 and 255.
+   *
+   * @param kernel                      the kernel used to apply the color transformation
+   * @return                            an operation that applies the color transformation
+   * @throws IllegalArgumentException   if the kernel is not 3x3
+   */
+  static PointOperation colorTransformation(double[][] kernel) {
+    return ColorTransformation.of(kernel);
+  }
+}
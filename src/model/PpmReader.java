@@ -0,0 +1,188 @@
+package model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads plain PPM (P3) images from a stream of bytes, one buffer at a time, straight into a
+ * packed raster. Numbers are parsed from their digits as they are read, without making strings
+ * or tokens, so reading an image takes one pass over the file and no memory besides the raster
+ * and the buffer. The raster grows as pixels are read, so a header that claims a huge image
+ * takes no more memory than the pixels that actually follow it.
+ *
+ * <p>Numbers may be separated by any whitespace, and a # starts a comment that runs to the end
+ * of its line, anywhere in the file. Blank lines are whitespace like any other.
+ */
+final class PpmReader {
+  // the number of bytes read from the stream at once
+  private static final int BUFFER_SIZE = 1 << 16;
+  // numbers larger than this cannot have another digit added without overflowing
+  private static final int MAX_BEFORE_DIGIT = (Integer.MAX_VALUE - 9) / 10;
+  // the most pixels allocated before any are read, so that a header alone cannot take the memory
+  // of a huge image
+  private static final int FIRST_PIXELS = 1 << 20;
+  private final InputStream in;
+  private final byte[] buffer;
+  private int position;
+  private int limit;
+
+  // reads from the given stream, which is left open
+  private PpmReader(InputStream in) {
+    this.in = in;
+    this.buffer = new byte[BUFFER_SIZE];
+  }
+
+  /**
+   * Reads a P3 image from a stream, which is left open.
+   *
+   * @param in                          the stream of the file
+   * @param imageName                   the name of the image that is read
+   * @return                            the image in the stream
+   * @throws IllegalArgumentException   if the stream does not hold a P3 image, or a component is
+   *                                    not between 0 and 255
+   * @throws IOException                if the stream fails to read
+   */
+  static RasterImageModel read(InputStream in, String imageName) throws IOException {
+    return new PpmReader(in).readImage(imageName);
+  }
+
+  /**
+   * Reads the width and height from the header of a P3 image, without reading its pixels. The
+   * stream is left open.
+   *
+   * @param in                          the stream of the file
+   * @return                            the width and then the height of the image
+   * @throws IllegalArgumentException   if the stream does not start with the header of a P3
+   *                                    image
+   * @throws IOException                if the stream fails to read
+   */
+  static int[] readSize(InputStream in) throws IOException {
+    return new PpmReader(in).readSize();
+  }
+
+  // reads the header and every pixel after it
+  private RasterImageModel readImage(String imageName) throws IOException {
+    int[] size = this.readSize();
+    int width = size[0];
+    int height = size[1];
+    int maxValue = this.nextNumber();
+
+    // grab pixel RGB values, growing the raster as they arrive, since the header alone does not
+    // show that the file holds that many
+    int pixels = width * height;
+    int[] raster = new int[Math.min(pixels, FIRST_PIXELS)];
+    for (int index = 0; index < pixels; index++) {
+      if (index == raster.length) {
+        raster = Arrays.copyOf(raster, (int) Math.min(pixels, 2L * raster.length));
+      }
+      int r = this.nextNumber();
+      int g = this.nextNumber();
+      int b = this.nextNumber();
+      if (Pixel.componentInvalid(r) || Pixel.componentInvalid(g) || Pixel.componentInvalid(b)) {
+        throw new IllegalArgumentException("error: one component is invalid");
+      }
+      raster[index] = Pixel.pack(r, g, b);
+    }
+
+    return new RasterImageModel(raster, width, height, imageName, maxValue, false);
+  }
+
+  // reads the magic number, width and height
+  private int[] readSize() throws IOException {
+    // check file format: PPM version 3
+    int first = this.skipToToken();
+    if (first != 'P' || this.next() != '3' || !this.endsToken(this.next())) {
+      throw formatInvalid();
+    }
+
+    int width = this.nextNumber();
+    int height = this.nextNumber();
+    if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE) {
+      throw formatInvalid();
+    }
+    return new int[] {width, height};
+  }
+
+  // reads the next number, which may have a sign, skipping the whitespace and comments before it
+  private int nextNumber() throws IOException {
+    int read = this.skipToToken();
+    boolean negative = read == '-';
+    if (negative || read == '+') {
+      read = this.next();
+    }
+    if (read < '0' || read > '9') {
+      throw formatInvalid();
+    }
+
+    int value = 0;
+    while (read >= '0' && read <= '9') {
+      if (value > MAX_BEFORE_DIGIT) {
+        throw formatInvalid();
+      }
+      value = value * 10 + (read - '0');
+      read = this.next();
+    }
+    if (!this.endsToken(read)) {
+      throw formatInvalid();
+    }
+    return negative ? -value : value;
+  }
+
+  // returns whether the byte after a token may end it, skipping the comment it starts if it is a
+  // #, so that the byte is never needed again
+  private boolean endsToken(int read) throws IOException {
+    if (read == '#') {
+      this.skipComment();
+      return true;
+    }
+    return read < 0 || isWhitespace(read);
+  }
+
+  // returns the first byte of the next token, skipping whitespace and comments, or -1 at the end
+  // of the stream
+  private int skipToToken() throws IOException {
+    int read = this.next();
+    while (read >= 0) {
+      if (read == '#') {
+        this.skipComment();
+      }
+      else if (!isWhitespace(read)) {
+        return read;
+      }
+      read = this.next();
+    }
+    return read;
+  }
+
+  // skips the rest of a comment, up to and including the end of its line
+  private void skipComment() throws IOException {
+    int read = this.next();
+    while (read >= 0 && read != '\n' && read != '\r') {
+      read = this.next();
+    }
+  }
+
+  // returns the next byte of the stream, or -1 at its end
+  private int next() throws IOException {
+    if (this.position == this.limit) {
+      this.limit = this.in.read(this.buffer, 0, this.buffer.length);
+      this.position = 0;
+      if (this.limit <= 0) {
+        this.limit = 0;
+        return -1;
+      }
+    }
+    return this.buffer[this.position++] & 0xFF;
+  }
+
+  // returns whether a byte is a space, tab, line break, vertical tab or form feed
+  private static boolean isWhitespace(int read) {
+    return read == ' ' || (read >= '\t' && read <= '\r');
+  }
+
+  // returns the exception thrown for a file that is not a P3 image
+  private static IllegalArgumentException formatInvalid() {
+    return new IllegalArgumentException("error: file format invalid");
+  }
+}
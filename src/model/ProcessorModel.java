@@ -9,8 +9,10 @@ import java.util.Map;
  */
 public interface ProcessorModel {
   /**
-   * Adds this image to the images being managed by the processor.
-   * @param image   the image to be added
+   * Adds this image to the images being managed by the processor, replacing any image with the
+   * same name, and makes it the last edited image.
+   * @param image                       the image to be added
+   * @throws IllegalArgumentException   if image is null
    */
   void addImage(ImageModel image);
 
@@ -64,6 +66,15 @@ public interface ProcessorModel {
    */
   Map<Integer, Integer> getIntensityHistogram(String imageName);
 
+  /**
+   * Returns the red, green, blue and intensity histograms of the image with the given name,
+   * counted in a single pass over the image.
+   * @param imageName                   the name of the image to get the histogram from
+   * @return                            the histogram of all channels of the image with given name
+   * @throws IllegalArgumentException   when there is no image with the given name in the processor
+   */
+  Histogram getHistogram(String imageName);
+
   /**
    * Loads the image at a specific path into this processor.
    *
@@ -74,6 +85,18 @@ public interface ProcessorModel {
    */
   void load(String imagePath, String imageName);
 
+  /**
+   * Reads the image at a specific path without adding it to this processor, so that it can be
+   * read ahead of time on another thread and added later with addImage().
+   *
+   * @param imagePath                     the path specifying the location of the image to be read
+   * @param imageName                     the name of the image that is read
+   * @return                              the image at the path, with the given name
+   * @throws IllegalArgumentException     when the imagePath does not exist or the image is
+   *                                      formatted incorrectly (not PPM version 3)
+   */
+  ImageModel readImage(String imagePath, String imageName);
+
   /**
    * Saves the image in the processor at a specified path.
    *
@@ -81,13 +104,24 @@ public interface ProcessorModel {
    *                                    saved
    * @param imageName                   the name of the image in the processor to be saved
    * @throws IllegalArgumentException   when there is no image with given name in the processor
-   * @throws IllegalStateException      when the processor fails to write to the image path
+   * @throws IllegalStateException      when the processor fails to write to the image path, or
+   *                                    flush() throws it if saves are written in the background
    */
   void save(String imagePath, String imageName);
 
+  /**
+   * Waits until every save made before has been written to its file. Saves that are written
+   * when they are made are always written already.
+   *
+   * @throws IllegalStateException      when the processor failed to write a save, for the first
+   *                                    save that failed in the order they were made
+   */
+  void flush();
+
   /**
    * Returns a BufferedImage version of the most recently added image in the processor.
-   * @return          the BufferedImage version of the latest image in the processor
+   * @return                        the BufferedImage version of the latest image in the processor
+   * @throws IllegalStateException  if there are no images in the processor
    */
   BufferedImage getCurrentImage();
 
@@ -196,6 +230,17 @@ public interface ProcessorModel {
    */
   void blur(String imageName, String destImageName);
 
+  /**
+   * Blurs the image given, reading pixels past its edges according to the given edge mode, and
+   * saves it under another name in the image processor.
+   * @param imageName                   the image that will be blurred
+   * @param destImageName               the name of the blurred image
+   * @param edgeMode                    how pixels outside of the image are read
+   * @throws IllegalArgumentException   when there is no image with the given name in the processor
+   *                                    or edgeMode is null
+   */
+  void blur(String imageName, String destImageName, EdgeMode edgeMode);
+
   /**
    * Sharpens the image given and saves it under another name in the image processor.
    * @param imageName                   the image that will be sharpened
@@ -204,6 +249,70 @@ public interface ProcessorModel {
    */
   void sharpen(String imageName, String destImageName);
 
+  /**
+   * Sharpens the image given, reading pixels past its edges according to the given edge mode, and
+   * saves it under another name in the image processor.
+   * @param imageName                   the image that will be sharpened
+   * @param destImageName               the name of the sharpened image
+   * @param edgeMode                    how pixels outside of the image are read
+   * @throws IllegalArgumentException   when there is no image with the given name in the processor
+   *                                    or edgeMode is null
+   */
+  void sharpen(String imageName, String destImageName, EdgeMode edgeMode);
+
+  /**
+   * Filters the image given with the kernel in the file at the given path and saves it under
+   * another name in the image processor. The file has one row of the kernel per line, with its
+   * weights separated by spaces and written as numbers or fractions like 1/16, and lines starting
+   * with # are ignored. The kernel must have an odd number of rows and columns.
+   * @param kernelPath                  the path of the kernel file
+   * @param imageName                   the image that will be filtered
+   * @param destImageName               the name of the filtered image
+   * @param edgeMode                    how pixels outside of the image are read
+   * @throws IllegalArgumentException   when there is no image with the given name in the processor,
+   *                                    the kernel file does not exist or is not a valid kernel, or
+   *                                    edgeMode is null
+   */
+  void filter(String kernelPath, String imageName, String destImageName, EdgeMode edgeMode);
+
+  /**
+   * Blurs the image given with a box of the given radius and saves it under another name in the
+   * image processor. The blur takes the same time for any radius.
+   * @param radius                      the radius of the box, which is 2 * radius + 1 wide
+   * @param imageName                   the image that will be blurred
+   * @param destImageName               the name of the blurred image
+   * @param edgeMode                    how pixels outside of the image are read
+   * @throws IllegalArgumentException   when there is no image with the given name in the processor,
+   *                                    radius is negative or too large or edgeMode is null
+   */
+  void boxBlur(int radius, String imageName, String destImageName, EdgeMode edgeMode);
+
+  /**
+   * Blurs the image given with an approximate Gaussian of the given standard deviation and saves
+   * it under another name in the image processor. The blur takes the same time for any deviation.
+   * @param sigma                       the standard deviation of the Gaussian, in pixels
+   * @param imageName                   the image that will be blurred
+   * @param destImageName               the name of the blurred image
+   * @param edgeMode                    how pixels outside of the image are read
+   * @throws IllegalArgumentException   when there is no image with the given name in the processor,
+   *                                    sigma is not greater than 0 or too large or edgeMode is
+   *                                    null
+   */
+  void gaussianBlur(double sigma, String imageName, String destImageName, EdgeMode edgeMode);
+
+  /**
+   * Replaces every component of the image given with the median of the square of components
+   * around it and saves it under another name in the image processor. The filter takes the same
+   * time for any radius.
+   * @param radius                      the radius of the square, which is 2 * radius + 1 wide
+   * @param imageName                   the image that will be filtered
+   * @param destImageName               the name of the filtered image
+   * @param edgeMode                    how pixels outside of the image are read
+   * @throws IllegalArgumentException   when there is no image with the given name in the processor,
+   *                                    radius is negative or too large or edgeMode is null
+   */
+  void median(int radius, String imageName, String destImageName, EdgeMode edgeMode);
+
   /**
    * Converts the image to a greyscale image, composed only of grey shades, and saves it under
    * another name in the image processor.
@@ -1,14 +1,18 @@
 package model;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import javax.imageio.ImageIO;
@@ -18,149 +22,195 @@ import view.ImageView;
 
 /**
  * Represents a basic implementation of the image processor functions.
+ *
+ * <p>Images are kept in a concurrent map by name, so one model can be shared by several
+ * controllers on different threads. Looking up an image or the last edited image never locks.
+ * Adding an image replaces any image with the same name and makes it the last edited image in
+ * one step, so every thread sees the last edited image be the last one added. Operations that
+ * read one image and add another do not lock either, so if two threads write the same name at
+ * once, the image added last is kept.
+ *
+ * <p>Saves are written when they are made unless another SaveMode is given, in which case they
+ * are written on background threads, loading a file waits for the saves to it, and flush() waits
+ * for every save.
  */
 public class ProcessorModelImpl implements ProcessorModel {
-  private final List<ImageModel> images;
+  private final Map<String, ImageModel> images;
+  // the image added most recently, or null if no image has been added
+  private volatile ImageModel lastEdited;
+  private final boolean deferPointOperations;
+  private final ColorComposition colorComposition;
+  private final SaveQueue saves;
 
   /**
    * Creates a model.ProcessorModelImpl object.
    */
   public ProcessorModelImpl() {
-    this.images = new ArrayList<>();
+    this(false);
+  }
+
+  /**
+   * Creates a model.ProcessorModelImpl object.
+   * @param deferPointOperations  if true, component, brighten and color transformation operations
+   *                              are not applied until the resulting image is read, so that chains
+   *                              of them are fused into one pass over the first image
+   */
+  public ProcessorModelImpl(boolean deferPointOperations) {
+    this(deferPointOperations, ColorComposition.STEPWISE);
+  }
+
+  /**
+   * Creates a model.ProcessorModelImpl object.
+   * @param deferPointOperations        if true, component, brighten and color transformation
+   *                                    operations are not applied until the resulting image is
+   *                                    read, so that chains of them are fused into one pass over
+   *                                    the first image
+   * @param colorComposition            how deferred chains of color transformations and
+   *                                    brightness adjustments are combined
+   * @throws IllegalArgumentException   if colorComposition is null
+   */
+  public ProcessorModelImpl(boolean deferPointOperations, ColorComposition colorComposition) {
+    this(deferPointOperations, colorComposition, SaveMode.SYNCHRONOUS);
+  }
+
+  /**
+   * Creates a model.ProcessorModelImpl object.
+   * @param deferPointOperations        if true, component, brighten and color transformation
+   *                                    operations are not applied until the resulting image is
+   *                                    read, so that chains of them are fused into one pass over
+   *                                    the first image
+   * @param colorComposition            how deferred chains of color transformations and
+   *                                    brightness adjustments are combined
+   * @param saveMode                    when and in what order saves are written to their files
+   * @throws IllegalArgumentException   if colorComposition or saveMode is null
+   */
+  public ProcessorModelImpl(boolean deferPointOperations, ColorComposition colorComposition,
+                            SaveMode saveMode) {
+    if (colorComposition == null) {
+      throw new IllegalArgumentException("error: given null color composition");
+    }
+    if (saveMode == null) {
+      throw new IllegalArgumentException("error: given null save mode");
+    }
+
+    this.images = new ConcurrentHashMap<>();
+    this.deferPointOperations = deferPointOperations;
+    this.colorComposition = colorComposition;
+    this.saves = new SaveQueue(saveMode);
   }
 
   @Override
   public void addImage(ImageModel image) {
-    // if there is an image with a matching name, remove it
-    for (int imageIndex = 0; imageIndex < this.images.size(); imageIndex++) {
-      ImageModel currentImage = this.images.get(imageIndex);
-
-      if (currentImage.getName().equals(image.getName())) {
-        this.images.remove(imageIndex);
-      }
+    if (image == null) {
+      throw new IllegalArgumentException("error: given null image");
     }
 
-    this.images.add(image);
+    // replacing the image and moving the last edited image happen together, so that two
+    // threads adding at once cannot leave the last edited image pointing at the one replaced
+    synchronized (this.images) {
+      this.images.put(image.getName(), image);
+      this.lastEdited = image;
+    }
   }
 
   @Override
   public ImageModel getImage(String name) {
-    // look for image with name
-    for (ImageModel image : this.images) {
-      if (image.getName().equals(name)) {
-        return image;
-      }
+    ImageModel image = name == null ? null : this.images.get(name);
+    if (image == null) {
+      // image not found, throw exception
+      throw new IllegalArgumentException("error: image with given name not found");
     }
-
-    // image not found, throw exception
-    throw new IllegalArgumentException("error: image with given name not found");
+    return image;
   }
 
   @Override
   public String getNameLastEdited() {
-    if (this.images.size() < 1) {
-      // return an empty string if there are no images in the processor
-      return "";
-    }
-    else {
-      return this.images.get(this.images.size() - 1).getName();
-    }
+    ImageModel image = this.lastEdited;
+    // return an empty string if there are no images in the processor
+    return image == null ? "" : image.getName();
+  }
+
+  // gets the image to apply a point operation to, which fuses the operation with any pending
+  // ones when point operations are deferred
+  protected ImageModel getPointOperationSource(String name) {
+    ImageModel image = this.getImage(name);
+    return this.deferPointOperations
+            ? DeferredImageModel.wrap(image, this.colorComposition) : image;
   }
 
   @Override
   public void load(String imagePath, String imageName) {
+    this.addImage(this.readImage(imagePath, imageName));
+  }
+
+  @Override
+  public ImageModel readImage(String imagePath, String imageName) {
+    // a save to the same file that is still being written must finish first
+    this.saves.awaitFile(imagePath);
+
     // gets the file type from the end of the filepath
     String[] parsedFile = imagePath.split("\\.");
     String fileType = parsedFile[parsedFile.length - 1];
 
     if (fileType.equalsIgnoreCase("ppm")) {
-      this.loadPPM(imagePath, imageName);
+      return this.readPPM(imagePath, imageName);
     } else if (fileType.equalsIgnoreCase("jpg")
             || fileType.equalsIgnoreCase("bmp")
             || fileType.equalsIgnoreCase("png")) {
-      this.loadRegisteredFile(imagePath, imageName);
+      return this.readRegisteredFile(imagePath, imageName);
     } else {
       throw new IllegalArgumentException("error: invalid file given");
     }
   }
 
-  // Loads the file if the given file type that ImageIO.write recognizes
-  protected void loadRegisteredFile(String imagePath, String imageName) {
+  // Reads the file if the given file type that ImageIO.write recognizes
+  protected ImageModel readRegisteredFile(String imagePath, String imageName) {
     try {
       BufferedImage bufferedImage = ImageIO.read(new File(imagePath));
-      List<List<Pixel>> pixels = new ArrayList<>(bufferedImage.getHeight());
-
-      // converting buffered image to pixels
-      for (int i = 0; i < bufferedImage.getHeight(); i++) {
-        List<Pixel> pixelRow = new ArrayList<>();
-        for (int j = 0; j < bufferedImage.getWidth(); j++) {
-          int rgbVal = bufferedImage.getRGB(j, i);
-          int red = (rgbVal >> 16) & 0xFF;
-          int green = (rgbVal >> 8) & 0xFF;
-          int blue = (rgbVal >> 0) & 0xFF;
-          pixelRow.add(new Pixel(red, green, blue));
-        }
-        pixels.add(pixelRow);
+      int width = bufferedImage.getWidth();
+      int height = bufferedImage.getHeight();
+
+      // converting buffered image to a raster, dropping the alpha channel
+      int[] raster = bufferedImage.getRGB(0, 0, width, height, null, 0, width);
+      for (int index = 0; index < raster.length; index++) {
+        raster[index] &= 0xFFFFFF;
       }
 
-      this.addImage(new ImageModelImpl(pixels, imageName));
+      return new RasterImageModel(raster, width, height, imageName, 255, false);
     } catch (IOException e) {
       throw new IllegalStateException("error: processor failed to read the file");
     }
   }
 
-  // Loads a PPM file type
-  protected void loadPPM(String imagePath, String imageName) {
-    Scanner sc;
-
-    // check to make sure file exists
-    try {
-      sc = new Scanner(new FileInputStream(imagePath));
+  // Reads a PPM file type
+  protected ImageModel readPPM(String imagePath, String imageName) {
+    // check to make sure file exists, then parse it straight into a raster
+    try (InputStream in = new FileInputStream(imagePath)) {
+      return PpmReader.read(in, imageName);
     } catch (FileNotFoundException e) {
       throw new IllegalArgumentException("error: loading from an imagePath that does not exist");
+    } catch (IOException e) {
+      throw new IllegalStateException("error: processor failed to read the file");
     }
+  }
 
-    StringBuilder builder = new StringBuilder();
-    //read the file line by line, and populate a string. This will throw away any comment lines
-    while (sc.hasNextLine()) {
-      String s = sc.nextLine();
-      if (s.charAt(0) != '#') {
-        builder.append(s);
-        builder.append(System.lineSeparator());
-      }
-    }
-
-    //now set up the scanner to read from the string we just built
-    sc = new Scanner(builder.toString());
-
-    String token;
-
-    token = sc.next();
-    // check file format: PPM version 3
-    if (!token.equals("P3")) {
-      throw new IllegalArgumentException("error: file format invalid");
-    }
-
-    // grab width and height values of image, not necessary to construct model.ImageModel object
-    int width = sc.nextInt();
-    int height = sc.nextInt();
-    int maxValue = sc.nextInt();
-
-    // grab pixel RGB values
-    List<List<Pixel>> pixels = new ArrayList<>(height);
-    for (int i = 0; i < height; i++) {
-      ArrayList<Pixel> pixelRow = new ArrayList<>(width);
-      for (int j = 0; j < width; j++) {
-        int r = sc.nextInt();
-        int g = sc.nextInt();
-        int b = sc.nextInt();
-        pixelRow.add(new Pixel(r, g, b));
-      }
-      pixels.add(pixelRow);
+  /**
+   * Reads the width and height of a PPM file from its header, without reading its pixels.
+   *
+   * @param imagePath                   the path of the PPM file
+   * @return                            the width and then the height of the image
+   * @throws IllegalArgumentException   if the file does not exist or does not start with the
+   *                                    header of a P3 image
+   * @throws IllegalStateException      if the file fails to read
+   */
+  public static int[] readPPMSize(String imagePath) {
+    try (InputStream in = new FileInputStream(imagePath)) {
+      return PpmReader.readSize(in);
+    } catch (FileNotFoundException e) {
+      throw new IllegalArgumentException("error: loading from an imagePath that does not exist");
+    } catch (IOException e) {
+      throw new IllegalStateException("error: processor failed to read the file");
     }
-
-    // add image with parsed pixels and max RGB value to the processor
-    this.addImage(new ImageModelImpl(pixels, imageName, maxValue));
   }
 
   // returns appropriate image view/format class for the image in the processor
@@ -175,22 +225,16 @@ public class ProcessorModelImpl implements ProcessorModel {
 
   @Override
   public BufferedImage getCurrentImage() {
-    ImageModel currImage = this.images.get(this.images.size() - 1);
+    ImageModel currImage = this.lastEdited;
+    if (currImage == null) {
+      throw new IllegalStateException("error: no image in the processor");
+    }
     int width = currImage.getWidth();
     int height = currImage.getHeight();
-    // constructing a new buffered image to modify with the correct rgb values
+    // constructing a new buffered image and copying the raster straight into its pixel buffer
     BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-    // converting rgb values to int values
-    List<List<Pixel>> modelPixels = currImage.getPixels();
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        Pixel currPixel = modelPixels.get(i).get(j);
-        int rgbVal = currPixel.getRed();
-        rgbVal = (rgbVal << 8) + currPixel.getGreen();
-        rgbVal = (rgbVal << 8) + currPixel.getBlue();
-        bufferedImage.setRGB(j, i, rgbVal);
-      }
-    }
+    int[] imageData = ((DataBufferInt) bufferedImage.getRaster().getDataBuffer()).getData();
+    currImage.getRGBRegion(0, 0, width, height, imageData, 0);
     return bufferedImage;
   }
 
@@ -202,42 +246,58 @@ public class ProcessorModelImpl implements ProcessorModel {
       throw new IllegalArgumentException("error: trying to save imageName not found in processor");
     }
 
-    // catch IOException that occurs when writing to file if writing fails
-    try {
-      view.writeToFile(imagePath);
-    } catch (IOException e) {
-      throw new IllegalStateException("error: processor failed to write to file");
+    // check the file type now, so that only failures to write are left to the writer
+    String[] parsedFile = imagePath.split("\\.");
+    String fileType = parsedFile[parsedFile.length - 1];
+    if (!fileType.equalsIgnoreCase("ppm") && !fileType.equalsIgnoreCase("jpg")
+            && !fileType.equalsIgnoreCase("bmp") && !fileType.equalsIgnoreCase("png")) {
+      throw new IllegalArgumentException("error: invalid file type given");
     }
+
+    // the image never changes, so it can be written after this returns
+    this.saves.submit(imagePath, () -> {
+      // catch IOException that occurs when writing to file if writing fails
+      try {
+        view.writeToFile(imagePath);
+      } catch (IOException e) {
+        throw new IllegalStateException("error: processor failed to write to file");
+      }
+    });
+  }
+
+  @Override
+  public void flush() {
+    this.saves.flush();
   }
 
   @Override
   public void redComponent(String imageName, String destImageName) {
-    this.addImage(this.getImage(imageName).getImageAllRed(destImageName));
+    this.addImage(this.getPointOperationSource(imageName).getImageAllRed(destImageName));
   }
 
   @Override
   public void greenComponent(String imageName, String destImageName) {
-    this.addImage(this.getImage(imageName).getImageAllGreen(destImageName));
+    this.addImage(this.getPointOperationSource(imageName).getImageAllGreen(destImageName));
   }
 
   @Override
   public void blueComponent(String imageName, String destImageName) {
-    this.addImage(this.getImage(imageName).getImageAllBlue(destImageName));
+    this.addImage(this.getPointOperationSource(imageName).getImageAllBlue(destImageName));
   }
 
   @Override
   public void valueComponent(String imageName, String destImageName) {
-    this.addImage(this.getImage(imageName).getImageAllValue(destImageName));
+    this.addImage(this.getPointOperationSource(imageName).getImageAllValue(destImageName));
   }
 
   @Override
   public void intensityComponent(String imageName, String destImageName) {
-    this.addImage(this.getImage(imageName).getImageAllIntensity(destImageName));
+    this.addImage(this.getPointOperationSource(imageName).getImageAllIntensity(destImageName));
   }
 
   @Override
   public void lumaComponent(String imageName, String destImageName) {
-    this.addImage(this.getImage(imageName).getImageAllLuma(destImageName));
+    this.addImage(this.getPointOperationSource(imageName).getImageAllLuma(destImageName));
   }
 
   @Override
@@ -252,36 +312,132 @@ public class ProcessorModelImpl implements ProcessorModel {
 
   @Override
   public void brighten(int increment, String imageName, String destImageName) {
-    this.addImage(this.getImage(imageName).getImageAdjustBrightness(destImageName, increment));
+    this.addImage(this.getPointOperationSource(imageName)
+            .getImageAdjustBrightness(destImageName, increment));
   }
 
   // Applies the given kernel to all pixels of the image
-  protected void applyFilter(String imageName, String destImageName, double[][] kernel) {
-    this.addImage(this.getImage(imageName).applyFilter(destImageName, kernel));
+  protected void applyFilter(String imageName, String destImageName, double[][] kernel,
+                             EdgeMode edgeMode) {
+    this.addImage(this.getImage(imageName).applyFilter(destImageName, kernel, edgeMode));
+  }
+
+  // Applies the outer product of the given 1D kernels to all pixels of the image
+  protected void applySeparableFilter(String imageName, String destImageName, double[] vertical,
+                                      double[] horizontal, EdgeMode edgeMode) {
+    this.addImage(this.getImage(imageName)
+            .applySeparableFilter(destImageName, vertical, horizontal, edgeMode));
   }
 
   @Override
   public void blur(String imageName, String destImageName) {
-    double[][] blurKernel = {{0.0625, 0.125, 0.0625},
-        {0.125, 0.25, 0.125},
-        {0.0625, 0.125, 0.0625}};
-    this.applyFilter(imageName, destImageName, blurKernel);
+    this.blur(imageName, destImageName, EdgeMode.ZERO);
+  }
+
+  @Override
+  public void blur(String imageName, String destImageName, EdgeMode edgeMode) {
+    // the blur kernel is the outer product of this kernel with itself
+    double[] blurKernel = {0.25, 0.5, 0.25};
+    this.applySeparableFilter(imageName, destImageName, blurKernel, blurKernel, edgeMode);
   }
 
   @Override
   public void sharpen(String imageName, String destImageName) {
+    this.sharpen(imageName, destImageName, EdgeMode.ZERO);
+  }
+
+  @Override
+  public void sharpen(String imageName, String destImageName, EdgeMode edgeMode) {
     double[][] sharpenKernel = {{-0.0625, -0.0625, -0.0625, -0.0625, -0.0625},
         {-0.0625, 0.25, 0.25, 0.25, -0.0625},
         {-0.0625, 0.25, 1.0, 0.25, -0.0625},
         {-0.0625, 0.25, 0.25, 0.25, -0.0625},
         {-0.0625, -0.0625, -0.0625, -0.0625, -0.0625}};
-    this.applyFilter(imageName, destImageName, sharpenKernel);
+    this.applyFilter(imageName, destImageName, sharpenKernel, edgeMode);
+  }
+
+  @Override
+  public void filter(String kernelPath, String imageName, String destImageName,
+                     EdgeMode edgeMode) {
+    Kernel kernel = this.loadKernel(kernelPath);
+    this.addImage(this.getImage(imageName).applyFilter(destImageName, kernel, edgeMode));
+  }
+
+  // Reads the kernel in the file at the given path, one row per line; kernels with the same
+  // weights as a recent one are not analyzed again
+  protected Kernel loadKernel(String kernelPath) {
+    this.saves.awaitFile(kernelPath);
+    Scanner sc;
+
+    // check to make sure file exists
+    try {
+      sc = new Scanner(new FileInputStream(kernelPath));
+    } catch (FileNotFoundException e) {
+      throw new IllegalArgumentException("error: loading from a kernel path that does not exist");
+    }
+
+    List<double[]> rows = new ArrayList<>();
+    while (sc.hasNextLine()) {
+      String line = sc.nextLine().strip();
+      if (line.isEmpty() || line.charAt(0) == '#') {
+        continue;
+      }
+
+      String[] tokens = line.split("\\s+");
+      double[] row = new double[tokens.length];
+      for (int col = 0; col < tokens.length; col++) {
+        row[col] = parseWeight(tokens[col]);
+      }
+      rows.add(row);
+    }
+    sc.close();
+
+    if (rows.isEmpty()) {
+      throw new IllegalArgumentException("error: kernel file has no weights");
+    }
+    return Kernel.of(rows.toArray(new double[0][]));
+  }
+
+  // parses a finite weight written as a number or a fraction of two numbers
+  private static double parseWeight(String token) {
+    double weight;
+    try {
+      int slash = token.indexOf('/');
+      weight = slash < 0 ? Double.parseDouble(token)
+              : Double.parseDouble(token.substring(0, slash))
+              / Double.parseDouble(token.substring(slash + 1));
+    }
+    catch (NumberFormatException e) {
+      weight = Double.NaN;
+    }
+
+    if (!Double.isFinite(weight)) {
+      throw new IllegalArgumentException("error: invalid kernel weight " + token);
+    }
+    return weight;
+  }
+
+  @Override
+  public void boxBlur(int radius, String imageName, String destImageName, EdgeMode edgeMode) {
+    this.addImage(this.getImage(imageName).applyBoxBlur(destImageName, radius, edgeMode));
+  }
+
+  @Override
+  public void gaussianBlur(double sigma, String imageName, String destImageName,
+                           EdgeMode edgeMode) {
+    this.addImage(this.getImage(imageName).applyGaussianBlur(destImageName, sigma, edgeMode));
+  }
+
+  @Override
+  public void median(int radius, String imageName, String destImageName, EdgeMode edgeMode) {
+    this.addImage(this.getImage(imageName).applyMedianFilter(destImageName, radius, edgeMode));
   }
 
   // Multiplies the given kernel to all pixels of the image
   protected void applyColorTransformation(String imageName, String destImageName,
                                           double[][] kernel) {
-    this.addImage(this.getImage(imageName).applyColorTransformation(destImageName, kernel));
+    this.addImage(this.getPointOperationSource(imageName)
+            .applyColorTransformation(destImageName, kernel));
   }
 
   @Override
@@ -305,23 +461,33 @@ public class ProcessorModelImpl implements ProcessorModel {
     return this.getImage(imageName).getHistogram(func);
   }
 
+  // counts a single channel of the image and returns it as a map of (value, frequency) entries
+  protected Map<Integer, Integer> getHistogram(String imageName, HistogramChannel channel) {
+    return this.getImage(imageName).getHistogram(EnumSet.of(channel)).toMap(channel);
+  }
+
   @Override
   public Map<Integer, Integer> getRedHistogram(String imageName) {
-    return this.getHistogram(imageName, Pixel.getRedFunc());
+    return this.getHistogram(imageName, HistogramChannel.RED);
   }
 
   @Override
   public Map<Integer, Integer> getGreenHistogram(String imageName) {
-    return this.getHistogram(imageName, Pixel.getGreenFunc());
+    return this.getHistogram(imageName, HistogramChannel.GREEN);
   }
 
   @Override
   public Map<Integer, Integer> getBlueHistogram(String imageName) {
-    return this.getHistogram(imageName, Pixel.getBlueFunc());
+    return this.getHistogram(imageName, HistogramChannel.BLUE);
   }
 
   @Override
   public Map<Integer, Integer> getIntensityHistogram(String imageName) {
-    return this.getHistogram(imageName, Pixel.getIntensityFunc());
+    return this.getHistogram(imageName, HistogramChannel.INTENSITY);
+  }
+
+  @Override
+  public Histogram getHistogram(String imageName) {
+    return this.getImage(imageName).getHistogram(EnumSet.allOf(HistogramChannel.class));
   }
 }
@@ -0,0 +1,395 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Represents an implementation of the model.ImageModel interface which stores its pixels in a
+ * single packed raster. Each pixel takes one int in row-major order, with red in bits 16-23,
+ * green in bits 8-15 and blue in bits 0-7. It also contains the name of the image and the maximum
+ * RGB value of the image as its fields.
+ */
+public class RasterImageModel implements ImageModel {
+  private final int[] raster;
+  private final int width;
+  private final int height;
+  private final String name;
+  private final int maxRGBValue;
+  // the counted channels of this image, computed the first time they are asked for or derived
+  // from the image this one was made from; the raster never changes, so it never goes stale
+  private volatile Histogram histogram;
+
+  /**
+   * Constructs a RasterImageModel object. The given raster is copied.
+   * @param raster                      the packed RGB values of the image in row-major order
+   * @param width                       the width of the image in pixels
+   * @param height                      the height of the image in pixels
+   * @param name                        the name of the image
+   * @param maxRGBValue                 the maximum RGB value of the image
+   * @throws IllegalArgumentException   when max RGB value is invalid, name is empty, or the
+   *                                    raster does not hold width * height pixels
+   */
+  public RasterImageModel(int[] raster, int width, int height, String name, int maxRGBValue) {
+    this(raster, width, height, name, maxRGBValue, true);
+  }
+
+  // constructs an image that takes ownership of the raster when copyRaster is false, used by
+  // operations that have just built a raster nothing else refers to
+  RasterImageModel(int[] raster, int width, int height, String name, int maxRGBValue,
+                   boolean copyRaster) {
+    // check if name is valid
+    if (invalidName(name)) {
+      throw new IllegalArgumentException("error: empty name");
+    }
+
+    // check if maxRBGValue is valid
+    if (maxRGBValue < 0 || maxRGBValue > 255) {
+      throw new IllegalArgumentException("error: invalid maximum RBG value");
+    }
+
+    if (raster == null || width < 0 || height < 0 || raster.length != width * height) {
+      throw new IllegalArgumentException("error: raster does not match image dimensions");
+    }
+
+    this.raster = copyRaster ? raster.clone() : raster;
+    this.width = width;
+    this.height = height;
+    this.name = name;
+    this.maxRGBValue = maxRGBValue;
+  }
+
+  // returns true if given String is NOT a valid name
+  protected static boolean invalidName(String name) {
+    return name == null || name.strip().equals("");
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public int getWidth() {
+    return this.width;
+  }
+
+  @Override
+  public int getHeight() {
+    return this.height;
+  }
+
+  @Override
+  public int getMaxRGB() {
+    return this.maxRGBValue;
+  }
+
+  @Override
+  public List<List<Pixel>> getPixels() {
+    List<List<Pixel>> pixels = new ArrayList<>(this.height);
+    for (int row = 0; row < this.height; row++) {
+      List<Pixel> pixelRow = new ArrayList<>(this.width);
+      for (int col = 0; col < this.width; col++) {
+        pixelRow.add(Pixel.fromRGB(this.raster[row * this.width + col]));
+      }
+      pixels.add(pixelRow);
+    }
+    return pixels;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    this.checkRegion(row, col, 1, 1);
+    return this.raster[row * this.width + col];
+  }
+
+  @Override
+  public void getRGBRow(int row, int[] dest, int offset) {
+    this.getRGBRegion(row, 0, this.width, 1, dest, offset);
+  }
+
+  @Override
+  public void getRGBRegion(int startRow, int startCol, int regionWidth, int regionHeight,
+                           int[] dest, int offset) {
+    this.checkRegion(startRow, startCol, regionWidth, regionHeight);
+    if (regionWidth == this.width) {
+      // whole rows are contiguous in the raster
+      System.arraycopy(this.raster, startRow * this.width, dest, offset,
+              regionWidth * regionHeight);
+      return;
+    }
+
+    for (int row = 0; row < regionHeight; row++) {
+      System.arraycopy(this.raster, (startRow + row) * this.width + startCol,
+              dest, offset + row * regionWidth, regionWidth);
+    }
+  }
+
+  // throws an exception if the region is not entirely inside of the image
+  private void checkRegion(int startRow, int startCol, int regionWidth, int regionHeight) {
+    if (startRow < 0 || startCol < 0 || regionWidth < 0 || regionHeight < 0
+            || startRow + regionHeight > this.height || startCol + regionWidth > this.width) {
+      throw new IndexOutOfBoundsException("error: region outside of image");
+    }
+  }
+
+  @Override
+  public ImageModel getImageAllRed(String name) {
+    return this.changeAllPixels(name, PointOperation.redComponent());
+  }
+
+  @Override
+  public ImageModel getImageAllBlue(String name) {
+    return this.changeAllPixels(name, PointOperation.blueComponent());
+  }
+
+  @Override
+  public ImageModel getImageAllGreen(String name) {
+    return this.changeAllPixels(name, PointOperation.greenComponent());
+  }
+
+  @Override
+  public ImageModel getImageAllValue(String name) {
+    return this.changeAllPixels(name, PointOperation.valueComponent());
+  }
+
+  @Override
+  public ImageModel getImageAllIntensity(String name) {
+    return this.changeAllPixels(name, PointOperation.intensityComponent());
+  }
+
+  @Override
+  public ImageModel getImageAllLuma(String name) {
+    return this.changeAllPixels(name, PointOperation.lumaComponent());
+  }
+
+  @Override
+  public ImageModel getImageFlipHorizontal(String name) {
+    int[] flippedRaster = new int[this.raster.length];
+
+    // reverse the order of the pixels within each row
+    Parallelism.forEachStripe(this.height, this.width, (first, last) -> {
+      for (int row = first; row < last; row++) {
+        int rowStart = row * this.width;
+        int rowEnd = rowStart + this.width - 1;
+        for (int col = 0; col < this.width; col++) {
+          flippedRaster[rowEnd - col] = this.raster[rowStart + col];
+        }
+      }
+    });
+
+    return this.flipped(flippedRaster, name);
+  }
+
+  @Override
+  public ImageModel getImageFlipVertical(String name) {
+    int[] flippedRaster = new int[this.raster.length];
+
+    // reverse the order of the rows, copying each row whole
+    Parallelism.forEachStripe(this.height, this.width, (first, last) -> {
+      for (int row = first; row < last; row++) {
+        System.arraycopy(this.raster, row * this.width,
+                flippedRaster, (this.height - row - 1) * this.width, this.width);
+      }
+    });
+
+    return this.flipped(flippedRaster, name);
+  }
+
+  // returns an image of the flipped raster, which has the same counts as this image
+  private ImageModel flipped(int[] flippedRaster, String name) {
+    RasterImageModel flipped = new RasterImageModel(flippedRaster, this.width, this.height, name,
+            this.maxRGBValue, false);
+    flipped.histogram = this.histogram;
+    return flipped;
+  }
+
+  @Override
+  public ImageModel getImageAdjustBrightness(String name, int adjust) {
+    try {
+      return this.changeAllPixels(name,
+              PointOperation.adjustBrightness(adjust, this.maxRGBValue));
+    }
+    catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("error: invalid increment");
+    }
+  }
+
+  @Override
+  public ImageModel applyFilter(String name, double[][] kernel) {
+    return this.applyFilter(name, kernel, EdgeMode.ZERO);
+  }
+
+  @Override
+  public ImageModel applyFilter(String name, double[][] kernel, EdgeMode edgeMode) {
+    // return null if the kernel's width or height is not odd
+    if (kernel.length % 2 == 0 || kernel[0].length % 2 == 0) {
+      return null;
+    }
+
+    return this.convolve(name, Kernel.of(kernel), edgeMode);
+  }
+
+  @Override
+  public ImageModel applyFilter(String name, Kernel kernel, EdgeMode edgeMode) {
+    if (kernel == null) {
+      throw new IllegalArgumentException("error: given null kernel");
+    }
+    return this.convolve(name, kernel, edgeMode);
+  }
+
+  @Override
+  public ImageModel applySeparableFilter(String name, double[] vertical, double[] horizontal) {
+    return this.applySeparableFilter(name, vertical, horizontal, EdgeMode.ZERO);
+  }
+
+  @Override
+  public ImageModel applySeparableFilter(String name, double[] vertical, double[] horizontal,
+                                         EdgeMode edgeMode) {
+    return this.convolve(name, Kernel.separable(vertical, horizontal), edgeMode);
+  }
+
+  // applies the kernel to every pixel and sets to model.ImageModel with new name
+  protected ImageModel convolve(String name, Kernel kernel, EdgeMode edgeMode) {
+    if (invalidName(name)) {
+      throw new IllegalArgumentException("error: empty name");
+    }
+
+    if (edgeMode == null) {
+      throw new IllegalArgumentException("error: given null edge mode");
+    }
+
+    int[] filteredRaster = Convolution.apply(this.raster, this.width, this.height, kernel,
+            edgeMode, this.maxRGBValue);
+    return new RasterImageModel(filteredRaster, this.width, this.height, name,
+            this.maxRGBValue, false);
+  }
+
+  @Override
+  public ImageModel applyBoxBlur(String name, int radius, EdgeMode edgeMode) {
+    if (radius < 0) {
+      throw new IllegalArgumentException("error: radius must not be negative");
+    }
+    if (radius > BoxFilter.MAX_RADIUS) {
+      throw new IllegalArgumentException("error: radius is too large");
+    }
+    return this.boxBlur(name, new int[]{radius}, edgeMode);
+  }
+
+  @Override
+  public ImageModel applyGaussianBlur(String name, double sigma, EdgeMode edgeMode) {
+    if (!(sigma > 0)) {
+      throw new IllegalArgumentException("error: sigma must be greater than 0");
+    }
+    if (sigma > BoxFilter.MAX_SIGMA) {
+      throw new IllegalArgumentException("error: sigma is too large");
+    }
+    return this.boxBlur(name, BoxFilter.gaussianRadii(sigma), edgeMode);
+  }
+
+  @Override
+  public ImageModel applyMedianFilter(String name, int radius, EdgeMode edgeMode) {
+    if (radius < 0) {
+      throw new IllegalArgumentException("error: radius must not be negative");
+    }
+    if (radius > MedianFilter.MAX_RADIUS) {
+      throw new IllegalArgumentException("error: radius is too large");
+    }
+    if (invalidName(name)) {
+      throw new IllegalArgumentException("error: empty name");
+    }
+
+    if (edgeMode == null) {
+      throw new IllegalArgumentException("error: given null edge mode");
+    }
+
+    int[] filteredRaster = MedianFilter.apply(this.raster, this.width, this.height, radius,
+            edgeMode);
+    return new RasterImageModel(filteredRaster, this.width, this.height, name,
+            this.maxRGBValue, false);
+  }
+
+  // applies box blurs of the given radii one after the other and sets to model.ImageModel with
+  // new name
+  protected ImageModel boxBlur(String name, int[] radii, EdgeMode edgeMode) {
+    if (invalidName(name)) {
+      throw new IllegalArgumentException("error: empty name");
+    }
+
+    if (edgeMode == null) {
+      throw new IllegalArgumentException("error: given null edge mode");
+    }
+
+    int[] blurredRaster = BoxFilter.apply(this.raster, this.width, this.height, radii, edgeMode);
+    return new RasterImageModel(blurredRaster, this.width, this.height, name,
+            this.maxRGBValue, false);
+  }
+
+  @Override
+  public ImageModel applyPointOperation(String name, PointOperation operation) {
+    return this.changeAllPixels(name, operation);
+  }
+
+  @Override
+  public ImageModel applyColorTransformation(String name, double[][] kernel) {
+    if (invalidName(name)) {
+      throw new IllegalArgumentException("error: empty name");
+    }
+
+    try {
+      return this.changeAllPixels(name,
+              PointOperation.colorTransformation(kernel));
+    }
+    catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("error: provided invalid kernel");
+    }
+  }
+
+  @Override
+  public Map<Integer, Integer> getHistogram(Function<Pixel, Integer> func) {
+    Map<Integer, Integer> histogram = new HashMap<Integer, Integer>();
+    for (int rgb : this.raster) {
+      histogram.merge(func.apply(Pixel.fromRGB(rgb)), 1, Integer::sum);
+    }
+    return histogram;
+  }
+
+  @Override
+  public Histogram getHistogram(Set<HistogramChannel> channels) {
+    if (channels == null) {
+      throw new IllegalArgumentException("error: given null channels");
+    }
+
+    Histogram counted = this.histogram;
+    if (counted == null || !counted.hasChannels(channels)) {
+      // count every channel at once, since the GUI asks for all of them anyway
+      counted = Histogram.of(this.raster, EnumSet.allOf(HistogramChannel.class));
+      this.histogram = counted;
+    }
+    return counted.select(channels);
+  }
+
+  // applies the point operation to every pixel in one pass and sets to model.ImageModel with
+  // new name
+  protected ImageModel changeAllPixels(String name, PointOperation operation) {
+    if (invalidName(name)) {
+      throw new IllegalArgumentException("error: empty name");
+    }
+
+    int[] newRaster = new int[this.raster.length];
+    Parallelism.forEachStripe(this.height, this.width, (first, last) ->
+            operation.applyAll(this.raster, newRaster, first * this.width, last * this.width));
+
+    RasterImageModel result = new RasterImageModel(newRaster, this.width, this.height, name,
+            this.maxRGBValue, false);
+    Histogram counted = this.histogram;
+    if (counted != null && operation instanceof LookupTable) {
+      result.histogram = ((LookupTable) operation).remap(counted);
+    }
+    return result;
+  }
+}
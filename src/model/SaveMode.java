@@ -0,0 +1,39 @@
+package model;
+
+/**
+ * Represents when the saves of a processor are written to their files, and in what order.
+ */
+public enum SaveMode {
+  /**
+   * Each save is written before it returns, and any error is thrown by the save.
+   */
+  SYNCHRONOUS,
+
+  /**
+   * Saves return at once and are written one at a time on a background thread in the order they
+   * were made, so files are written in the same order as with synchronous saves.
+   */
+  ORDERED,
+
+  /**
+   * Saves return at once and are written at the same time on background threads, except that
+   * saves to the same file are written in the order they were made.
+   */
+  CONCURRENT;
+
+  /**
+   * Returns the save mode with the given name, ignoring case.
+   *
+   * @param name                        the name of the save mode
+   * @return                            the save mode with that name
+   * @throws IllegalArgumentException   if no save mode has that name
+   */
+  public static SaveMode fromName(String name) {
+    for (SaveMode mode : values()) {
+      if (mode.name().equalsIgnoreCase(name)) {
+        return mode;
+      }
+    }
+    throw new IllegalArgumentException("error: unknown save mode " + name);
+  }
+}
@@ -0,0 +1,150 @@
+package model;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the saves of one processor according to its SaveMode. Writes that have not finished are
+ * kept in the order they were made, so that flush() can wait for all of them and report their
+ * errors in that order, and by file, so that reading a file can first wait for the writes to it.
+ *
+ * <p>The writer threads stop once they have been idle for a second, and are not daemon threads,
+ * so the program does not exit before every save is written even if flush() is never called.
+ */
+final class SaveQueue {
+  // how long an idle writer thread waits for another save before it stops
+  private static final long IDLE_SECONDS = 1;
+  private final SaveMode mode;
+  // the writer threads, made when the first save is queued
+  private ThreadPoolExecutor writers;
+  // every write not yet waited for by flush(), in the order it was made
+  private final List<CompletableFuture<Void>> pending;
+  // the last write to each file not yet waited for by flush()
+  private final Map<Path, CompletableFuture<Void>> lastWriteTo;
+
+  /**
+   * Creates a queue that writes saves in the given mode.
+   *
+   * @param mode    when and in what order saves are written
+   */
+  SaveQueue(SaveMode mode) {
+    this.mode = mode;
+    this.pending = new ArrayList<>();
+    this.lastWriteTo = new HashMap<>();
+  }
+
+  /**
+   * Writes a file, either now or on a writer thread after every earlier write to the same file,
+   * and in ORDERED mode after every earlier write.
+   *
+   * @param filePath    the path of the file that is written
+   * @param write       writes the file, throwing an exception if it fails
+   */
+  void submit(String filePath, Runnable write) {
+    if (this.mode == SaveMode.SYNCHRONOUS) {
+      write.run();
+      return;
+    }
+
+    Path path = key(filePath);
+    synchronized (this) {
+      if (this.writers == null) {
+        int threads = this.mode == SaveMode.ORDERED
+                ? 1 : Runtime.getRuntime().availableProcessors();
+        this.writers = new ThreadPoolExecutor(threads, threads, IDLE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> new Thread(runnable, "processor-save"));
+        this.writers.allowCoreThreadTimeOut(true);
+      }
+
+      // the one writer of ORDERED mode takes writes in the order they were made, so only
+      // CONCURRENT writes to the same file are chained; a failed write to the same file is
+      // reported by flush(), and does not stop the next one
+      CompletableFuture<Void> previous = this.mode == SaveMode.ORDERED
+              ? null : this.lastWriteTo.get(path);
+      CompletableFuture<Void> next = previous == null
+              ? CompletableFuture.runAsync(write, this.writers)
+              : previous.handle((ignored, error) -> null).thenRunAsync(write, this.writers);
+      this.lastWriteTo.put(path, next);
+      this.pending.add(next);
+    }
+  }
+
+  /**
+   * Waits until every write to the given file that was submitted before has finished. Errors
+   * are left for flush() to report.
+   *
+   * @param filePath    the path of the file about to be read
+   */
+  void awaitFile(String filePath) {
+    CompletableFuture<Void> last;
+    synchronized (this) {
+      if (this.lastWriteTo.isEmpty()) {
+        return;
+      }
+      last = this.lastWriteTo.get(key(filePath));
+    }
+    if (last != null) {
+      try {
+        last.join();
+      }
+      catch (CompletionException | CancellationException e) {
+        // reported by flush()
+      }
+    }
+  }
+
+  /**
+   * Waits until every write submitted before has finished, then throws the error of the first
+   * one that failed, with the errors of the others that failed suppressed in it.
+   *
+   * @throws RuntimeException   the error of the first write that failed
+   */
+  void flush() {
+    List<CompletableFuture<Void>> writes;
+    synchronized (this) {
+      writes = new ArrayList<>(this.pending);
+    }
+
+    RuntimeException first = null;
+    for (CompletableFuture<Void> write : writes) {
+      try {
+        write.join();
+      }
+      catch (CompletionException | CancellationException e) {
+        Throwable cause = e.getCause() == null ? e : e.getCause();
+        RuntimeException error = cause instanceof RuntimeException
+                ? (RuntimeException) cause : new IllegalStateException(cause);
+        if (first == null) {
+          first = error;
+        }
+        else {
+          first.addSuppressed(error);
+        }
+      }
+    }
+
+    synchronized (this) {
+      // writes submitted while waiting are left for the next flush
+      this.pending.removeAll(writes);
+      this.lastWriteTo.values().removeIf(CompletableFuture::isDone);
+    }
+    if (first != null) {
+      throw first;
+    }
+  }
+
+  // returns the same key for every path to a file
+  private static Path key(String filePath) {
+    return Paths.get(filePath).toAbsolutePath().normalize();
+  }
+}
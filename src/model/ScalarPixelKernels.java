@@ -0,0 +1,70 @@
+package model;
+
+/**
+ * Implements the innermost loops of filters and point operations with plain Java loops, which
+ * run on any JVM and are what every other implementation is checked against.
+ */
+final class ScalarPixelKernels implements PixelKernels {
+  @Override
+  public String name() {
+    return "scalar";
+  }
+
+  @Override
+  public void multiplyAdd(double weight, int[] source, int sourceStart, double[] sums,
+                          int sumsStart, int length) {
+    for (int index = 0; index < length; index++) {
+      sums[sumsStart + index] += weight * source[sourceStart + index];
+    }
+  }
+
+  @Override
+  public void multiplyAdd(int weight, int[] source, int sourceStart, int[] sums, int sumsStart,
+                          int length) {
+    for (int index = 0; index < length; index++) {
+      sums[sumsStart + index] += weight * source[sourceStart + index];
+    }
+  }
+
+  @Override
+  public void multiplyAddPairs(int weight, int[] source, int firstStart, int secondStart,
+                               int[] sums, int sumsStart, int length) {
+    for (int index = 0; index < length; index++) {
+      sums[sumsStart + index] += weight * (source[firstStart + index]
+              + source[secondStart + index]);
+    }
+  }
+
+  @Override
+  public void colorTransform(double[] matrix, double[] offset, int[] source, int[] dest,
+                             int start, int end) {
+    for (int index = start; index < end; index++) {
+      int rgb = source[index];
+      int red = (rgb >> 16) & 0xFF;
+      int green = (rgb >> 8) & 0xFF;
+      int blue = rgb & 0xFF;
+      dest[index] = (clamp(matrix[0] * red + matrix[1] * green + matrix[2] * blue + offset[0])
+              << 16)
+              | (clamp(matrix[3] * red + matrix[4] * green + matrix[5] * blue + offset[1]) << 8)
+              | clamp(matrix[6] * red + matrix[7] * green + matrix[8] * blue + offset[2]);
+    }
+  }
+
+  // rounds a result down and keeps it between 0 and 255; truncating gives the same result as
+  // rounding down for everything that is not clamped to 0
+  private static int clamp(double value) {
+    return Math.min(Math.max((int) value, 0), 255);
+  }
+
+  @Override
+  public void lookup(int[] redTable, int[] greenTable, int[] blueTable, int redShift,
+                     int greenShift, int blueShift, int[] source, int[] dest, int start,
+                     int end) {
+    for (int index = start; index < end; index++) {
+      int rgb = source[index];
+      dest[index] = (redTable[(rgb >> redShift) & 0xFF] << 16)
+              | (greenTable[(rgb >> greenShift) & 0xFF] << 8)
+              | blueTable[(rgb >> blueShift) & 0xFF];
+    }
+  }
+}
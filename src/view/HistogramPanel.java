@@ -13,6 +13,9 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import model.Histogram;
+import model.HistogramChannel;
+
 /**
  * Draws the GUI component that represents the red, green, blue, and intensity value histograms
  * for an image in image processor.
@@ -60,6 +63,22 @@ public class HistogramPanel extends JPanel {
     intensityCoords = histogramToCoordinates(intensityHistogram);
   }
 
+  /**
+   * Constructs a HistogramPanel object from the histograms of an image counted in one pass.
+   * @param histogram                   the red, green, blue and intensity histograms of an image
+   * @throws IllegalArgumentException   if histogram is null or does not count every channel
+   */
+  public HistogramPanel(Histogram histogram) {
+    if (histogram == null || histogram.getChannels().size() != HistogramChannel.values().length) {
+      throw new IllegalArgumentException("Error: passed null or incomplete histogram");
+    }
+
+    redCoords = histogramToCoordinates(histogram.getBins(HistogramChannel.RED));
+    greenCoords = histogramToCoordinates(histogram.getBins(HistogramChannel.GREEN));
+    blueCoords = histogramToCoordinates(histogram.getBins(HistogramChannel.BLUE));
+    intensityCoords = histogramToCoordinates(histogram.getBins(HistogramChannel.INTENSITY));
+  }
+
   // returns the scaled width between each point
   private double getWidthPerSegment() {
     return ((double) getWidth() - 2 * PADDING) / (MAX_VALUE - 1);
@@ -87,6 +106,21 @@ public class HistogramPanel extends JPanel {
     return points;
   }
 
+  // converts the 256 bins of a histogram to the same coordinates, skipping values that do not
+  // appear in the image
+  private static List<int[]> histogramToCoordinates(int[] bins) {
+    List<int[]> points = new ArrayList<>();
+
+    for (int colorValue = 0; colorValue <= 255; colorValue++) {
+      if (bins[colorValue] != 0) {
+        int[] point = {colorValue, bins[colorValue]};
+        points.add(point);
+      }
+    }
+
+    return points;
+  }
+
   @Override
   protected void paintComponent(Graphics g) {
     super.paintComponent(g);
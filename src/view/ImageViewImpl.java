@@ -1,10 +1,10 @@
 package view;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
 
 import javax.imageio.ImageIO;
 
@@ -56,12 +56,14 @@ public class ImageViewImpl implements ImageView {
             + model.getMaxRGB() + "\n";
     ppmAsString.append(header);
 
-    List<List<Pixel>> modelPixels = this.model.getPixels();
-    for (List<Pixel> pixelRow : modelPixels) {
-      for (Pixel pixel : pixelRow) {
-        ppmAsString.append(pixel.getRed() + "\n"
-                + pixel.getGreen() + "\n"
-                + pixel.getBlue() + "\n");
+    // read the image one row at a time into a reused buffer
+    int[] pixelRow = new int[this.model.getWidth()];
+    for (int row = 0; row < this.model.getHeight(); row++) {
+      this.model.getRGBRow(row, pixelRow, 0);
+      for (int rgb : pixelRow) {
+        ppmAsString.append(Pixel.redOf(rgb)).append('\n')
+                .append(Pixel.greenOf(rgb)).append('\n')
+                .append(Pixel.blueOf(rgb)).append('\n');
       }
     }
 
@@ -78,23 +80,14 @@ public class ImageViewImpl implements ImageView {
     ImageIO.write(bufferedImage, fileType, new File(filePath));
   }
 
-  // Converts a two-dimensional list of pixels to a buffered image
+  // Converts the image's raster to a buffered image
   private BufferedImage convertPixelsToBufferedImage() {
     int width = this.model.getWidth();
     int height = this.model.getHeight();
-    // constructing a new buffered image to modify with the correct rgb values
+    // constructing a new buffered image and copying the raster straight into its pixel buffer
     BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-    // converting rgb values to int values
-    List<List<Pixel>> modelPixels = this.model.getPixels();
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        Pixel currPixel = modelPixels.get(i).get(j);
-        int rgbVal = currPixel.getRed();
-        rgbVal = (rgbVal << 8) + currPixel.getGreen();
-        rgbVal = (rgbVal << 8) + currPixel.getBlue();
-        bufferedImage.setRGB(j, i, rgbVal);
-      }
-    }
+    int[] imageData = ((DataBufferInt) bufferedImage.getRaster().getDataBuffer()).getData();
+    this.model.getRGBRegion(0, 0, width, height, imageData, 0);
     return bufferedImage;
   }
-}
\ No newline at end of file
+}
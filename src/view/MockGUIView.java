@@ -75,6 +75,42 @@ public class MockGUIView implements ProcessorGUIView {
     throw new IllegalArgumentException("Using mock view");
   }
 
+  @Override
+  public int getBoxBlurRadius() {
+    try {
+      this.out.append("Called getBoxBlurRadius\n");
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Error: mock view failed to log message");
+    }
+
+    throw new IllegalArgumentException("Using mock view");
+  }
+
+  @Override
+  public int getMedianRadius() {
+    try {
+      this.out.append("Called getMedianRadius\n");
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Error: mock view failed to log message");
+    }
+
+    throw new IllegalArgumentException("Using mock view");
+  }
+
+  @Override
+  public double getGaussianSigma() {
+    try {
+      this.out.append("Called getGaussianSigma\n");
+    }
+    catch (IOException e) {
+      throw new IllegalStateException("Error: mock view failed to log message");
+    }
+
+    throw new IllegalArgumentException("Using mock view");
+  }
+
   @Override
   public String getPathToOpen() {
     try {
@@ -87,6 +123,18 @@ public class MockGUIView implements ProcessorGUIView {
     return null;
   }
 
+  @Override
+  public String getKernelPath() {
+    try {
+      this.out.append("Called getKernelPath\n");
+    }
+    catch (IOException e) {
+      throw new IllegalArgumentException("Error: mock view failed to log message");
+    }
+
+    return null;
+  }
+
   @Override
   public String getPathToSave() {
     try {
@@ -38,6 +38,34 @@ public interface ProcessorGUIView {
    */
   int getBrightenIncrement();
 
+  /**
+   * Gets the radius for box blurring the image present in the image processor GUI from the
+   * JOptionPane.
+   * @return  the radius of the box, or -1 if no valid radius was entered
+   */
+  int getBoxBlurRadius();
+
+  /**
+   * Gets the radius for median filtering the image present in the image processor GUI from the
+   * JOptionPane.
+   * @return  the radius of the square, or -1 if no valid radius was entered
+   */
+  int getMedianRadius();
+
+  /**
+   * Gets the standard deviation for Gaussian blurring the image present in the image processor
+   * GUI from the JOptionPane.
+   * @return  the standard deviation of the Gaussian, or 0 if no valid number was entered
+   */
+  double getGaussianSigma();
+
+  /**
+   * When filtering the image present with a custom kernel, retrieves the file path of the kernel
+   * requested by the user.
+   * @return    the file path of the kernel, or null if no file was chosen
+   */
+  String getKernelPath();
+
   /**
    * When trying to open an image, retrieves the file path of the image requested to be opened by
    * the user.
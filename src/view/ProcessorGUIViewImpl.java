@@ -5,8 +5,6 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.io.File;
 
-import java.util.Map;
-
 import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.JPanel;
 import javax.swing.JFrame;
@@ -21,6 +19,7 @@ import javax.swing.JScrollPane;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 
+import model.Histogram;
 import model.ProcessorModel;
 
 /**
@@ -158,11 +157,29 @@ public class ProcessorGUIViewImpl extends JFrame implements ProcessorGUIView {
     this.setMenuItemAction(blurItem, actionListener);
     filterMenu.add(blurItem);
 
+    // creating the box blur and gaussian blur options, which ask for their strength
+    JMenuItem boxBlurItem = new JMenuItem("Box Blur");
+    JMenuItem gaussianBlurItem = new JMenuItem("Gaussian Blur");
+    this.setMenuItemAction(boxBlurItem, actionListener);
+    this.setMenuItemAction(gaussianBlurItem, actionListener);
+    filterMenu.add(boxBlurItem);
+    filterMenu.add(gaussianBlurItem);
+
     // creating the greyscale option
     JMenuItem sharpenItem = new JMenuItem("Sharpen");
     this.setMenuItemAction(sharpenItem, actionListener);
     filterMenu.add(sharpenItem);
 
+    // creating the median option, which removes noise and asks for the size of the square
+    JMenuItem medianItem = new JMenuItem("Median");
+    this.setMenuItemAction(medianItem, actionListener);
+    filterMenu.add(medianItem);
+
+    // creating the custom filter option, which asks for a kernel file
+    JMenuItem customFilterItem = new JMenuItem("Custom Filter");
+    this.setMenuItemAction(customFilterItem, actionListener);
+    filterMenu.add(customFilterItem);
+
     // creating the greyscale option
     JMenuItem greyscaleItem = new JMenuItem("Greyscale");
     this.setMenuItemAction(greyscaleItem, actionListener);
@@ -187,17 +204,13 @@ public class ProcessorGUIViewImpl extends JFrame implements ProcessorGUIView {
   @Override
   public void updateImage(String imageName) {
     // create histogram panel
-    Map<Integer, Integer> redHistogram = this.model.getRedHistogram(imageName);
-    Map<Integer, Integer> greenHistogram = this.model.getGreenHistogram(imageName);
-    Map<Integer, Integer> blueHistogram = this.model.getBlueHistogram(imageName);
-    Map<Integer, Integer> intensityHistogram = this.model.getIntensityHistogram(imageName);
+    Histogram histogram = this.model.getHistogram(imageName);
 
     // remove previous histogram from the display
     this.remove(histogramPanel);
 
     // reset histogram to new values
-    this.histogramPanel = new HistogramPanel(redHistogram, greenHistogram, blueHistogram,
-            intensityHistogram);
+    this.histogramPanel = new HistogramPanel(histogram);
     this.histogramPanel.setPreferredSize(new Dimension((int) (0.4 * FRAME_WIDTH),
             (int) (0.4 * FRAME_HEIGHT)));
 
@@ -238,6 +251,24 @@ public class ProcessorGUIViewImpl extends JFrame implements ProcessorGUIView {
     }
   }
 
+  @Override
+  public String getKernelPath() {
+    // open the file selection GUI at the path of this program
+    final JFileChooser fileChooser = new JFileChooser(".");
+
+    // only allow text files of weights
+    fileChooser.setFileFilter(new FileNameExtensionFilter("Kernel Text Files", "txt"));
+
+    int retvalue = fileChooser.showOpenDialog(this);
+    if (retvalue == JFileChooser.APPROVE_OPTION) {
+      // return file path of selected file
+      return fileChooser.getSelectedFile().getAbsolutePath();
+    }
+    else {
+      return null;
+    }
+  }
+
   @Override
   public String getPathToSave() {
     // open the file selection GUI at the path of this program
@@ -273,6 +304,63 @@ public class ProcessorGUIViewImpl extends JFrame implements ProcessorGUIView {
     return incrValue;
   }
 
+  @Override
+  public int getBoxBlurRadius() {
+    // show popup that allows user to input the radius of the box
+    String input = JOptionPane.showInputDialog("Radius in pixels\nThe box is twice the radius"
+            + " plus one pixels wide");
+
+    int radius = -1;
+    // read key input, if not valid, display error message
+    try {
+      radius = Integer.parseInt(input);
+    }
+    catch (NumberFormatException e) {
+      JOptionPane.showMessageDialog(null,
+              "Error: Did not enter a valid number");
+    }
+    this.refresh();
+    return radius;
+  }
+
+  @Override
+  public int getMedianRadius() {
+    // show popup that allows user to input the radius of the square
+    String input = JOptionPane.showInputDialog("Radius in pixels\nEach pixel becomes the median"
+            + " of the square twice the radius plus one pixels wide around it");
+
+    int radius = -1;
+    // read key input, if not valid, display error message
+    try {
+      radius = Integer.parseInt(input);
+    }
+    catch (NumberFormatException e) {
+      JOptionPane.showMessageDialog(null,
+              "Error: Did not enter a valid number");
+    }
+    this.refresh();
+    return radius;
+  }
+
+  @Override
+  public double getGaussianSigma() {
+    // show popup that allows user to input the standard deviation of the gaussian
+    String input = JOptionPane.showInputDialog("Standard deviation in pixels\nLarger values"
+            + " blur more");
+
+    double sigma = 0;
+    // read key input, if not valid, display error message
+    try {
+      sigma = Double.parseDouble(input);
+    }
+    catch (NumberFormatException | NullPointerException e) {
+      JOptionPane.showMessageDialog(null,
+              "Error: Did not enter a valid number");
+    }
+    this.refresh();
+    return sigma;
+  }
+
   @Override
   public void displaySaveError() {
     JOptionPane.showMessageDialog(null,
@@ -0,0 +1,137 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import model.EdgeMode;
+import model.ImageModel;
+import model.Pixel;
+import model.RasterImageModel;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the box and Gaussian blurs of model.RasterImageModel.
+ */
+public class BoxFilterTest {
+  private static final int WIDTH = FilterTestImages.WIDTH;
+  private static final int HEIGHT = FilterTestImages.HEIGHT;
+  private int[] raster;
+  private ImageModel image;
+
+  @Before
+  public void init() {
+    this.raster = FilterTestImages.randomRaster(WIDTH * HEIGHT, 11);
+    this.image = new RasterImageModel(this.raster, WIDTH, HEIGHT, "image", 255);
+  }
+
+  // averages the square of pixels around a pixel one at a time, rounding to the nearest integer
+  private int expectedPixel(int radius, EdgeMode edgeMode, int row, int col) {
+    int[] neighbors = FilterTestImages.neighborhood(this.raster, WIDTH, HEIGHT, radius, edgeMode,
+            row, col);
+    int[] sums = new int[3];
+    for (int neighbor : neighbors) {
+      sums[0] += Pixel.redOf(neighbor);
+      sums[1] += Pixel.greenOf(neighbor);
+      sums[2] += Pixel.blueOf(neighbor);
+    }
+    int area = neighbors.length;
+    return Pixel.pack((sums[0] + area / 2) / area, (sums[1] + area / 2) / area,
+            (sums[2] + area / 2) / area);
+  }
+
+  @Test
+  public void testBoxBlurMatchesMean() {
+    // a radius of 30 reaches past every edge of the image
+    for (EdgeMode edgeMode : EdgeMode.values()) {
+      for (int radius : new int[]{0, 1, 4, 30}) {
+        int[] actual = FilterTestImages.rasterOf(this.image.applyBoxBlur("blurred", radius,
+                edgeMode));
+        for (int row = 0; row < HEIGHT; row++) {
+          for (int col = 0; col < WIDTH; col++) {
+            assertEquals(this.expectedPixel(radius, edgeMode, row, col),
+                    actual[row * WIDTH + col]);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testGaussianBlurIsThreeBoxBlurs() {
+    // a deviation of 2 is closest to boxes 3, 3 and 5 pixels wide
+    for (EdgeMode edgeMode : EdgeMode.values()) {
+      ImageModel boxes = this.image.applyBoxBlur("first", 1, edgeMode)
+              .applyBoxBlur("second", 1, edgeMode)
+              .applyBoxBlur("third", 2, edgeMode);
+      ImageModel gaussian = this.image.applyGaussianBlur("gaussian", 2, edgeMode);
+      assertEquals(Arrays.toString(FilterTestImages.rasterOf(boxes)),
+              Arrays.toString(FilterTestImages.rasterOf(gaussian)));
+      assertEquals("gaussian", gaussian.getName());
+    }
+  }
+
+  @Test
+  public void testGaussianBlurKeepsFlatImages() {
+    int[] flat = new int[WIDTH * HEIGHT];
+    Arrays.fill(flat, Pixel.pack(10, 128, 250));
+    ImageModel flatImage = new RasterImageModel(flat, WIDTH, HEIGHT, "flat", 255);
+    for (EdgeMode edgeMode : new EdgeMode[]{EdgeMode.CLAMP, EdgeMode.MIRROR, EdgeMode.WRAP}) {
+      assertEquals(Arrays.toString(flat),
+              Arrays.toString(FilterTestImages.rasterOf(
+                      flatImage.applyGaussianBlur("blurred", 9.5, edgeMode))));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeRadius() {
+    this.image.applyBoxBlur("blurred", -1, EdgeMode.ZERO);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRadiusTooLarge() {
+    this.image.applyBoxBlur("blurred", Integer.MAX_VALUE / 2, EdgeMode.ZERO);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRadiusJustTooLarge() {
+    this.image.applyBoxBlur("blurred", 23170, EdgeMode.CLAMP);
+  }
+
+  @Test
+  public void testLargestRadiusAndSigma() {
+    int[] flat = new int[WIDTH * HEIGHT];
+    Arrays.fill(flat, Pixel.pack(10, 128, 250));
+    ImageModel flatImage = new RasterImageModel(flat, WIDTH, HEIGHT, "flat", 255);
+    assertEquals(Arrays.toString(flat),
+            Arrays.toString(FilterTestImages.rasterOf(
+                    flatImage.applyBoxBlur("blurred", 23169, EdgeMode.WRAP))));
+    assertEquals(Arrays.toString(flat), Arrays.toString(FilterTestImages.rasterOf(
+            flatImage.applyGaussianBlur("blurred", 23168, EdgeMode.CLAMP))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSigmaTooLarge() {
+    this.image.applyGaussianBlur("blurred", 1e9, EdgeMode.ZERO);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInfiniteSigma() {
+    this.image.applyGaussianBlur("blurred", Double.POSITIVE_INFINITY, EdgeMode.MIRROR);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSigma() {
+    this.image.applyGaussianBlur("blurred", Double.NaN, EdgeMode.ZERO);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullEdgeMode() {
+    this.image.applyGaussianBlur("blurred", 1, null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyName() {
+    this.image.applyBoxBlur("", 1, EdgeMode.ZERO);
+  }
+}
@@ -0,0 +1,90 @@
+import org.junit.Test;
+
+import model.ColorComposition;
+import model.ColorTransformation;
+import model.ImageModel;
+import model.Pixel;
+import model.ProcessorModel;
+import model.ProcessorModelImpl;
+import model.RasterImageModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the model.ColorTransformation class and composing color transformations.
+ */
+public class ColorTransformationTest {
+  private final double[][] sepia = {{0.393, 0.769, 0.189},
+      {0.349, 0.686, 0.168},
+      {0.272, 0.534, 0.131}};
+  private final double[][] luma = {{0.2126, 0.7152, 0.0722},
+      {0.2126, 0.7152, 0.0722},
+      {0.2126, 0.7152, 0.0722}};
+
+  @Test
+  public void testApplyMatchesPixel() {
+    Pixel pixel = new Pixel(124, 32, 76);
+    assertEquals(pixel.applyColorTransformation(sepia).apply(pixel).getRGB(),
+            ColorTransformation.of(sepia).apply(pixel.getRGB()));
+  }
+
+  @Test
+  public void testOffsetAndBrightness() {
+    assertEquals(Pixel.pack(255, 50, 50), ColorTransformation.brightness(50)
+            .apply(Pixel.pack(220, 0, 0)));
+    ColorTransformation shifted = ColorTransformation.of(
+            new double[][]{{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}, new double[]{-10, 0.5, 10});
+    assertEquals(Pixel.pack(0, 20, 30), shifted.apply(Pixel.pack(5, 20, 20)));
+  }
+
+  @Test
+  public void testComposeWithoutRounding() {
+    ColorTransformation half = ColorTransformation.of(
+            new double[][]{{0.5, 0, 0}, {0, 0.5, 0}, {0, 0, 0.5}});
+    ColorTransformation composed = half.compose(half).compose(ColorTransformation.brightness(1));
+    // stepwise would round 1.5 down to 1 and then 0.5 down to 0
+    assertEquals(Pixel.pack(1, 1, 1), composed.apply(Pixel.pack(3, 3, 3)));
+    assertEquals(Pixel.pack(1, 1, 1), half.andThen(half).andThen(ColorTransformation.brightness(1))
+            .apply(Pixel.pack(3, 3, 3)));
+  }
+
+  @Test
+  public void testStaysInRange() {
+    assertTrue(ColorTransformation.of(luma).staysInRange());
+    assertTrue(!ColorTransformation.of(sepia).staysInRange());
+    assertTrue(!ColorTransformation.brightness(1).staysInRange());
+    assertTrue(ColorTransformation.brightness(0).staysInRange());
+  }
+
+  @Test
+  public void testProcessorCompositions() {
+    int[] raster = new int[64];
+    for (int index = 0; index < raster.length; index++) {
+      raster[index] = Pixel.pack(index * 4, 255 - index * 3, (index * 37) % 256);
+    }
+    ImageModel image = new RasterImageModel(raster, 8, 8, "image", 255);
+
+    ProcessorModel eager = new ProcessorModelImpl();
+    ProcessorModel stepwise = new ProcessorModelImpl(true, ColorComposition.STEPWISE);
+    ProcessorModel exact = new ProcessorModelImpl(true, ColorComposition.EXACT_CLAMPING);
+    ProcessorModel algebraic = new ProcessorModelImpl(true, ColorComposition.ALGEBRAIC);
+    for (ProcessorModel processor : new ProcessorModel[]{eager, stepwise, exact, algebraic}) {
+      processor.addImage(image);
+      processor.greyscale("image", "grey");
+      processor.sepia("grey", "sepia");
+    }
+
+    for (int row = 0; row < 8; row++) {
+      for (int col = 0; col < 8; col++) {
+        int expected = eager.getImage("sepia").getRGB(row, col);
+        assertEquals(expected, stepwise.getImage("sepia").getRGB(row, col));
+        // greyscale never clamps, so composing it only skips rounding
+        assertTrue(Math.abs(Pixel.blueOf(expected)
+                - Pixel.blueOf(exact.getImage("sepia").getRGB(row, col))) <= 1);
+        assertEquals(exact.getImage("sepia").getRGB(row, col),
+                algebraic.getImage("sepia").getRGB(row, col));
+      }
+    }
+  }
+}
@@ -0,0 +1,100 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import model.DeferredImageModel;
+import model.ImageModel;
+import model.Pixel;
+import model.ProcessorModel;
+import model.ProcessorModelImpl;
+import model.RasterImageModel;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the model.DeferredImageModel class and deferred point operations in the processor.
+ */
+public class DeferredImageModelTest {
+  private ImageModel image;
+
+  @Before
+  public void setUp() {
+    int[] raster = {
+        Pixel.pack(228, 243, 52), Pixel.pack(56, 135, 32), Pixel.pack(252, 154, 142),
+        Pixel.pack(207, 191, 127), Pixel.pack(81, 163, 148), Pixel.pack(66, 94, 1)};
+    this.image = new RasterImageModel(raster, 3, 2, "image", 240);
+  }
+
+  // checks that two images have the same size and pixels
+  private void assertSameImage(ImageModel expected, ImageModel actual) {
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getHeight(), actual.getHeight());
+    assertEquals(expected.getMaxRGB(), actual.getMaxRGB());
+    for (int row = 0; row < expected.getHeight(); row++) {
+      for (int col = 0; col < expected.getWidth(); col++) {
+        assertEquals(expected.getRGB(row, col), actual.getRGB(row, col));
+      }
+    }
+  }
+
+  @Test
+  public void testFusedChainMatchesEager() {
+    double[][] sepia = {{0.393, 0.769, 0.189},
+        {0.349, 0.686, 0.168},
+        {0.272, 0.534, 0.131}};
+    ImageModel eager = this.image.getImageAdjustBrightness("a", 30)
+            .applyColorTransformation("b", sepia)
+            .getImageAllGreen("c")
+            .getImageAdjustBrightness("d", -50);
+    ImageModel deferred = DeferredImageModel.wrap(this.image)
+            .getImageAdjustBrightness("a", 30)
+            .applyColorTransformation("b", sepia)
+            .getImageAllGreen("c")
+            .getImageAdjustBrightness("d", -50);
+
+    assertEquals("d", deferred.getName());
+    assertSameImage(eager, deferred);
+  }
+
+  @Test
+  public void testFilterAfterDeferredOperation() {
+    double[][] blur = {{0.0625, 0.125, 0.0625},
+        {0.125, 0.25, 0.125},
+        {0.0625, 0.125, 0.0625}};
+    ImageModel eager = this.image.getImageAllLuma("luma").applyFilter("blur", blur);
+    ImageModel deferred = DeferredImageModel.wrap(this.image).getImageAllLuma("luma")
+            .applyFilter("blur", blur);
+    assertSameImage(eager, deferred);
+  }
+
+  @Test
+  public void testChainFromReadImage() {
+    ImageModel red = DeferredImageModel.wrap(this.image).getImageAllRed("red");
+    // reading the pixels computes the image, and later operations start from the result
+    assertEquals(Pixel.pack(228, 228, 228), red.getRGB(0, 0));
+    assertSameImage(this.image.getImageAllRed("red").getImageFlipVertical("flip"),
+            red.getImageFlipVertical("flip"));
+    assertSameImage(this.image.getImageAllRed("red").getImageAllIntensity("intensity"),
+            red.getImageAllIntensity("intensity"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidName() {
+    DeferredImageModel.wrap(this.image).getImageAllBlue(" ");
+  }
+
+  @Test
+  public void testDeferredProcessor() {
+    ProcessorModel eager = new ProcessorModelImpl();
+    ProcessorModel deferred = new ProcessorModelImpl(true);
+    for (ProcessorModel processor : new ProcessorModel[]{eager, deferred}) {
+      processor.addImage(this.image);
+      processor.brighten(20, "image", "bright");
+      processor.sepia("bright", "sepia");
+      processor.blueComponent("sepia", "blue");
+    }
+
+    assertEquals("blue", deferred.getNameLastEdited());
+    assertSameImage(eager.getImage("blue"), deferred.getImage("blue"));
+    assertSameImage(eager.getImage("bright"), deferred.getImage("bright"));
+  }
+}
@@ -0,0 +1,52 @@
+import java.util.Random;
+
+import model.EdgeMode;
+import model.ImageModel;
+
+/**
+ * The random images and brute-force neighborhoods shared by the tests of the neighborhood
+ * filters of model.RasterImageModel.
+ */
+final class FilterTestImages {
+  static final int WIDTH = 37;
+  static final int HEIGHT = 23;
+
+  private FilterTestImages() {
+  }
+
+  // returns packed pixels with random components
+  static int[] randomRaster(int length, long seed) {
+    int[] pixels = new int[length];
+    Random random = new Random(seed);
+    for (int index = 0; index < length; index++) {
+      pixels[index] = random.nextInt(0x1000000);
+    }
+    return pixels;
+  }
+
+  // returns the packed pixels of an image
+  static int[] rasterOf(ImageModel image) {
+    int[] actual = new int[image.getWidth() * image.getHeight()];
+    image.getRGBRegion(0, 0, image.getWidth(), image.getHeight(), actual, 0);
+    return actual;
+  }
+
+  // returns the square of pixels around a pixel, row by row, resolving the neighbors past the
+  // edges with the edge mode; neighbors that are outside the image under ZERO are black
+  static int[] neighborhood(int[] pixels, int width, int height, int radius, EdgeMode edgeMode,
+                            int row, int col) {
+    int[] neighbors = new int[(2 * radius + 1) * (2 * radius + 1)];
+    int count = 0;
+    for (int neighborRow = row - radius; neighborRow <= row + radius; neighborRow++) {
+      for (int neighborCol = col - radius; neighborCol <= col + radius; neighborCol++) {
+        int resolvedRow = edgeMode.resolve(neighborRow, height);
+        int resolvedCol = edgeMode.resolve(neighborCol, width);
+        if (resolvedRow >= 0 && resolvedCol >= 0) {
+          neighbors[count] = pixels[resolvedRow * width + resolvedCol];
+        }
+        count++;
+      }
+    }
+    return neighbors;
+  }
+}
@@ -0,0 +1,168 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import model.Histogram;
+import model.HistogramChannel;
+import model.ImageModel;
+import model.LookupTable;
+import model.Pixel;
+import model.RasterImageModel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the model.Histogram class.
+ */
+public class HistogramTest {
+  private int[] raster;
+  private ImageModel image;
+
+  @Before
+  public void init() {
+    this.raster = new int[]{Pixel.pack(255, 0, 0), Pixel.pack(0, 255, 0),
+        Pixel.pack(0, 0, 255), Pixel.pack(10, 20, 31), Pixel.pack(10, 10, 10),
+        Pixel.pack(255, 255, 255)};
+    this.image = new RasterImageModel(this.raster, 3, 2, "image", 255);
+  }
+
+  @Test
+  public void testAllChannels() {
+    Histogram histogram = this.image.getHistogram(EnumSet.allOf(HistogramChannel.class));
+
+    assertEquals(EnumSet.allOf(HistogramChannel.class), histogram.getChannels());
+    assertEquals(2, histogram.getCount(HistogramChannel.RED, 0));
+    assertEquals(2, histogram.getCount(HistogramChannel.RED, 10));
+    assertEquals(2, histogram.getCount(HistogramChannel.GREEN, 255));
+    assertEquals(1, histogram.getCount(HistogramChannel.BLUE, 31));
+    assertEquals(3, histogram.getCount(HistogramChannel.INTENSITY, 85));
+    assertEquals(1, histogram.getCount(HistogramChannel.INTENSITY, 20));
+    assertEquals(3, histogram.getMaxCount());
+  }
+
+  @Test
+  public void testMatchesFunctionHistogram() {
+    Histogram histogram = this.image.getHistogram(EnumSet.allOf(HistogramChannel.class));
+
+    assertEquals(this.image.getHistogram(Pixel.getRedFunc()),
+            histogram.toMap(HistogramChannel.RED));
+    assertEquals(this.image.getHistogram(Pixel.getGreenFunc()),
+            histogram.toMap(HistogramChannel.GREEN));
+    assertEquals(this.image.getHistogram(Pixel.getBlueFunc()),
+            histogram.toMap(HistogramChannel.BLUE));
+    assertEquals(this.image.getHistogram(Pixel.getIntensityFunc()),
+            histogram.toMap(HistogramChannel.INTENSITY));
+  }
+
+  @Test
+  public void testSubsetOfChannels() {
+    Histogram histogram = Histogram.of(this.raster,
+            EnumSet.of(HistogramChannel.BLUE, HistogramChannel.INTENSITY));
+
+    assertFalse(histogram.hasChannel(HistogramChannel.RED));
+    assertTrue(histogram.hasChannel(HistogramChannel.BLUE));
+    assertEquals(2, histogram.getCount(HistogramChannel.BLUE, 255));
+    assertEquals(3, histogram.getCount(HistogramChannel.INTENSITY, 85));
+  }
+
+  @Test
+  public void testRange() {
+    Histogram histogram = Histogram.of(this.raster, 3, 6, EnumSet.of(HistogramChannel.RED));
+
+    Map<Integer, Integer> red = histogram.toMap(HistogramChannel.RED);
+    assertEquals(2, red.size());
+    assertEquals(2, (int) red.get(10));
+    assertEquals(1, (int) red.get(255));
+  }
+
+  @Test
+  public void testParallelMatchesSequential() {
+    // large enough to be split into stripes that are counted in parallel
+    int[] large = new int[1000 * 700];
+    Random random = new Random(42);
+    for (int index = 0; index < large.length; index++) {
+      large[index] = random.nextInt(0x1000000);
+    }
+
+    Histogram parallel = Histogram.of(large, EnumSet.allOf(HistogramChannel.class));
+    Histogram sequential = Histogram.of(large, 0, large.length,
+            EnumSet.allOf(HistogramChannel.class));
+    for (HistogramChannel channel : HistogramChannel.values()) {
+      assertArrayEquals(sequential.getBins(channel), parallel.getBins(channel));
+    }
+  }
+
+  // checks that the histogram of an image for the given channels matches counting its pixels
+  // again from scratch
+  private void assertRecounted(ImageModel derived, Set<HistogramChannel> channels) {
+    int[] pixels = new int[derived.getWidth() * derived.getHeight()];
+    derived.getRGBRegion(0, 0, derived.getWidth(), derived.getHeight(), pixels, 0);
+    Histogram expected = Histogram.of(pixels, channels);
+    Histogram actual = derived.getHistogram(channels);
+    for (HistogramChannel channel : channels) {
+      assertArrayEquals(expected.getBins(channel), actual.getBins(channel));
+    }
+  }
+
+  @Test
+  public void testHistogramIsCached() {
+    Histogram first = this.image.getHistogram(EnumSet.allOf(HistogramChannel.class));
+    assertSame(first, this.image.getHistogram(EnumSet.allOf(HistogramChannel.class)));
+
+    Histogram red = this.image.getHistogram(EnumSet.of(HistogramChannel.RED));
+    assertEquals(EnumSet.of(HistogramChannel.RED), red.getChannels());
+    assertEquals(2, red.getCount(HistogramChannel.RED, 0));
+  }
+
+  @Test
+  public void testDerivedHistograms() {
+    // count the original first so the results can derive their histograms from it
+    this.image.getHistogram(EnumSet.allOf(HistogramChannel.class));
+
+    Set<HistogramChannel> all = EnumSet.allOf(HistogramChannel.class);
+    Set<HistogramChannel> components = EnumSet.of(HistogramChannel.RED, HistogramChannel.GREEN,
+            HistogramChannel.BLUE);
+    assertRecounted(this.image.getImageFlipHorizontal("horizontal"), all);
+    assertRecounted(this.image.getImageFlipVertical("vertical"), all);
+    // brightening changes each channel on its own, so only the components can be derived
+    assertRecounted(this.image.getImageAdjustBrightness("brighter", 60), components);
+    assertRecounted(this.image.getImageAdjustBrightness("darker", -20), components);
+    assertRecounted(this.image.getImageAllGreen("green"), all);
+    assertRecounted(this.image.applyPointOperation("composed",
+            LookupTable.blueComponent().compose(LookupTable.brightness(-15, 255))), all);
+  }
+
+  @Test
+  public void testBinsAreCopied() {
+    Histogram histogram = Histogram.of(this.raster, EnumSet.of(HistogramChannel.GREEN));
+    int[] bins = histogram.getBins(HistogramChannel.GREEN);
+    assertEquals(256, bins.length);
+
+    bins[0] = 100;
+    assertEquals(2, histogram.getCount(HistogramChannel.GREEN, 0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testChannelNotCounted() {
+    Histogram.of(this.raster, EnumSet.of(HistogramChannel.RED))
+            .getCount(HistogramChannel.GREEN, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidValue() {
+    Histogram.of(this.raster, EnumSet.of(HistogramChannel.RED)).getCount(HistogramChannel.RED, 256);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullChannels() {
+    Histogram.of(this.raster, null);
+  }
+}
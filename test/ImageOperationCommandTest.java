@@ -7,12 +7,15 @@ import java.util.List;
 
 import controller.command.BlueComponent;
 import controller.command.Blur;
+import controller.command.BoxBlur;
+import controller.command.Filter;
 import controller.command.GreenComponent;
 import controller.command.Greyscale;
 import controller.command.HorizontalFlip;
 import controller.command.ImageProcessorCommand;
 import controller.command.IntensityComponent;
 import controller.command.LumaComponent;
+import controller.command.Median;
 import controller.command.RedComponent;
 import controller.command.Sepia;
 import controller.command.Sharpen;
@@ -145,6 +148,100 @@ public abstract class ImageOperationCommandTest {
     }
   }
 
+  /**
+   * Tests for the BoxBlur implementation of ImageProcessorCommand.
+   */
+  public static final class BoxBlurTest extends ImageOperationCommandTest {
+    @Override
+    protected ImageProcessorCommand createCommand(String imageName, String destImageName) {
+      return new BoxBlur(1, imageName, destImageName);
+    }
+
+    @Override
+    protected List<List<Pixel>> getExpectedPixels() {
+      return new ArrayList<>(Arrays.asList(
+              new ArrayList<>(Arrays.asList(
+                      new Pixel(64, 81, 40),
+                      new Pixel(99, 109, 56),
+                      new Pixel(51, 61, 36))),
+              new ArrayList<>(Arrays.asList(new Pixel(97, 108, 68),
+                      new Pixel(137, 159, 107),
+                      new Pixel(70, 92, 66))),
+              new ArrayList<>(Arrays.asList(new Pixel(90, 83, 70),
+                      new Pixel(110, 136, 106),
+                      new Pixel(55, 88, 60))),
+              new ArrayList<>(Arrays.asList(new Pixel(58, 43, 39),
+                      new Pixel(71, 86, 75),
+                      new Pixel(39, 60, 43)))));
+    }
+  }
+
+  /**
+   * Tests for the Filter implementation of ImageProcessorCommand.
+   */
+  public static final class FilterTest extends ImageOperationCommandTest {
+    @Override
+    protected ImageProcessorCommand createCommand(String imageName, String destImageName) {
+      return new Filter("res/sharpen-kernel.txt", imageName, destImageName);
+    }
+
+    @Override
+    protected List<List<Pixel>> getExpectedPixels() {
+      return new ArrayList<>(Arrays.asList(
+              new ArrayList<>(Arrays.asList(
+                      new Pixel(255, 255, 101),
+                      new Pixel(0, 115, 0),
+                      new Pixel(255, 255, 255))),
+              new ArrayList<>(Arrays.asList(new Pixel(255, 255, 249),
+                      new Pixel(0, 255, 255),
+                      new Pixel(0, 0, 0))),
+              new ArrayList<>(Arrays.asList(new Pixel(255, 255, 255),
+                      new Pixel(255, 0, 0),
+                      new Pixel(0, 255, 255))),
+              new ArrayList<>(Arrays.asList(new Pixel(255, 103, 255),
+                      new Pixel(112, 81, 0),
+                      new Pixel(255, 255, 255)))));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testEmptyKernelPath() {
+      new Filter("", "beforeImage", "afterImage");
+    }
+  }
+
+  /**
+   * Tests for the Median implementation of ImageProcessorCommand.
+   */
+  public static final class MedianTest extends ImageOperationCommandTest {
+    @Override
+    protected ImageProcessorCommand createCommand(String imageName, String destImageName) {
+      return new Median(1, imageName, destImageName);
+    }
+
+    @Override
+    protected List<List<Pixel>> getExpectedPixels() {
+      return new ArrayList<>(Arrays.asList(
+              new ArrayList<>(Arrays.asList(
+                      new Pixel(207, 191, 52),
+                      new Pixel(207, 154, 52),
+                      new Pixel(81, 154, 142))),
+              new ArrayList<>(Arrays.asList(new Pixel(162, 167, 127),
+                      new Pixel(139, 163, 127),
+                      new Pixel(66, 154, 142))),
+              new ArrayList<>(Arrays.asList(new Pixel(139, 163, 127),
+                      new Pixel(92, 163, 113),
+                      new Pixel(80, 163, 113))),
+              new ArrayList<>(Arrays.asList(new Pixel(129, 72, 102),
+                      new Pixel(92, 80, 102),
+                      new Pixel(80, 177, 113)))));
+    }
+
+    @Test (expected = IllegalArgumentException.class)
+    public void testNegativeRadius() {
+      new Median(-1, "beforeImage", "afterImage");
+    }
+  }
+
   /**
    * Tests for the Sharpen implementation of ImageProcessorCommand.
    */
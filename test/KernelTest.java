@@ -0,0 +1,371 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import model.EdgeMode;
+import model.ImageModel;
+import model.Kernel;
+import model.Pixel;
+import model.RasterImageModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the model.Kernel class and the filters that apply it to images.
+ */
+public class KernelTest {
+  private int[] raster;
+  private ImageModel image;
+
+  @Before
+  public void init() {
+    this.raster = new int[9 * 7];
+    Random random = new Random(7);
+    for (int index = 0; index < this.raster.length; index++) {
+      this.raster[index] = random.nextInt(0x1000000);
+    }
+    this.image = new RasterImageModel(this.raster, 9, 7, "image", 255);
+  }
+
+  // applies the kernel one weight at a time to a pixel of the raster, reading pixels outside of
+  // the image with the mode
+  private static int expectedPixel(int[] raster, int width, int height, double[][] kernel,
+                                   EdgeMode edgeMode, int row, int col) {
+    double[] sums = new double[3];
+    for (int kernelRow = 0; kernelRow < kernel.length; kernelRow++) {
+      for (int kernelCol = 0; kernelCol < kernel[0].length; kernelCol++) {
+        int neighborRow = edgeMode.resolve(row + kernelRow - kernel.length / 2, height);
+        int neighborCol = edgeMode.resolve(col + kernelCol - kernel[0].length / 2, width);
+        if (neighborRow >= 0 && neighborCol >= 0) {
+          int neighbor = raster[neighborRow * width + neighborCol];
+          sums[0] += kernel[kernelRow][kernelCol] * Pixel.redOf(neighbor);
+          sums[1] += kernel[kernelRow][kernelCol] * Pixel.greenOf(neighbor);
+          sums[2] += kernel[kernelRow][kernelCol] * Pixel.blueOf(neighbor);
+        }
+      }
+    }
+    return Pixel.pack(Pixel.adjustValue((int) sums[0]), Pixel.adjustValue((int) sums[1]),
+            Pixel.adjustValue((int) sums[2]));
+  }
+
+  // returns the outer product of the 1D kernels
+  private static double[][] outerProduct(double[] vertical, double[] horizontal) {
+    double[][] kernel = new double[vertical.length][horizontal.length];
+    for (int row = 0; row < vertical.length; row++) {
+      for (int col = 0; col < horizontal.length; col++) {
+        kernel[row][col] = vertical[row] * horizontal[col];
+      }
+    }
+    return kernel;
+  }
+
+  // checks every pixel of a filtered image against applying the kernel one weight at a time
+  private void assertFiltered(double[][] kernel, ImageModel filtered) {
+    this.assertFiltered(kernel, EdgeMode.ZERO, filtered);
+  }
+
+  // checks every pixel of a filtered image against applying the kernel one weight at a time
+  private void assertFiltered(double[][] kernel, EdgeMode edgeMode, ImageModel filtered) {
+    assertFiltered(this.raster, 9, 7, kernel, edgeMode, filtered);
+  }
+
+  // checks every pixel of a filtered raster image against applying the kernel one weight at a
+  // time
+  private static void assertFiltered(int[] raster, int width, int height, double[][] kernel,
+                                     EdgeMode edgeMode, ImageModel filtered) {
+    int[] actual = new int[width * height];
+    filtered.getRGBRegion(0, 0, width, height, actual, 0);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        assertEquals(expectedPixel(raster, width, height, kernel, edgeMode, row, col),
+                actual[row * width + col]);
+      }
+    }
+  }
+
+  @Test
+  public void testDetectsSeparable() {
+    Kernel blur = Kernel.of(new double[][]{{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125},
+        {0.0625, 0.125, 0.0625}});
+    assertTrue(blur.isSeparable());
+    assertEquals(3, blur.getHeight());
+    assertEquals(0.25, blur.getWeight(1, 1), 0);
+
+    Kernel edge = Kernel.of(new double[][]{{0, 1, 0}, {1, -4, 1}, {0, 1, 0}});
+    assertFalse(edge.isSeparable());
+
+    Kernel rectangular = Kernel.of(new double[][]{{0, 0, 0, 0, 0}, {1, 2, 3, 2, 1},
+        {-1, -2, -3, -2, -1}});
+    assertTrue(rectangular.isSeparable());
+    assertEquals(5, rectangular.getWidth());
+  }
+
+  @Test
+  public void testSeparableFactory() {
+    Kernel kernel = Kernel.separable(new double[]{1, 2, 1}, new double[]{0.5, 0, -0.5});
+    assertTrue(kernel.isSeparable());
+    assertEquals(-1.0, kernel.getWeight(1, 2), 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEvenSeparable() {
+    Kernel.separable(new double[]{1, 1}, new double[]{1});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRaggedKernel() {
+    Kernel.of(new double[][]{{1, 2, 1}, {1}, {1, 2, 1}});
+  }
+
+  @Test
+  public void testSeparableFilterMatchesDirect() {
+    double[][] blur = {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}};
+    this.assertFiltered(blur, this.image.applyFilter("blur", blur));
+    this.assertFiltered(blur, this.image.applySeparableFilter("blur",
+            new double[]{0.25, 0.5, 0.25}, new double[]{0.25, 0.5, 0.25}));
+  }
+
+  @Test
+  public void testSeparableOutsideFixedPointMatchesDirect() {
+    // summing these in two passes rounds some components differently than summing every weight
+    double[][] box = {{1.0 / 9, 1.0 / 9, 1.0 / 9}, {1.0 / 9, 1.0 / 9, 1.0 / 9},
+        {1.0 / 9, 1.0 / 9, 1.0 / 9}};
+    assertTrue(Kernel.of(box).isSeparable());
+    assertFalse(Kernel.of(box).isFixedPoint());
+    double[] vertical = {0.1, 0.2, 0.4, 0.2, 0.1};
+    double[] horizontal = {0.2, 0.1, 0.4};
+    for (EdgeMode edgeMode : EdgeMode.values()) {
+      this.assertFiltered(box, edgeMode, this.image.applyFilter("box", box, edgeMode));
+      this.assertFiltered(outerProduct(vertical, horizontal), edgeMode,
+              this.image.applySeparableFilter("thirds", vertical, horizontal, edgeMode));
+    }
+
+    // a gray of 25 sums to just under 25 in two passes, but to exactly 25 one weight at a time
+    int[] gray = new int[9];
+    Arrays.fill(gray, 0x191919);
+    ImageModel flat = new RasterImageModel(gray, 3, 3, "flat", 255);
+    assertEquals(0x191919, flat.applyFilter("box", box).getRGB(1, 1));
+  }
+
+  @Test
+  public void testRectangularFilters() {
+    double[][] sobel = {{-0.25, 0, 0.25}, {-0.5, 0, 0.5}, {-0.25, 0, 0.25}};
+    this.assertFiltered(sobel, this.image.applyFilter("sobel", sobel));
+
+    double[][] wide = {{0.125, 0.25, 0.25, 0.25, 0.125}};
+    this.assertFiltered(wide, this.image.applyFilter("wide", wide));
+
+    double[][] tall = {{0.5, -1}, {1, 0.25}, {0.5, 1}};
+    assertNull(this.image.applyFilter("tall", tall));
+    double[][] notSeparable = {{0, 0.5, 0}, {0.25, -1, 0.25}, {0, 0.5, 0}, {1, 0, 1},
+        {0, 0.25, 0}};
+    this.assertFiltered(notSeparable, this.image.applyFilter("notSeparable", notSeparable));
+  }
+
+  @Test
+  public void testResolve() {
+    assertEquals(-1, EdgeMode.ZERO.resolve(-1, 5));
+    assertEquals(4, EdgeMode.ZERO.resolve(4, 5));
+    assertEquals(0, EdgeMode.CLAMP.resolve(-3, 5));
+    assertEquals(4, EdgeMode.CLAMP.resolve(7, 5));
+    assertEquals(0, EdgeMode.MIRROR.resolve(-1, 5));
+    assertEquals(2, EdgeMode.MIRROR.resolve(-3, 5));
+    assertEquals(3, EdgeMode.MIRROR.resolve(6, 5));
+    assertEquals(0, EdgeMode.MIRROR.resolve(-2, 1));
+    assertEquals(4, EdgeMode.WRAP.resolve(-1, 5));
+    assertEquals(1, EdgeMode.WRAP.resolve(6, 5));
+    assertEquals(EdgeMode.MIRROR, EdgeMode.fromName("Mirror"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownEdgeMode() {
+    EdgeMode.fromName("reflect");
+  }
+
+  @Test
+  public void testEdgeModes() {
+    double[][] blur = {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}};
+    double[][] notSeparable = {{0, 0.5, 0}, {0.25, -1, 0.25}, {0, 0.5, 0}, {1, 0, 1},
+        {0, 0.25, 0}};
+    // wider than the image, so every column is near an edge
+    double[][] wide = {{0.0625, 0.0625, 0.0625, 0.0625, 0.0625, 0.125, 0.0625, 0.0625, 0.0625,
+        0.0625, 0.0625, 0.125, 0.0625}};
+    for (EdgeMode edgeMode : EdgeMode.values()) {
+      this.assertFiltered(blur, edgeMode, this.image.applyFilter("blur", blur, edgeMode));
+      this.assertFiltered(blur, edgeMode, this.image.applySeparableFilter("blur",
+              new double[]{0.25, 0.5, 0.25}, new double[]{0.25, 0.5, 0.25}, edgeMode));
+      this.assertFiltered(notSeparable, edgeMode,
+              this.image.applyFilter("notSeparable", notSeparable, edgeMode));
+      this.assertFiltered(wide, edgeMode, this.image.applyFilter("wide", wide, edgeMode));
+    }
+  }
+
+  @Test
+  public void testDetectsFixedPoint() {
+    Kernel sharpen = Kernel.of(new double[][]{{-0.0625, -0.0625, -0.0625, -0.0625, -0.0625},
+        {-0.0625, 0.25, 0.25, 0.25, -0.0625}, {-0.0625, 0.25, 1.0, 0.25, -0.0625},
+        {-0.0625, 0.25, 0.25, 0.25, -0.0625}, {-0.0625, -0.0625, -0.0625, -0.0625, -0.0625}});
+    assertTrue(sharpen.isFixedPoint());
+    assertFalse(sharpen.isSeparable());
+
+    assertTrue(Kernel.separable(new double[]{0.25, 0.5, 0.25}, new double[]{0.5, 0, -0.5})
+            .isFixedPoint());
+    assertFalse(Kernel.of(new double[][]{{1.0 / 3, 1.0 / 3, 1.0 / 3}}).isFixedPoint());
+    // too large to sum in an int
+    assertFalse(Kernel.of(new double[][]{{1e7, 1e7, 1e7}}).isFixedPoint());
+  }
+
+  @Test
+  public void testCachesKernelsByWeights() {
+    double[][] weights = {{0, -1, 0}, {-1, 5, -1}, {0, -1, 0}};
+    Kernel kernel = Kernel.of(weights);
+    assertSame(kernel, Kernel.of(new double[][]{{0, -1, 0}, {-1, 5, -1}, {0, -1, 0}}));
+    assertNotSame(kernel, Kernel.of(new double[][]{{0, -1, 0, 0, 0}, {-1, 5, -1, 0, 0},
+        {0, -1, 0, 0, 0}}));
+
+    // changing the array afterwards does not change the kernel
+    weights[1][1] = 4;
+    assertEquals(5, kernel.getWeight(1, 1), 0);
+    assertNotSame(kernel, Kernel.of(weights));
+  }
+
+  @Test
+  public void testSparseSymmetricMatchesDirect() {
+    Random random = new Random(13);
+    for (int trial = 0; trial < 40; trial++) {
+      // mostly zero weights, mirrored through the center in every other trial, in fixed point
+      // in all but every fourth trial
+      double[][] kernel = new double[1 + 2 * random.nextInt(3)][1 + 2 * random.nextInt(3)];
+      int height = kernel.length;
+      int width = kernel[0].length;
+      for (int row = 0; row < height; row++) {
+        for (int col = 0; col < width; col++) {
+          if (random.nextInt(3) == 0) {
+            kernel[row][col] = trial % 4 == 3 ? random.nextDouble() - 0.5
+                    : (random.nextInt(257) - 128) / 64.0;
+          }
+        }
+      }
+      if (trial % 2 == 0) {
+        for (int row = 0; row < height; row++) {
+          for (int col = 0; col < width; col++) {
+            kernel[height - 1 - row][width - 1 - col] = kernel[row][col];
+          }
+        }
+      }
+
+      EdgeMode edgeMode = EdgeMode.values()[trial % EdgeMode.values().length];
+      this.assertFiltered(kernel, edgeMode, this.image.applyFilter("sparse", kernel, edgeMode));
+    }
+  }
+
+  @Test
+  public void testFixedPointMatchesFloatingPoint() {
+    Random random = new Random(11);
+    for (int trial = 0; trial < 40; trial++) {
+      // random multiples of 1/64 between -2 and 2, some of them separable
+      double[] vertical = new double[1 + 2 * random.nextInt(3)];
+      double[] horizontal = new double[1 + 2 * random.nextInt(3)];
+      for (int index = 0; index < vertical.length; index++) {
+        vertical[index] = (random.nextInt(257) - 128) / 64.0;
+      }
+      for (int index = 0; index < horizontal.length; index++) {
+        horizontal[index] = (random.nextInt(257) - 128) / 64.0;
+      }
+
+      double[][] kernel = new double[vertical.length][horizontal.length];
+      for (int row = 0; row < vertical.length; row++) {
+        for (int col = 0; col < horizontal.length; col++) {
+          kernel[row][col] = trial % 2 == 0 ? vertical[row] * horizontal[col]
+                  : (random.nextInt(257) - 128) / 64.0;
+        }
+      }
+
+      assertTrue(Kernel.of(kernel).isFixedPoint());
+      EdgeMode edgeMode = EdgeMode.values()[trial % EdgeMode.values().length];
+      this.assertFiltered(kernel, edgeMode, this.image.applyFilter("fixed", kernel, edgeMode));
+    }
+  }
+
+  @Test
+  public void testTiledMatchesDirect() {
+    // large enough to be split into tiles filtered in parallel, with partial tiles at the edges
+    int width = 601;
+    int height = 157;
+    int[] large = new int[width * height];
+    Random random = new Random(3);
+    for (int index = 0; index < large.length; index++) {
+      large[index] = random.nextInt(0x1000000);
+    }
+    ImageModel largeImage = new RasterImageModel(large, width, height, "large", 255);
+
+    double[][] sharpen = {{-0.0625, -0.0625, -0.0625, -0.0625, -0.0625},
+        {-0.0625, 0.25, 0.25, 0.25, -0.0625}, {-0.0625, 0.25, 1.0, 0.25, -0.0625},
+        {-0.0625, 0.25, 0.25, 0.25, -0.0625}, {-0.0625, -0.0625, -0.0625, -0.0625, -0.0625}};
+    double[][] thirds = {{0.1, 0.2, 0.1}, {0.2, 0.3, 0.2}, {0.1, 0.2, 0.1}, {0.3, 0.1, 0.3},
+        {0.1, 0.2, 0.1}};
+    double[] vertical = {0.3, 0.4, 0.3};
+    double[] horizontal = {0.1, 0.2, 0.4, 0.2, 0.1};
+    for (EdgeMode edgeMode : EdgeMode.values()) {
+      for (double[][] kernel : new double[][][]{sharpen, thirds}) {
+        assertFiltered(large, width, height, kernel, edgeMode,
+                largeImage.applyFilter("filtered", kernel, edgeMode));
+      }
+
+      assertFiltered(large, width, height, outerProduct(vertical, horizontal), edgeMode,
+              largeImage.applySeparableFilter("filtered", vertical, horizontal, edgeMode));
+    }
+  }
+
+  @Test
+  public void testFourierMatchesDirect() {
+    // large enough to be split into several transform blocks, with partial blocks at the edges
+    int width = 230;
+    int height = 150;
+    int[] large = new int[width * height];
+    Random random = new Random(5);
+    for (int index = 0; index < large.length; index++) {
+      large[index] = random.nextInt(0x1000000);
+    }
+    ImageModel largeImage = new RasterImageModel(large, width, height, "large", 255);
+
+    // whole multiples of 1/256 are rounded back to exactly what the direct filter gives
+    double[][] dyadic = new double[17][17];
+    double[][] weights = new double[15][15];
+    for (int row = 0; row < 17; row++) {
+      for (int col = 0; col < 17; col++) {
+        dyadic[row][col] = (random.nextInt(17) - 6) / 256.0;
+        if (row < 15 && col < 15) {
+          weights[row][col] = random.nextDouble() / 100;
+        }
+      }
+    }
+    for (EdgeMode edgeMode : EdgeMode.values()) {
+      assertFiltered(large, width, height, dyadic, edgeMode,
+              largeImage.applyFilter("filtered", dyadic, edgeMode));
+      // a kernel larger than the image reads neighbors more than one image away
+      assertFiltered(dyadic, edgeMode, this.image.applyFilter("filtered", dyadic, edgeMode));
+
+      // other weights may round differently, but never by more than one
+      int[] actual = new int[width * height];
+      largeImage.applyFilter("filtered", weights, edgeMode)
+              .getRGBRegion(0, 0, width, height, actual, 0);
+      for (int row = 0; row < height; row++) {
+        for (int col = 0; col < width; col++) {
+          int expected = expectedPixel(large, width, height, weights, edgeMode, row, col);
+          int pixel = actual[row * width + col];
+          assertTrue(Math.abs(Pixel.redOf(expected) - Pixel.redOf(pixel)) <= 1);
+          assertTrue(Math.abs(Pixel.greenOf(expected) - Pixel.greenOf(pixel)) <= 1);
+          assertTrue(Math.abs(Pixel.blueOf(expected) - Pixel.blueOf(pixel)) <= 1);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+import org.junit.Test;
+
+import model.LookupTable;
+import model.Pixel;
+import model.PointOperation;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the model.LookupTable class.
+ */
+public class LookupTableTest {
+
+  // checks that two operations give the same result on a spread of pixels
+  private void assertSameOperation(PointOperation expected, PointOperation actual) {
+    for (int red = 0; red < 256; red += 15) {
+      for (int green = 0; green < 256; green += 17) {
+        for (int blue = 0; blue < 256; blue += 51) {
+          int rgb = Pixel.pack(red, green, blue);
+          assertEquals(expected.apply(rgb), actual.apply(rgb));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBrightness() {
+    LookupTable table = LookupTable.brightness(30, 240);
+    assertEquals(Pixel.pack(40, 240, 30), table.apply(Pixel.pack(10, 250, 0)));
+    assertEquals(Pixel.pack(0, 0, 0), LookupTable.brightness(-300, 255)
+            .apply(Pixel.pack(10, 250, 255)));
+  }
+
+  @Test
+  public void testComponents() {
+    int rgb = Pixel.pack(124, 32, 76);
+    assertEquals(Pixel.pack(124, 124, 124), LookupTable.redComponent().apply(rgb));
+    assertEquals(Pixel.pack(32, 32, 32), LookupTable.greenComponent().apply(rgb));
+    assertEquals(Pixel.pack(76, 76, 76), LookupTable.blueComponent().apply(rgb));
+  }
+
+  @Test
+  public void testComposeMatchesSequential() {
+    LookupTable brighten = LookupTable.brightness(40, 255);
+    LookupTable darken = LookupTable.brightness(-90, 255);
+    LookupTable green = LookupTable.greenComponent();
+
+    PointOperation sequential = (int rgb) -> darken.apply(green.apply(brighten.apply(rgb)));
+    assertSameOperation(sequential, brighten.compose(green).compose(darken));
+    assertSameOperation(sequential, brighten.andThen(green).andThen(darken));
+  }
+
+  @Test
+  public void testApplyAll() {
+    int[] source = {Pixel.pack(1, 2, 3), Pixel.pack(250, 100, 0)};
+    int[] dest = new int[2];
+    LookupTable.blueComponent().compose(LookupTable.brightness(10, 255))
+            .applyAll(source, dest, 0, 2);
+    assertEquals(Pixel.pack(13, 13, 13), dest[0]);
+    assertEquals(Pixel.pack(10, 10, 10), dest[1]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOfInvalidTable() {
+    LookupTable.of(new int[256], new int[255], new int[256]);
+  }
+}
@@ -0,0 +1,141 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import model.EdgeMode;
+import model.ImageModel;
+import model.Pixel;
+import model.RasterImageModel;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the median filter of model.RasterImageModel.
+ */
+public class MedianFilterTest {
+  private static final int WIDTH = FilterTestImages.WIDTH;
+  private static final int HEIGHT = FilterTestImages.HEIGHT;
+  private int[] raster;
+  private ImageModel image;
+
+  @Before
+  public void init() {
+    this.raster = FilterTestImages.randomRaster(WIDTH * HEIGHT, 13);
+    this.image = new RasterImageModel(this.raster, WIDTH, HEIGHT, "image", 255);
+  }
+
+  // sorts the square of pixels around a pixel and takes the middle of each component
+  private static int expectedPixel(int[] pixels, int width, int height, int radius,
+                                   EdgeMode edgeMode, int row, int col) {
+    int[] neighbors = FilterTestImages.neighborhood(pixels, width, height, radius, edgeMode,
+            row, col);
+    int[][] components = new int[3][neighbors.length];
+    for (int index = 0; index < neighbors.length; index++) {
+      components[0][index] = Pixel.redOf(neighbors[index]);
+      components[1][index] = Pixel.greenOf(neighbors[index]);
+      components[2][index] = Pixel.blueOf(neighbors[index]);
+    }
+    for (int[] component : components) {
+      Arrays.sort(component);
+    }
+    int middle = neighbors.length / 2;
+    return Pixel.pack(components[0][middle], components[1][middle], components[2][middle]);
+  }
+
+  // returns a gray pixel
+  private static int gray(int value) {
+    return Pixel.pack(value, value, value);
+  }
+
+  @Test
+  public void testMedianMatchesSortedSquare() {
+    for (EdgeMode edgeMode : EdgeMode.values()) {
+      for (int radius : new int[]{0, 1, 4, 30}) {
+        int[] actual = FilterTestImages.rasterOf(
+                this.image.applyMedianFilter("median", radius, edgeMode));
+        for (int row = 0; row < HEIGHT; row++) {
+          for (int col = 0; col < WIDTH; col++) {
+            assertEquals(expectedPixel(this.raster, WIDTH, HEIGHT, radius, edgeMode, row, col),
+                    actual[row * WIDTH + col]);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testLargeImageMatchesSortedSquare() {
+    // large enough to be filtered in stripes on several threads
+    int width = 300;
+    int height = 280;
+    int[] pixels = FilterTestImages.randomRaster(width * height, 17);
+    ImageModel large = new RasterImageModel(pixels, width, height, "large", 255);
+    int[] actual = FilterTestImages.rasterOf(large.applyMedianFilter("median", 2,
+            EdgeMode.MIRROR));
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        assertEquals(expectedPixel(pixels, width, height, 2, EdgeMode.MIRROR, row, col),
+                actual[row * width + col]);
+      }
+    }
+  }
+
+  @Test
+  public void testEvenNeighborsUnderZero() {
+    // the corners have four neighbors in the image and five black ones past the edges, so their
+    // median is black rather than between the middle two of the image; the middle column has
+    // six neighbors in the image and three black ones, so its median is the second smallest
+    int[] pixels = {gray(10), gray(20), gray(30), gray(40), gray(50), gray(60)};
+    ImageModel small = new RasterImageModel(pixels, 3, 2, "small", 255);
+    assertEquals(Arrays.toString(new int[] {0, gray(20), 0, 0, gray(20), 0}),
+            Arrays.toString(FilterTestImages.rasterOf(
+                    small.applyMedianFilter("median", 1, EdgeMode.ZERO))));
+  }
+
+  @Test
+  public void testMedianRemovesSaltAndPepper() {
+    int[] flat = new int[WIDTH * HEIGHT];
+    Arrays.fill(flat, Pixel.pack(10, 128, 250));
+    // black and white specks four pixels apart, and in two corners, so that no square of nine
+    // pixels holds more than four of them and every median is the flat color
+    int[] noisy = flat.clone();
+    for (int row = 2; row < HEIGHT; row += 4) {
+      for (int col = 2; col < WIDTH; col += 4) {
+        noisy[row * WIDTH + col] = (row + col) % 8 == 0 ? 0 : 0xFFFFFF;
+      }
+    }
+    noisy[0] = 0;
+    noisy[HEIGHT * WIDTH - 1] = 0xFFFFFF;
+    ImageModel noisyImage = new RasterImageModel(noisy, WIDTH, HEIGHT, "noisy", 255);
+    for (EdgeMode edgeMode : new EdgeMode[]{EdgeMode.CLAMP, EdgeMode.MIRROR, EdgeMode.WRAP}) {
+      assertEquals(Arrays.toString(flat), Arrays.toString(FilterTestImages.rasterOf(
+              noisyImage.applyMedianFilter("median", 1, edgeMode))));
+    }
+  }
+
+  @Test
+  public void testName() {
+    assertEquals("median", this.image.applyMedianFilter("median", 1, EdgeMode.ZERO).getName());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeRadius() {
+    this.image.applyMedianFilter("median", -1, EdgeMode.CLAMP);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRadiusTooLarge() {
+    this.image.applyMedianFilter("median", 1 << 20, EdgeMode.CLAMP);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullEdgeMode() {
+    this.image.applyMedianFilter("median", 1, null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyName() {
+    this.image.applyMedianFilter("", 1, EdgeMode.CLAMP);
+  }
+}
@@ -0,0 +1,116 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import model.EdgeMode;
+import model.Histogram;
+import model.HistogramChannel;
+import model.ImageModel;
+import model.Kernel;
+import model.Parallelism;
+import model.RasterImageModel;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for model.Parallelism and the whole-image operations that split their work over it.
+ */
+public class ParallelismTest {
+  // large enough for every operation to be split into several stripes
+  private static final int WIDTH = 403;
+  private static final int HEIGHT = 311;
+  private int threads;
+  private ImageModel image;
+
+  @Before
+  public void init() {
+    this.threads = Parallelism.getThreads();
+    int[] raster = new int[WIDTH * HEIGHT];
+    Random random = new Random(23);
+    for (int index = 0; index < raster.length; index++) {
+      raster[index] = random.nextInt(0x1000000);
+    }
+    this.image = new RasterImageModel(raster, WIDTH, HEIGHT, "image", 255);
+  }
+
+  @After
+  public void restore() {
+    Parallelism.setThreads(this.threads);
+  }
+
+  // returns the packed pixels of an image
+  private static String rasterOf(ImageModel image) {
+    int[] actual = new int[WIDTH * HEIGHT];
+    image.getRGBRegion(0, 0, WIDTH, HEIGHT, actual, 0);
+    return Arrays.toString(actual);
+  }
+
+  // checks that an operation gives the same image on one thread as on several
+  private void assertSameOnAnyThreads(UnaryOperator<ImageModel> operation) {
+    Parallelism.setThreads(1);
+    String expected = rasterOf(operation.apply(this.image));
+    for (int count : new int[]{2, 3, 8}) {
+      Parallelism.setThreads(count);
+      assertEquals(expected, rasterOf(operation.apply(this.image)));
+    }
+  }
+
+  @Test
+  public void testPointOperations() {
+    this.assertSameOnAnyThreads(image -> image.getImageAllRed("red"));
+    this.assertSameOnAnyThreads(image -> image.getImageAllLuma("luma"));
+    this.assertSameOnAnyThreads(image -> image.getImageAdjustBrightness("bright", 40));
+    this.assertSameOnAnyThreads(image -> image.applyColorTransformation("sepia",
+            new double[][]{{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168},
+                {0.272, 0.534, 0.131}}));
+  }
+
+  @Test
+  public void testFlips() {
+    this.assertSameOnAnyThreads(image -> image.getImageFlipHorizontal("horizontal"));
+    this.assertSameOnAnyThreads(image -> image.getImageFlipVertical("vertical"));
+  }
+
+  @Test
+  public void testFilters() {
+    this.assertSameOnAnyThreads(image -> image.applyFilter("edge",
+            Kernel.of(new double[][]{{0, 1, 0}, {1, -4, 1}, {0, 1, 0}}), EdgeMode.MIRROR));
+    this.assertSameOnAnyThreads(image -> image.applyBoxBlur("box", 5, EdgeMode.WRAP));
+    this.assertSameOnAnyThreads(image -> image.applyGaussianBlur("gaussian", 3, EdgeMode.ZERO));
+    this.assertSameOnAnyThreads(image -> image.applyMedianFilter("median", 3, EdgeMode.CLAMP));
+  }
+
+  @Test
+  public void testHistogram() {
+    // large enough to be counted in stripes
+    int[] raster = new int[600 * 500];
+    Random random = new Random(29);
+    for (int index = 0; index < raster.length; index++) {
+      raster[index] = random.nextInt(0x1000000);
+    }
+    Parallelism.setThreads(1);
+    Histogram expected = Histogram.of(raster, EnumSet.allOf(HistogramChannel.class));
+    Parallelism.setThreads(4);
+    Histogram actual = Histogram.of(raster, EnumSet.allOf(HistogramChannel.class));
+    for (HistogramChannel channel : HistogramChannel.values()) {
+      assertEquals(Arrays.toString(expected.getBins(channel)),
+              Arrays.toString(actual.getBins(channel)));
+    }
+  }
+
+  @Test
+  public void testSetThreads() {
+    Parallelism.setThreads(5);
+    assertEquals(5, Parallelism.getThreads());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoThreads() {
+    Parallelism.setThreads(0);
+  }
+}
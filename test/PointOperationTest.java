@@ -0,0 +1,58 @@
+import org.junit.Test;
+
+import model.Pixel;
+import model.PointOperation;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the model.PointOperation interface and its operations.
+ */
+public class PointOperationTest {
+  private final int rgb = Pixel.pack(124, 32, 76);
+
+  @Test
+  public void testComponents() {
+    assertEquals(Pixel.pack(124, 124, 124), PointOperation.redComponent().apply(rgb));
+    assertEquals(Pixel.pack(32, 32, 32), PointOperation.greenComponent().apply(rgb));
+    assertEquals(Pixel.pack(76, 76, 76), PointOperation.blueComponent().apply(rgb));
+    assertEquals(Pixel.pack(124, 124, 124), PointOperation.valueComponent().apply(rgb));
+    assertEquals(Pixel.pack(77, 77, 77), PointOperation.intensityComponent().apply(rgb));
+    assertEquals(Pixel.pack(54, 54, 54), PointOperation.lumaComponent().apply(rgb));
+  }
+
+  @Test
+  public void testAdjustBrightnessClamps() {
+    assertEquals(Pixel.pack(134, 42, 86),
+            PointOperation.adjustBrightness(10, 255).apply(rgb));
+    assertEquals(Pixel.pack(84, 0, 36),
+            PointOperation.adjustBrightness(-40, 255).apply(rgb));
+    assertEquals(Pixel.pack(100, 82, 100),
+            PointOperation.adjustBrightness(50, 100).apply(rgb));
+  }
+
+  @Test
+  public void testColorTransformation() {
+    double[][] sepia = {{0.393, 0.769, 0.189},
+        {0.349, 0.686, 0.168},
+        {0.272, 0.534, 0.131}};
+    Pixel expected = new Pixel(124, 32, 76).applyColorTransformation(sepia)
+            .apply(new Pixel(124, 32, 76));
+    assertEquals(expected.getRGB(), PointOperation.colorTransformation(sepia).apply(rgb));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testColorTransformationInvalidKernel() {
+    PointOperation.colorTransformation(new double[][]{{1, 0}, {0, 1}});
+  }
+
+  @Test
+  public void testApplyAllAndThen() {
+    int[] source = {rgb, Pixel.pack(0, 255, 10)};
+    int[] dest = new int[2];
+    PointOperation.adjustBrightness(10, 255).andThen(PointOperation.greenComponent())
+            .applyAll(source, dest, 0, 2);
+    assertEquals(Pixel.pack(42, 42, 42), dest[0]);
+    assertEquals(Pixel.pack(255, 255, 255), dest[1]);
+  }
+}
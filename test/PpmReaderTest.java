@@ -0,0 +1,189 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import model.ImageModel;
+import model.ProcessorModel;
+import model.ProcessorModelImpl;
+import model.RasterImageModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for reading PPM files with model.ProcessorModelImpl, which parses them with
+ * model.PpmReader.
+ */
+public class PpmReaderTest {
+  File root;
+  ProcessorModel model;
+
+  @Before
+  public void setUp() throws IOException {
+    this.root = Files.createTempDirectory("ppm").toFile();
+    this.root.deleteOnExit();
+    this.model = new ProcessorModelImpl();
+  }
+
+  // writes text to a PPM file in the test directory and returns its path
+  private String write(String text) throws IOException {
+    File file = File.createTempFile("image", ".ppm", this.root);
+    file.deleteOnExit();
+    try (FileWriter writer = new FileWriter(file)) {
+      writer.write(text);
+    }
+    return file.getPath();
+  }
+
+  // checks that the text reads as the 2x2 image used by these tests
+  private void assertSquare(String text) throws IOException {
+    ImageModel image = this.model.readImage(this.write(text), "square");
+    assertEquals(2, image.getWidth());
+    assertEquals(2, image.getHeight());
+    assertEquals(200, image.getMaxRGB());
+    assertEquals(0x010203, image.getRGB(0, 0));
+    assertEquals(0x040506, image.getRGB(0, 1));
+    assertEquals(0x070809, image.getRGB(1, 0));
+    assertEquals(0xC8000A, image.getRGB(1, 1));
+  }
+
+  // checks that reading the text fails with the given message
+  private void assertFails(String text, String message) throws IOException {
+    String path = this.write(text);
+    try {
+      this.model.readImage(path, "bad");
+      fail("expected reading to fail: " + text);
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals(text, message, e.getMessage());
+    }
+  }
+
+  @Test
+  public void testPlain() throws IOException {
+    this.assertSquare("P3\n2 2\n200\n1 2 3\n4 5 6\n7 8 9\n200 0 10\n");
+  }
+
+  @Test
+  public void testAnyWhitespace() throws IOException {
+    this.assertSquare("P3 2 2 200 1 2 3 4 5 6 7 8 9 200 0 10");
+    this.assertSquare("P3\r\n2\t2\r\n200\r\n\r\n1 2 3\r\n4\t5\t6\f7 8 9\u000B200 0 10\r\n");
+    this.assertSquare("\n\n  P3\n\n\n2 2\n\n200\n1\n2\n3\n\n4 5 6 7 8 9 200 0 10\n\n\n");
+  }
+
+  @Test
+  public void testComments() throws IOException {
+    this.assertSquare("# made by hand\nP3\n# width and height\n2 2\n200\n1 2 3\n# row 2\n"
+            + "4 5 6\n7 8 9\n200 0 10\n# the end");
+    this.assertSquare("P3# comment right after the magic number\n2 2 # size\n200#max\n"
+            + "1 2 3 4 5 6#\n7 8 9 200 0 10\r# comment ended by a carriage return\n");
+  }
+
+  @Test
+  public void testSameAsSaved() throws IOException {
+    int width = 301;
+    int height = 157;
+    int[] raster = new int[width * height];
+    Random random = new Random(25);
+    for (int index = 0; index < raster.length; index++) {
+      raster[index] = random.nextInt(1 << 24);
+    }
+    this.model.addImage(new RasterImageModel(raster, width, height, "random", 255));
+    File file = new File(this.root, "random.ppm");
+    file.deleteOnExit();
+    this.model.save(file.getPath(), "random");
+
+    ImageModel image = this.model.readImage(file.getPath(), "read");
+    assertEquals(width, image.getWidth());
+    assertEquals(height, image.getHeight());
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        assertEquals(raster[row * width + col], image.getRGB(row, col));
+      }
+    }
+  }
+
+  @Test
+  public void testFormatInvalid() throws IOException {
+    String message = "error: file format invalid";
+    this.assertFails("", message);
+    this.assertFails("# only a comment\n", message);
+    this.assertFails("P2\n2 2\n200\n", message);
+    this.assertFails("P33\n1 1\n200\n1 2 3\n", message);
+    this.assertFails("P3\n2 2\n200\n1 2 3\n4 5 6\n7 8 9\n200 0\n", message);
+    this.assertFails("P3\n1 1\n200\n1 two 3\n", message);
+    this.assertFails("P3\n1 1\n200\n1 2x 3\n", message);
+    this.assertFails("P3\n1 1\n200\n1 2 99999999999\n", message);
+    this.assertFails("P3\n-1 1\n200\n", message);
+    this.assertFails("P3\n100000 100000\n200\n", message);
+  }
+
+  @Test
+  public void testHugeHeaderWithoutPixels() throws IOException {
+    // the raster of the header alone would take more than 6 GB
+    this.assertFails("P3 40000 40000 255", "error: file format invalid");
+    this.assertFails("P3 40000 40000 255\n1 2 3\n4 5 6\n", "error: file format invalid");
+  }
+
+  @Test
+  public void testLargerThanFirstAllocation() throws IOException {
+    int width = 1025;
+    int height = 1024;
+    StringBuilder text = new StringBuilder("P3\n" + width + " " + height + "\n255\n");
+    for (int index = 0; index < width * height - 1; index++) {
+      text.append("1 2 3\n");
+    }
+    text.append("4 5 6\n");
+    ImageModel image = this.model.readImage(this.write(text.toString()), "large");
+    assertEquals(width, image.getWidth());
+    assertEquals(height, image.getHeight());
+    assertEquals(0x010203, image.getRGB(0, 0));
+    assertEquals(0x010203, image.getRGB(height - 1, width - 2));
+    assertEquals(0x040506, image.getRGB(height - 1, width - 1));
+    this.assertFails(text.substring(0, text.length() - 6), "error: file format invalid");
+  }
+
+  @Test
+  public void testReadSize() throws IOException {
+    int[] size = ProcessorModelImpl.readPPMSize(this.write("# size only\nP3 40000#w\n30000\n"));
+    assertEquals(40000, size[0]);
+    assertEquals(30000, size[1]);
+    String[] invalid = {"P6\n2 2\n255\n", "P3\n-1 2\n255\n", "P3\n2\n"};
+    for (String text : invalid) {
+      try {
+        ProcessorModelImpl.readPPMSize(this.write(text));
+        fail("expected reading the size to fail: " + text);
+      }
+      catch (IllegalArgumentException e) {
+        assertEquals("error: file format invalid", e.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void testComponentInvalid() throws IOException {
+    this.assertFails("P3\n1 1\n255\n1 256 3\n", "error: one component is invalid");
+    this.assertFails("P3\n1 1\n255\n-1 2 3\n", "error: one component is invalid");
+  }
+
+  @Test
+  public void testMaxValueInvalid() throws IOException {
+    this.assertFails("P3\n1 1\n256\n1 2 3\n", "error: invalid maximum RBG value");
+  }
+
+  @Test
+  public void testMissingFile() {
+    try {
+      this.model.readImage(new File(this.root, "missing.ppm").getPath(), "missing");
+      fail("expected reading to fail");
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("error: loading from an imagePath that does not exist", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,155 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import controller.ProcessorBatchControllerImpl;
+import controller.ProcessorController;
+import model.ProcessorModel;
+import model.ProcessorModelImpl;
+import view.ProcessorView;
+import view.ProcessorViewImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the controller.ProcessorBatchControllerImpl class.
+ */
+public class ProcessorBatchControllerImplTest {
+  StringBuffer out;
+  ProcessorView view;
+  File inputs;
+  File outputs;
+  File template;
+
+  @Before
+  public void setUp() throws IOException {
+    this.out = new StringBuffer();
+    this.view = new ProcessorViewImpl(this.out);
+    File root = Files.createTempDirectory("batch").toFile();
+    root.deleteOnExit();
+    this.inputs = new File(root, "in");
+    this.outputs = new File(root, "out");
+    this.template = new File(root, "template.txt");
+    assertTrue(this.inputs.mkdir());
+    for (int image = 0; image < 5; image++) {
+      writeFile(new File(this.inputs, "image" + image + ".ppm"),
+              "P3\n# two by one\n2 1\n255\n" + (10 * image) + " 0 0 0 0 255\n");
+    }
+    writeFile(new File(this.inputs, "notes.txt"), "not an image\n");
+    writeFile(this.template, "# flips each image\n"
+            + "load {input} image\n\n"
+            + "horizontal-flip image flipped\n"
+            + "save {output}/{name}-flipped.{ext} flipped\n");
+  }
+
+  // writes text to a file that is deleted when the tests finish
+  private static void writeFile(File file, String text) throws IOException {
+    file.deleteOnExit();
+    try (FileWriter writer = new FileWriter(file)) {
+      writer.write(text);
+    }
+  }
+
+  // returns a controller for the test files that runs up to the given number of jobs at once
+  private ProcessorController controller(String inputs, int maxJobs) {
+    return new ProcessorBatchControllerImpl(ProcessorModelImpl::new, this.view,
+            this.template.getPath(), inputs, this.outputs.getPath(), maxJobs);
+  }
+
+  @Test
+  public void testRunsEveryImageInDirectory() {
+    this.controller(this.inputs.getPath(), 3).runProcessor();
+
+    String[] written = this.outputs.list();
+    Arrays.sort(written);
+    assertEquals("[image0-flipped.ppm, image1-flipped.ppm, image2-flipped.ppm, "
+            + "image3-flipped.ppm, image4-flipped.ppm]", Arrays.toString(written));
+    ProcessorModel model = new ProcessorModelImpl();
+    model.load(new File(this.outputs, "image4-flipped.ppm").getPath(), "flipped");
+    assertEquals(0x0000FF, model.getImage("flipped").getRGB(0, 0));
+    assertEquals(0x280000, model.getImage("flipped").getRGB(0, 1));
+    assertTrue(this.out.toString(),
+            this.out.toString().startsWith("Processed 5 images (0 failed) in "));
+  }
+
+  @Test
+  public void testGlob() {
+    this.controller(new File(this.inputs, "image[13].ppm").getPath(), 1).runProcessor();
+
+    String[] written = this.outputs.list();
+    Arrays.sort(written);
+    assertEquals("[image1-flipped.ppm, image3-flipped.ppm]", Arrays.toString(written));
+  }
+
+  @Test
+  public void testFailedJobsDoNotStopTheBatch() throws IOException {
+    writeFile(new File(this.inputs, "image2.ppm"), "P6\n2 1\n255\n");
+    this.controller(this.inputs.getPath(), 2).runProcessor();
+
+    assertEquals(4, this.outputs.list().length);
+    String log = this.out.toString();
+    assertTrue(log, log.startsWith("Error: " + new File(this.inputs, "image2.ppm")
+            + ": load: error: file format invalid\n"));
+    assertTrue(log, log.contains("Processed 5 images (1 failed) in "));
+  }
+
+  @Test
+  public void testEachJobHasItsOwnModel() {
+    // every model made for the batch is fresh, so no job sees another job's images
+    ProcessorModel[] shared = new ProcessorModel[1];
+    new ProcessorBatchControllerImpl(() -> {
+      ProcessorModel model = new ProcessorModelImpl();
+      assertEquals("", model.getNameLastEdited());
+      shared[0] = model;
+      return model;
+    }, this.view, this.template.getPath(), this.inputs.getPath(),
+            this.outputs.getPath(), 4).runProcessor();
+    assertEquals("flipped", shared[0].getNameLastEdited());
+  }
+
+  @Test
+  public void testModelsOnlyMadeForJobs() {
+    int[] made = new int[1];
+    ProcessorController controller = new ProcessorBatchControllerImpl(() -> {
+      synchronized (made) {
+        made[0]++;
+      }
+      return new ProcessorModelImpl();
+    }, this.view, this.template.getPath(), this.inputs.getPath(), this.outputs.getPath(), 2);
+    assertEquals(0, made[0]);
+    controller.processCommand("load");
+    assertEquals(0, made[0]);
+
+    controller.runProcessor();
+    assertEquals(5, made[0]);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUnknownCommandInTemplate() throws IOException {
+    writeFile(this.template, "laod {input} image\n");
+    this.controller(this.inputs.getPath(), 1).runProcessor();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testMissingTemplate() {
+    new ProcessorBatchControllerImpl(ProcessorModelImpl::new, this.view, "no-template.txt",
+            this.inputs.getPath(), this.outputs.getPath()).runProcessor();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorExceptionNullTemplate() {
+    new ProcessorBatchControllerImpl(ProcessorModelImpl::new, this.view, null,
+            this.inputs.getPath(), this.outputs.getPath());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorExceptionNoJobs() {
+    this.controller(this.inputs.getPath(), 0);
+  }
+}
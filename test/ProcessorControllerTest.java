@@ -122,8 +122,12 @@ public class ProcessorControllerTest {
             + "vertical-flip image-name dest-image-name\n"
             + "horizontal-flip image-name dest-image-name\n"
             + "brighten increment image-name dest-image-name\n"
-            + "blur image-name dest-image-name\n"
-            + "sharpen image-name dest-image-name\n"
+            + "blur image-name dest-image-name [zero|clamp|mirror|wrap]\n"
+            + "sharpen image-name dest-image-name [zero|clamp|mirror|wrap]\n"
+            + "box-blur radius image-name dest-image-name [zero|clamp|mirror|wrap]\n"
+            + "gaussian-blur sigma image-name dest-image-name [zero|clamp|mirror|wrap]\n"
+            + "filter kernel-path image-name dest-image-name [zero|clamp|mirror|wrap]\n"
+            + "median radius image-name dest-image-name [clamp|zero|mirror|wrap]\n"
             + "greyscale image-name dest-image-name\n"
             + "sepia image-name dest-image-name\n"
             + "Error: command laod not found. Please re-enter: \n"
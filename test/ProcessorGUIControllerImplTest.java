@@ -67,6 +67,14 @@ public class ProcessorGUIControllerImplTest {
             "Greyscale"));
     this.controller.actionPerformed(new ActionEvent(blankComponent, ActionEvent.ACTION_PERFORMED,
             "Sepia"));
+    this.controller.actionPerformed(new ActionEvent(blankComponent, ActionEvent.ACTION_PERFORMED,
+            "Box Blur"));
+    this.controller.actionPerformed(new ActionEvent(blankComponent, ActionEvent.ACTION_PERFORMED,
+            "Gaussian Blur"));
+    this.controller.actionPerformed(new ActionEvent(blankComponent, ActionEvent.ACTION_PERFORMED,
+            "Custom Filter"));
+    this.controller.actionPerformed(new ActionEvent(blankComponent, ActionEvent.ACTION_PERFORMED,
+            "Median"));
 
     String expectedOutput = "Called createMenuBar\n"
             + "Called getPathToOpen\n"
@@ -88,6 +96,14 @@ public class ProcessorGUIControllerImplTest {
             + "Called refresh\n"
             + "Called refresh\n"
             + "Called refresh\n"
+            + "Called refresh\n"
+            + "Called getBoxBlurRadius\n"
+            + "Called refresh\n"
+            + "Called getGaussianSigma\n"
+            + "Called refresh\n"
+            + "Called getKernelPath\n"
+            + "Called refresh\n"
+            + "Called getMedianRadius\n"
             + "Called refresh\n";
     assertEquals(expectedOutput, this.out.toString());
   }
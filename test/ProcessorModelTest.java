@@ -9,9 +9,11 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import model.EdgeMode;
 import model.ImageModel;
 import model.ImageModelImpl;
 import model.Pixel;
@@ -154,6 +156,69 @@ public class ProcessorModelTest {
     assertEquals("image3", this.fourByThreeProcessor.getNameLastEdited());
   }
 
+  @Test
+  public void testAddImageReplacesByName() {
+    this.fourByThreeProcessor.addImage(this.image1);
+    this.fourByThreeProcessor.addImage(this.image2);
+    ImageModel replacement = new ImageModelImpl(this.fourByThreePixels, "image1", 100);
+    this.fourByThreeProcessor.addImage(replacement);
+
+    assertEquals(replacement, this.fourByThreeProcessor.getImage("image1"));
+    assertEquals(this.image2, this.fourByThreeProcessor.getImage("image2"));
+    assertEquals("image1", this.fourByThreeProcessor.getNameLastEdited());
+  }
+
+  @Test
+  public void testConcurrentAddImage() throws InterruptedException {
+    // each thread adds its own images and replaces a shared one, reading back as it goes
+    int threadCount = 4;
+    int imagesPerThread = 200;
+    List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+    Thread[] threads = new Thread[threadCount];
+    for (int thread = 0; thread < threadCount; thread++) {
+      String prefix = "thread" + thread + "-";
+      threads[thread] = new Thread(() -> {
+        try {
+          for (int index = 0; index < imagesPerThread; index++) {
+            ImageModel own = new ImageModelImpl(this.fourByThreePixels, prefix + index, 255);
+            this.fourByThreeProcessor.addImage(own);
+            this.fourByThreeProcessor.addImage(new ImageModelImpl(this.fourByThreePixels,
+                    "shared", 255));
+            assertEquals(own, this.fourByThreeProcessor.getImage(prefix + index));
+            this.fourByThreeProcessor.getImage(
+                    this.fourByThreeProcessor.getNameLastEdited());
+          }
+        }
+        catch (Throwable e) {
+          failures.add(e);
+        }
+      });
+      threads[thread].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals("[]", failures.toString());
+    for (int thread = 0; thread < threadCount; thread++) {
+      for (int index = 0; index < imagesPerThread; index++) {
+        this.fourByThreeProcessor.getImage("thread" + thread + "-" + index);
+      }
+    }
+    // every thread added the shared image last
+    assertEquals("shared", this.fourByThreeProcessor.getNameLastEdited());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddImageExceptionNull() {
+    this.fourByThreeProcessor.addImage(null);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGetCurrentImageExceptionEmpty() {
+    this.fourByThreeProcessor.getCurrentImage();
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testGetImageExceptionNameNotFound() {
     this.fourByThreeProcessor.addImage(this.image1);
@@ -810,6 +875,63 @@ public class ProcessorModelTest {
             filterProcessor.getImage("imageBlur").getMaxRGB());
   }
 
+  // writes the lines to a temporary kernel file and returns its path
+  private static String writeKernelFile(String... lines) throws IOException {
+    File kernelFile = File.createTempFile("kernel", ".txt");
+    kernelFile.deleteOnExit();
+    try (FileWriter writer = new FileWriter(kernelFile)) {
+      for (String line : lines) {
+        writer.write(line + System.lineSeparator());
+      }
+    }
+    return kernelFile.getPath();
+  }
+
+  @Test
+  public void testFilter() throws IOException {
+    ProcessorModel filterProcessor = new ProcessorModelImpl();
+    filterProcessor.addImage(this.image1);
+    filterProcessor.blur("image1", "imageBlur");
+    // the blur kernel, written out with a comment and fractions
+    filterProcessor.filter(writeKernelFile("# blur", "1/16 0.125 1/16", "",
+            "1/8  1/4   1/8", "0.0625 0.125 0.0625"), "image1", "imageFilter",
+            EdgeMode.ZERO);
+
+    assertEquals("imageFilter", filterProcessor.getNameLastEdited());
+    int[] expected = new int[12];
+    int[] actual = new int[12];
+    filterProcessor.getImage("imageBlur").getRGBRegion(0, 0, 3, 4, expected, 0);
+    filterProcessor.getImage("imageFilter").getRGBRegion(0, 0, 3, 4, actual, 0);
+    assertEquals(Arrays.toString(expected), Arrays.toString(actual));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFilterExceptionKernelNotFound() {
+    this.fourByThreeProcessor.addImage(this.image1);
+    this.fourByThreeProcessor.filter("res/no-such-kernel.txt", "image1", "imageFilter",
+            EdgeMode.ZERO);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFilterExceptionInvalidWeight() throws IOException {
+    this.fourByThreeProcessor.addImage(this.image1);
+    this.fourByThreeProcessor.filter(writeKernelFile("1 2 x"), "image1", "imageFilter",
+            EdgeMode.ZERO);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFilterExceptionEvenKernel() throws IOException {
+    this.fourByThreeProcessor.addImage(this.image1);
+    this.fourByThreeProcessor.filter(writeKernelFile("1 2", "3 4"), "image1", "imageFilter",
+            EdgeMode.ZERO);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFilterExceptionNoImageFound() {
+    this.fourByThreeProcessor.filter("res/sharpen-kernel.txt", "image1", "imageFilter",
+            EdgeMode.ZERO);
+  }
+
   @Test
   public void testSharpen() {
     ProcessorModel filterProcessor = new ProcessorModelImpl();
@@ -0,0 +1,163 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import controller.ProcessorControllerImpl;
+import controller.ProcessorPrefetchingControllerImpl;
+import model.ImageModel;
+import model.ProcessorModel;
+import model.ProcessorModelImpl;
+import view.ProcessorViewImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the controller.ProcessorPrefetchingControllerImpl class.
+ */
+public class ProcessorPrefetchingControllerImplTest {
+  File root;
+  String script;
+
+  @Before
+  public void setUp() throws IOException {
+    this.root = Files.createTempDirectory("prefetch").toFile();
+    this.root.deleteOnExit();
+    for (int image = 0; image < 4; image++) {
+      File file = new File(this.root, "image" + image + ".ppm");
+      file.deleteOnExit();
+      try (FileWriter writer = new FileWriter(file)) {
+        writer.write("P3\n2 1\n255\n" + (10 * image) + " 20 30 40 50 60\n");
+      }
+    }
+    File copy = new File(this.root, "copy.ppm");
+    copy.deleteOnExit();
+
+    // the last load reads the file the save writes, so it must not be read ahead of the save
+    this.script = "load " + this.path("image0.ppm") + " a\n"
+            + "load " + this.path("missing.ppm") + " missing\n"
+            + "horizontal-flip a flipped\n"
+            + "load " + this.path("image1.ppm") + " b\n"
+            + "laod " + this.path("image1.ppm") + " b\n"
+            + "save " + copy.getPath() + " flipped\n"
+            + "load " + this.path("image2.ppm") + " c\n"
+            + "load " + this.path("image3.ppm") + " d\n"
+            + "load " + copy.getPath() + " copy\n";
+  }
+
+  // returns the path of a file in the test directory
+  private String path(String name) {
+    return new File(this.root, name).getPath();
+  }
+
+  @Test
+  public void testSameAsSequential() {
+    ProcessorModel sequentialModel = new ProcessorModelImpl();
+    StringBuilder sequentialOut = new StringBuilder();
+    new ProcessorControllerImpl(sequentialModel, new ProcessorViewImpl(sequentialOut),
+            new StringReader(this.script + "quit\n")).runProcessor();
+
+    for (int maxPrefetched : new int[] {1, 2, 8}) {
+      ProcessorModel model = new ProcessorModelImpl();
+      StringBuilder out = new StringBuilder();
+      new ProcessorPrefetchingControllerImpl(model, new ProcessorViewImpl(out),
+              new StringReader(this.script + "quit\n"), maxPrefetched).runProcessor();
+
+      assertEquals(sequentialOut.toString(), out.toString());
+      for (String name : new String[] {"a", "b", "c", "d", "copy"}) {
+        for (int col = 0; col < 2; col++) {
+          assertEquals(name, sequentialModel.getImage(name).getRGB(0, col),
+                  model.getImage(name).getRGB(0, col));
+        }
+      }
+      // the copy was read after it was saved
+      assertEquals(0x00141E, model.getImage("copy").getRGB(0, 1));
+      assertEquals("copy", model.getNameLastEdited());
+    }
+    assertTrue(sequentialOut.toString().contains(
+            "error: loading from an imagePath that does not exist\nPlease re-enter: \n"));
+  }
+
+  @Test
+  public void testReadsAheadUpToCap() {
+    for (int maxPrefetched : new int[] {1, 3}) {
+      CountingModel model = new CountingModel();
+      new ProcessorPrefetchingControllerImpl(model, new ProcessorViewImpl(new StringBuilder()),
+              new StringReader(this.script + "quit\n"), maxPrefetched).runProcessor();
+
+      assertTrue(model.mostWaiting <= maxPrefetched);
+      // every image, even the copy once it was saved, was read ahead on another thread
+      assertEquals(5, model.threads.size());
+      assertEquals(model.threads.toString(), 5,
+              Collections.frequency(model.threads, "processor-prefetch"));
+    }
+  }
+
+  @Test
+  public void testNoQuit() {
+    StringBuilder out = new StringBuilder();
+    try {
+      new ProcessorPrefetchingControllerImpl(new ProcessorModelImpl(),
+              new ProcessorViewImpl(out), new StringReader(this.script)).runProcessor();
+      fail("expected the script to fail without quitting");
+    }
+    catch (IllegalStateException e) {
+      assertEquals("Error: failed to read input", e.getMessage());
+    }
+    assertEquals(9, out.toString().split("Please re-enter|successfully").length - 1);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testConstructorExceptionMaxPrefetched() {
+    new ProcessorPrefetchingControllerImpl(new ProcessorModelImpl(),
+            new ProcessorViewImpl(new StringBuilder()), new StringReader(""), 0);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testConstructorExceptionNullModel() {
+    new ProcessorPrefetchingControllerImpl(null, new ProcessorViewImpl(new StringBuilder()),
+            new StringReader(""));
+  }
+
+  // a model that records the thread each image is read on and the most images read but not
+  // yet added at once
+  private static final class CountingModel extends ProcessorModelImpl {
+    private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+    private final Set<ImageModel> read = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int waiting;
+    private int mostWaiting;
+
+    @Override
+    public ImageModel readImage(String imagePath, String imageName) {
+      ImageModel image = super.readImage(imagePath, imageName);
+      this.threads.add(Thread.currentThread().getName());
+      synchronized (this) {
+        this.read.add(image);
+        this.waiting++;
+        this.mostWaiting = Math.max(this.mostWaiting, this.waiting);
+      }
+      return image;
+    }
+
+    @Override
+    public void addImage(ImageModel image) {
+      super.addImage(image);
+      synchronized (this) {
+        if (this.read.remove(image)) {
+          this.waiting--;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,247 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import controller.ProcessorControllerImpl;
+import controller.ProcessorScheduledControllerImpl;
+import controller.command.ImageProcessorCommand;
+import model.ProcessorModel;
+import model.ProcessorModelImpl;
+import view.ProcessorViewImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the controller.ProcessorScheduledControllerImpl class.
+ */
+public class ProcessorScheduledControllerImplTest {
+  File root;
+  String script;
+
+  @Before
+  public void setUp() throws IOException {
+    this.root = Files.createTempDirectory("scheduled").toFile();
+    this.root.deleteOnExit();
+    File image = new File(this.root, "image.ppm");
+    image.deleteOnExit();
+    new File(this.root, "copy.ppm").deleteOnExit();
+    try (FileWriter writer = new FileWriter(image)) {
+      writer.write("P3\n3 1\n255\n10 20 30 40 50 60 70 80 90\n");
+    }
+
+    // every kind of hazard: the brighten overwrites the image the flip reads, the second load
+    // reads the file the save writes, and the name "image" is reused for another image
+    this.script = "load " + image.getPath() + " image\n"
+            + "laod " + image.getPath() + " image\n"
+            + "horizontal-flip image flipped\n"
+            + "red-component image red\n"
+            + "brighten 10 image image\n"
+            + "vertical-flip image brightened\n"
+            + "brighten notANumber image other\n"
+            + "save " + new File(this.root, "copy.ppm").getPath() + " flipped\n"
+            + "load " + new File(this.root, "copy.ppm").getPath() + " copy\n"
+            + "greyscale missing grey\n"
+            + "horizontal-flip copy image\n";
+  }
+
+  @Test
+  public void testSameAsSequential() {
+    ProcessorModel sequentialModel = new ProcessorModelImpl();
+    StringBuilder sequentialOut = new StringBuilder();
+    new ProcessorControllerImpl(sequentialModel, new ProcessorViewImpl(sequentialOut),
+            new StringReader(this.script + "quit\n")).runProcessor();
+
+    for (int maxCommands : new int[] {1, 2, 8}) {
+      ProcessorModel model = new ProcessorModelImpl();
+      StringBuilder out = new StringBuilder();
+      new ProcessorScheduledControllerImpl(model, new ProcessorViewImpl(out),
+              new StringReader(this.script + "quit\n"), maxCommands).runProcessor();
+
+      assertEquals(sequentialOut.toString(), out.toString());
+      for (String name : new String[] {"flipped", "red", "brightened", "copy", "image"}) {
+        for (int col = 0; col < 3; col++) {
+          assertEquals(name, sequentialModel.getImage(name).getRGB(0, col),
+                  model.getImage(name).getRGB(0, col));
+        }
+      }
+    }
+    // the flip saw the image before it was brightened, and the last flip replaced it
+    assertTrue(sequentialOut.toString().contains("Error: command laod not found."));
+    assertEquals(0x0A141E, sequentialModel.getImage("flipped").getRGB(0, 2));
+    assertEquals(0x141E28, sequentialModel.getImage("brightened").getRGB(0, 0));
+    assertEquals(0x0A141E, sequentialModel.getImage("image").getRGB(0, 0));
+  }
+
+  @Test
+  public void testNoQuit() {
+    StringBuilder out = new StringBuilder();
+    try {
+      new ProcessorScheduledControllerImpl(new ProcessorModelImpl(), new ProcessorViewImpl(out),
+              new StringReader(this.script)).runProcessor();
+      fail("expected the script to fail without quitting");
+    }
+    catch (IllegalStateException e) {
+      assertEquals("Error: failed to read input", e.getMessage());
+    }
+    // every line was still run and answered
+    assertEquals(11, out.toString().split("Please re-enter|successfully").length - 1);
+    assertTrue(!out.toString().contains("Goodbye"));
+  }
+
+  @Test
+  public void testIndependentCommandsOverlap() {
+    // each command waits for the other to start, which only happens if they run at once
+    CountDownLatch started = new CountDownLatch(2);
+    List<String> log = Collections.synchronizedList(new ArrayList<>());
+    StringBuilder out = new StringBuilder();
+    new LoggingController(new StringReader("wait a\nwait b\nquit\n"), out, log, started, 2)
+            .runProcessor();
+
+    assertTrue(out.toString(), out.toString().endsWith("Command executed successfully!\n"
+            + "Command executed successfully!\nImage processor quit. Goodbye!"));
+  }
+
+  @Test
+  public void testHazardsRespected() {
+    List<String> log = Collections.synchronizedList(new ArrayList<>());
+    StringBuilder out = new StringBuilder();
+    // writing a must wait for the slow read of a; reading b must wait for the write of b; the
+    // barrier must wait for everything before it, and what comes after must wait for it
+    new LoggingController(new StringReader("slow-read a\nwrite a\nwrite b\nslow-read b\n"
+            + "barrier\nwrite c\nquit\n"), out, log, new CountDownLatch(0), 4).runProcessor();
+
+    assertTrue(log.indexOf("end slow-read a") < log.indexOf("start write a"));
+    assertTrue(log.indexOf("end write b") < log.indexOf("start slow-read b"));
+    assertTrue(log.indexOf("end slow-read b") < log.indexOf("start barrier"));
+    assertTrue(log.indexOf("end write a") < log.indexOf("start barrier"));
+    assertTrue(log.indexOf("end barrier") < log.indexOf("start write c"));
+    assertEquals(12, log.size());
+  }
+
+  @Test
+  public void testNoFileWrittenAfterFailure() {
+    List<String> log = Collections.synchronizedList(new ArrayList<>());
+    StringBuilder out = new StringBuilder();
+    // the file write shares nothing with the crash, but still waits for it, and so never runs
+    try {
+      new LoggingController(new StringReader("write a\ncrash b\nwrite c\nwrite-file d.ppm\n"
+              + "write e\nquit\n"), out, log, new CountDownLatch(0), 4).runProcessor();
+      fail("expected the crash to stop the script");
+    }
+    catch (IllegalStateException e) {
+      assertEquals("error: crash b crashed", e.getMessage());
+    }
+    assertTrue(log.toString(), log.contains("end write a"));
+    assertTrue(log.toString(), !log.contains("start write-file d.ppm"));
+    assertTrue(out.toString().endsWith("Command executed successfully!\n"));
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testConstructorExceptionMaxCommands() {
+    new ProcessorScheduledControllerImpl(new ProcessorModelImpl(),
+            new ProcessorViewImpl(new StringBuilder()), new StringReader(""), 0);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testConstructorExceptionNullModel() {
+    new ProcessorScheduledControllerImpl(null, new ProcessorViewImpl(new StringBuilder()),
+            new StringReader(""));
+  }
+
+  // a scheduled controller whose commands log when they start and end instead of editing images
+  private static final class LoggingController extends ProcessorScheduledControllerImpl {
+    private final List<String> log;
+    private final CountDownLatch started;
+
+    private LoggingController(Readable input, Appendable out, List<String> log,
+                              CountDownLatch started, int maxCommands) {
+      super(new ProcessorModelImpl(), new ProcessorViewImpl(out), input, maxCommands);
+      this.log = log;
+      this.started = started;
+    }
+
+    @Override
+    protected Map<String, Function<String[], ImageProcessorCommand>> createMapOfCommands() {
+      Map<String, Function<String[], ImageProcessorCommand>> commands =
+              super.createMapOfCommands();
+      commands.put("wait", (String[] args) -> new LoggedCommand("wait " + args[0],
+              Set.of(), Set.of(args[0]), 0));
+      commands.put("slow-read", (String[] args) -> new LoggedCommand("slow-read " + args[0],
+              Set.of(args[0]), Set.of(), 50));
+      commands.put("write", (String[] args) -> new LoggedCommand("write " + args[0],
+              Set.of(), Set.of(args[0]), 0));
+      commands.put("barrier", (String[] args) -> new LoggedCommand("barrier", null, null, 0));
+      commands.put("crash", (String[] args) -> new LoggedCommand("crash " + args[0], Set.of(),
+              Set.of(args[0]), 50, true));
+      commands.put("write-file", (String[] args) -> new LoggedCommand("write-file " + args[0],
+              Set.of(), Set.of(ImageProcessorCommand.fileResource(args[0])), 0));
+      return commands;
+    }
+
+    // a command that logs its start and end, waiting for the others to start in between
+    private final class LoggedCommand implements ImageProcessorCommand {
+      private final String name;
+      private final Set<String> reads;
+      private final Set<String> writes;
+      private final long sleep;
+      private final boolean crashes;
+
+      private LoggedCommand(String name, Set<String> reads, Set<String> writes, long sleep) {
+        this(name, reads, writes, sleep, false);
+      }
+
+      private LoggedCommand(String name, Set<String> reads, Set<String> writes, long sleep,
+                            boolean crashes) {
+        this.name = name;
+        this.reads = reads;
+        this.writes = writes;
+        this.sleep = sleep;
+        this.crashes = crashes;
+      }
+
+      @Override
+      public void executeCommand(ProcessorModel model) {
+        log.add("start " + this.name);
+        started.countDown();
+        try {
+          if (!started.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalArgumentException("error: commands did not run at once");
+          }
+          Thread.sleep(this.sleep);
+        }
+        catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        if (this.crashes) {
+          throw new IllegalStateException("error: " + this.name + " crashed");
+        }
+        log.add("end " + this.name);
+      }
+
+      @Override
+      public Set<String> getReads() {
+        return this.reads;
+      }
+
+      @Override
+      public Set<String> getWrites() {
+        return this.writes;
+      }
+    }
+  }
+}
@@ -0,0 +1,188 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import controller.ProcessorServerControllerImpl;
+import model.ProcessorModelImpl;
+import view.ProcessorViewImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the controller.ProcessorServerControllerImpl class.
+ */
+public class ProcessorServerControllerImplTest {
+  StringBuffer log;
+  File root;
+  File image;
+  ProcessorServerControllerImpl server;
+  Thread serverThread;
+
+  @Before
+  public void setUp() throws IOException {
+    this.log = new StringBuffer();
+    this.root = Files.createTempDirectory("server").toFile();
+    this.root.deleteOnExit();
+    this.image = new File(this.root, "image.ppm");
+    this.image.deleteOnExit();
+    try (FileWriter writer = new FileWriter(this.image)) {
+      writer.write("P3\n2 1\n255\n10 20 30 40 50 60\n");
+    }
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    if (this.server != null) {
+      this.server.stop();
+      this.serverThread.join(5000);
+    }
+  }
+
+  // starts a server on the given address and waits until it is listening
+  private void start(String address) throws InterruptedException {
+    this.server = new ProcessorServerControllerImpl(ProcessorModelImpl::new,
+            new ProcessorViewImpl(this.log), address);
+    this.serverThread = new Thread(this.server::runProcessor);
+    this.serverThread.start();
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!this.log.toString().startsWith("Listening on ")
+            && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(this.log.toString(), this.log.toString().startsWith("Listening on "));
+  }
+
+  // sends a script over a connection and returns everything sent back until it is closed
+  private static String converse(InputStream in, OutputStream out, String script)
+          throws IOException {
+    out.write(script.getBytes(StandardCharsets.UTF_8));
+    out.flush();
+    ByteArrayOutputStream reply = new ByteArrayOutputStream();
+    in.transferTo(reply);
+    return reply.toString(StandardCharsets.UTF_8);
+  }
+
+  // runs a script in a session on a Unix-domain socket
+  private static String unixSession(String path, String script) throws IOException {
+    try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+      channel.connect(UnixDomainSocketAddress.of(path));
+      return converse(Channels.newInputStream(channel), Channels.newOutputStream(channel),
+              script);
+    }
+  }
+
+  @Test
+  public void testUnixSession() throws Exception {
+    String path = new File(this.root, "processor.sock").getPath();
+    this.start(path);
+
+    assertEquals("rw-------", PosixFilePermissions.toString(
+            Files.getPosixFilePermissions(Paths.get(path))));
+
+    String reply = unixSession(path, "load " + this.image.getPath() + " a\n"
+            + "horizontal-flip a b\nlaod x y\nquit\n");
+    assertTrue(reply.startsWith("Welcome to the image processor!\n"));
+    assertTrue(reply, reply.endsWith("Command executed successfully!\n"
+            + "Command executed successfully!\n"
+            + "Error: command laod not found. Please re-enter: \n"
+            + "Image processor quit. Goodbye!"));
+
+    this.server.stop();
+    this.serverThread.join(5000);
+    assertFalse(this.serverThread.isAlive());
+    assertFalse(new File(path).exists());
+  }
+
+  @Test
+  public void testSessionsHaveOwnImages() throws Exception {
+    String path = new File(this.root, "isolated.sock").getPath();
+    this.start(path);
+
+    unixSession(path, "load " + this.image.getPath() + " a\nquit\n");
+    String reply = unixSession(path, "horizontal-flip a b\nquit\n");
+    assertTrue(reply, reply.endsWith("error: image with given name not found\n"
+            + "Please re-enter: \nImage processor quit. Goodbye!"));
+  }
+
+  @Test
+  public void testClientDisconnectsWithoutQuit() throws Exception {
+    String path = new File(this.root, "disconnect.sock").getPath();
+    this.start(path);
+
+    try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+      channel.connect(UnixDomainSocketAddress.of(path));
+      OutputStream out = Channels.newOutputStream(channel);
+      out.write(("load " + this.image.getPath() + " a\n").getBytes(StandardCharsets.UTF_8));
+      channel.shutdownOutput();
+      ByteArrayOutputStream reply = new ByteArrayOutputStream();
+      Channels.newInputStream(channel).transferTo(reply);
+      assertTrue(reply.toString(StandardCharsets.UTF_8).endsWith(
+              "Command executed successfully!\n"));
+    }
+    // the server keeps going and does not report the disconnect as an error
+    assertTrue(unixSession(path, "quit\n").endsWith("Goodbye!"));
+    assertFalse(this.log.toString(), this.log.toString().contains("Error"));
+  }
+
+  @Test
+  public void testTcpSession() throws Exception {
+    int port;
+    try (ServerSocket free = new ServerSocket(0)) {
+      port = free.getLocalPort();
+    }
+    this.start(Integer.toString(port));
+
+    try (Socket socket = new Socket("127.0.0.1", port)) {
+      String reply = converse(socket.getInputStream(), socket.getOutputStream(),
+              "load " + this.image.getPath() + " a\nq\n");
+      assertTrue(reply, reply.endsWith("Command executed successfully!\n"
+              + "Image processor quit. Goodbye!"));
+    }
+  }
+
+  @Test
+  public void testAddressInUse() throws Exception {
+    String path = new File(this.root, "used.sock").getPath();
+    this.start(path);
+    try {
+      new ProcessorServerControllerImpl(ProcessorModelImpl::new, new ProcessorViewImpl(this.log),
+              path).runProcessor();
+    }
+    catch (IllegalStateException e) {
+      assertEquals("Error: failed to listen on " + path, e.getMessage());
+      return;
+    }
+    throw new AssertionError("expected the second server to fail");
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testConstructorExceptionPort() {
+    new ProcessorServerControllerImpl(ProcessorModelImpl::new,
+            new ProcessorViewImpl(new StringBuilder()), "70000");
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testConstructorExceptionNullAddress() {
+    new ProcessorServerControllerImpl(ProcessorModelImpl::new,
+            new ProcessorViewImpl(new StringBuilder()), null);
+  }
+}
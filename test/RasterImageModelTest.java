@@ -0,0 +1,114 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import model.ImageModel;
+import model.Pixel;
+import model.RasterImageModel;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for the model.RasterImageModel class.
+ */
+public class RasterImageModelTest {
+  private int[] twoByThreeRaster;
+  private ImageModel twoByThreeImage;
+
+  @Before
+  public void setUp() {
+    this.twoByThreeRaster = new int[]{
+        Pixel.pack(228, 243, 52), Pixel.pack(56, 135, 32), Pixel.pack(252, 154, 142),
+        Pixel.pack(207, 191, 127), Pixel.pack(81, 163, 148), Pixel.pack(66, 94, 1)};
+    this.twoByThreeImage = new RasterImageModel(this.twoByThreeRaster, 3, 2, "twoByThree", 255);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorEmptyName() {
+    new RasterImageModel(this.twoByThreeRaster, 3, 2, "", 255);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorInvalidMaxRGB() {
+    new RasterImageModel(this.twoByThreeRaster, 3, 2, "image", 256);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructorWrongDimensions() {
+    new RasterImageModel(this.twoByThreeRaster, 2, 2, "image", 255);
+  }
+
+  @Test
+  public void testConstructorCopiesRaster() {
+    this.twoByThreeRaster[0] = 0;
+    assertEquals(Pixel.pack(228, 243, 52), this.twoByThreeImage.getRGB(0, 0));
+  }
+
+  @Test
+  public void testGetDimensions() {
+    assertEquals(3, this.twoByThreeImage.getWidth());
+    assertEquals(2, this.twoByThreeImage.getHeight());
+    assertEquals(255, this.twoByThreeImage.getMaxRGB());
+    assertEquals("twoByThree", this.twoByThreeImage.getName());
+  }
+
+  @Test
+  public void testGetRGB() {
+    assertEquals(Pixel.pack(56, 135, 32), this.twoByThreeImage.getRGB(0, 1));
+    assertEquals(Pixel.pack(66, 94, 1), this.twoByThreeImage.getRGB(1, 2));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetRGBOutOfBounds() {
+    this.twoByThreeImage.getRGB(0, 3);
+  }
+
+  @Test
+  public void testGetRGBRow() {
+    int[] row = new int[4];
+    this.twoByThreeImage.getRGBRow(1, row, 1);
+    assertEquals(0, row[0]);
+    assertEquals(Pixel.pack(207, 191, 127), row[1]);
+    assertEquals(Pixel.pack(81, 163, 148), row[2]);
+    assertEquals(Pixel.pack(66, 94, 1), row[3]);
+  }
+
+  @Test
+  public void testGetRGBRegion() {
+    int[] region = new int[4];
+    this.twoByThreeImage.getRGBRegion(0, 1, 2, 2, region, 0);
+    assertEquals(Pixel.pack(56, 135, 32), region[0]);
+    assertEquals(Pixel.pack(252, 154, 142), region[1]);
+    assertEquals(Pixel.pack(81, 163, 148), region[2]);
+    assertEquals(Pixel.pack(66, 94, 1), region[3]);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetRGBRegionOutOfBounds() {
+    this.twoByThreeImage.getRGBRegion(1, 1, 2, 2, new int[4], 0);
+  }
+
+  @Test
+  public void testGetPixels() {
+    List<List<Pixel>> pixels = this.twoByThreeImage.getPixels();
+    assertEquals(2, pixels.size());
+    assertEquals(3, pixels.get(0).size());
+    assertEquals(252, pixels.get(0).get(2).getRed());
+    assertEquals(154, pixels.get(0).get(2).getGreen());
+    assertEquals(142, pixels.get(0).get(2).getBlue());
+    assertEquals(81, pixels.get(1).get(1).getRed());
+  }
+
+  @Test
+  public void testFlipsKeepRaster() {
+    ImageModel horizontal = this.twoByThreeImage.getImageFlipHorizontal("horizontal");
+    ImageModel vertical = this.twoByThreeImage.getImageFlipVertical("vertical");
+    for (int row = 0; row < 2; row++) {
+      for (int col = 0; col < 3; col++) {
+        assertEquals(this.twoByThreeImage.getRGB(row, col), horizontal.getRGB(row, 2 - col));
+        assertEquals(this.twoByThreeImage.getRGB(row, col), vertical.getRGB(1 - row, col));
+      }
+    }
+  }
+}
@@ -0,0 +1,211 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.Random;
+
+import controller.ProcessorControllerImpl;
+import model.ColorComposition;
+import model.ProcessorModel;
+import model.ProcessorModelImpl;
+import model.RasterImageModel;
+import model.SaveMode;
+import view.ProcessorViewImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the saves of model.ProcessorModelImpl in each model.SaveMode.
+ */
+public class SaveModeTest {
+  File root;
+
+  @Before
+  public void setUp() throws IOException {
+    this.root = Files.createTempDirectory("saves").toFile();
+    this.root.deleteOnExit();
+  }
+
+  // returns the path of a file in the test directory that is deleted when the tests finish
+  private String path(String name) {
+    File file = new File(this.root, name);
+    file.deleteOnExit();
+    return file.getPath();
+  }
+
+  // returns a model in the given save mode with images named 0 to count - 1, each one pixel of
+  // its own color
+  private static ProcessorModel model(SaveMode mode, int count) {
+    ProcessorModel model = new ProcessorModelImpl(false, ColorComposition.STEPWISE, mode);
+    for (int image = 0; image < count; image++) {
+      model.addImage(new RasterImageModel(new int[] {image, 0x102030}, 2, 1,
+              Integer.toString(image), 255));
+    }
+    return model;
+  }
+
+  @Test
+  public void testEveryModeWritesEverySave() {
+    for (SaveMode mode : SaveMode.values()) {
+      ProcessorModel model = model(mode, 10);
+      for (int image = 0; image < 10; image++) {
+        model.save(this.path(mode + "-" + image + ".ppm"), Integer.toString(image));
+      }
+      model.flush();
+
+      ProcessorModel loaded = new ProcessorModelImpl();
+      for (int image = 0; image < 10; image++) {
+        loaded.load(this.path(mode + "-" + image + ".ppm"), "loaded");
+        assertEquals(image, loaded.getImage("loaded").getRGB(0, 0));
+        assertEquals(0x102030, loaded.getImage("loaded").getRGB(0, 1));
+      }
+    }
+  }
+
+  @Test
+  public void testSavesToSameFileInOrder() {
+    for (SaveMode mode : SaveMode.values()) {
+      ProcessorModel model = model(mode, 20);
+      String path = this.path(mode + "-same.png");
+      for (int image = 0; image < 20; image++) {
+        model.save(path, Integer.toString(image));
+      }
+      model.flush();
+
+      ProcessorModel loaded = new ProcessorModelImpl();
+      loaded.load(path, "loaded");
+      assertEquals(19, loaded.getImage("loaded").getRGB(0, 0));
+    }
+  }
+
+  @Test
+  public void testOrderedWritesInScriptOrder() throws InterruptedException {
+    ProcessorModel model = model(SaveMode.ORDERED, 2);
+    int[] raster = new int[1000 * 1000];
+    Random random = new Random(23);
+    for (int index = 0; index < raster.length; index++) {
+      raster[index] = random.nextInt(1 << 24);
+    }
+    model.addImage(new RasterImageModel(raster, 1000, 1000, "large", 255));
+    String first = this.path("first.ppm");
+    File second = new File(this.path("second.ppm"));
+    // the large image is slow to write, and the second save to the same file must still be
+    // written before the save to the other file after it
+    model.save(first, "large");
+    model.save(first, "0");
+    model.save(second.getPath(), "1");
+
+    long deadline = System.currentTimeMillis() + 30000;
+    while (!second.exists() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(1);
+    }
+    assertTrue(second.exists());
+    ProcessorModel loaded = new ProcessorModelImpl();
+    loaded.load(first, "loaded");
+    assertEquals(2, loaded.getImage("loaded").getWidth());
+    assertEquals(0, loaded.getImage("loaded").getRGB(0, 0));
+    model.flush();
+  }
+
+  @Test
+  public void testLoadWaitsForSave() {
+    for (SaveMode mode : SaveMode.values()) {
+      ProcessorModel model = model(mode, 3);
+      String path = this.path(mode + "-reload.bmp");
+      model.save(path, "0");
+      model.save(path, "2");
+      // no flush: loading the file waits for the saves to it
+      model.load(path, "reloaded");
+      assertEquals(2, model.getImage("reloaded").getRGB(0, 0));
+      model.flush();
+    }
+  }
+
+  @Test
+  public void testSynchronousErrorThrownBySave() {
+    ProcessorModel model = model(SaveMode.SYNCHRONOUS, 1);
+    try {
+      model.save(new File(this.root, "missing/0.ppm").getPath(), "0");
+      fail("expected the save to fail");
+    }
+    catch (IllegalStateException e) {
+      assertEquals("error: processor failed to write to file", e.getMessage());
+    }
+    model.flush();
+  }
+
+  @Test
+  public void testBackgroundErrorsThrownByFlush() {
+    for (SaveMode mode : new SaveMode[] {SaveMode.ORDERED, SaveMode.CONCURRENT}) {
+      ProcessorModel model = model(mode, 2);
+      model.save(new File(this.root, "missing/0.ppm").getPath(), "0");
+      model.save(this.path(mode + "-written.ppm"), "1");
+      model.save(new File(this.root, "missing/1.ppm").getPath(), "1");
+      try {
+        model.flush();
+        fail("expected the flush to fail");
+      }
+      catch (IllegalStateException e) {
+        assertEquals("error: processor failed to write to file", e.getMessage());
+        assertEquals(1, e.getSuppressed().length);
+      }
+      // the save that worked was still written, and the errors were only reported once
+      assertTrue(new File(this.root, mode + "-written.ppm").exists());
+      model.flush();
+    }
+  }
+
+  @Test
+  public void testBadSaveReportedAtOnce() {
+    ProcessorModel model = model(SaveMode.CONCURRENT, 1);
+    try {
+      model.save(this.path("image.txt"), "0");
+      fail("expected the save to fail");
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("error: invalid file type given", e.getMessage());
+    }
+    try {
+      model.save(this.path("image.ppm"), "missing");
+      fail("expected the save to fail");
+    }
+    catch (IllegalArgumentException e) {
+      assertEquals("error: trying to save imageName not found in processor", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testScriptFlushedAtQuit() {
+    ProcessorModel model = model(SaveMode.CONCURRENT, 1);
+    StringBuilder out = new StringBuilder();
+    String path = this.path("script.jpg");
+    new ProcessorControllerImpl(model, new ProcessorViewImpl(out),
+            new StringReader("save " + path + " 0\nquit\n")).runProcessor();
+
+    assertTrue(new File(path).length() > 0);
+    assertTrue(out.toString().endsWith("Command executed successfully!\n"
+            + "Image processor quit. Goodbye!"));
+  }
+
+  @Test
+  public void testFromName() {
+    assertEquals(SaveMode.ORDERED, SaveMode.fromName("ordered"));
+    assertEquals(SaveMode.CONCURRENT, SaveMode.fromName("Concurrent"));
+    assertEquals(SaveMode.SYNCHRONOUS, SaveMode.fromName("SYNCHRONOUS"));
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testFromNameUnknown() {
+    SaveMode.fromName("later");
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testConstructorExceptionNullSaveMode() {
+    new ProcessorModelImpl(false, ColorComposition.STEPWISE, null);
+  }
+}
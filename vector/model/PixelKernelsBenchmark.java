@@ -0,0 +1,180 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times each loop of {@link ScalarPixelKernels} against {@link VectorPixelKernels} on the same
+ * data, checks that both give exactly the same results, and prints the speedup of each. Like the
+ * filters, each loop is called on runs of a few thousand values that stay in cache. Each
+ * implementation is timed in a JVM of its own, so the just-in-time compiler optimizes every loop
+ * for the one implementation it sees, as it does in the program. Run it with
+ * --add-modules jdk.incubator.vector and optionally the number of pixels as the argument.
+ */
+public final class PixelKernelsBenchmark {
+  private static final int WARMUP_ROUNDS = 30;
+  private static final int TIMED_ROUNDS = 10;
+  // the number of values each call to a loop runs over
+  private static final int RUN_LENGTH = 4096;
+  private static final String[] OPERATIONS = {"lookup table (brighten)",
+      "3x3 color matrix (sepia)", "filter weight, int to double", "filter weight, fixed point"};
+
+  private static final double[] SEPIA = {0.393, 0.769, 0.189, 0.349, 0.686, 0.168, 0.272,
+      0.534, 0.131};
+  private static final double[] NO_OFFSET = new double[3];
+
+  private final int[] pixels;
+  private final int[] dest;
+  private final double[] doubleSums;
+  private final int[] intSums;
+  // the table of brightening by 10
+  private final int[] brighten;
+
+  // creates random pixels and planes of the given size
+  private PixelKernelsBenchmark(int size) {
+    Random random = new Random(1);
+    this.pixels = new int[size];
+    for (int index = 0; index < size; index++) {
+      this.pixels[index] = random.nextInt(0x1000000);
+    }
+    this.dest = new int[size];
+    this.doubleSums = new double[size];
+    this.intSums = new int[size];
+    this.brighten = new int[256];
+    for (int value = 0; value < 256; value++) {
+      this.brighten[value] = Math.min(value + 10, 255);
+    }
+  }
+
+  /**
+   * Runs the benchmark. Given "scalar" or "vector" before the number of pixels, times only that
+   * implementation and prints the time and checksum of each loop on its own line.
+   *
+   * @param args  optionally the number of pixels to run each loop over
+   * @throws IOException if a JVM to time an implementation in cannot be started
+   * @throws InterruptedException if interrupted while waiting for such a JVM
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length > 0 && (args[0].equals("scalar") || args[0].equals("vector"))) {
+      PixelKernels kernels = args[0].equals("scalar") ? new ScalarPixelKernels()
+              : new VectorPixelKernels();
+      new PixelKernelsBenchmark(sizeOf(args, 1)).timeAll(kernels);
+      return;
+    }
+
+    int size = sizeOf(args, 0);
+    List<String> scalar = timeInNewJvm("scalar", size);
+    List<String> vector = timeInNewJvm("vector", size);
+    System.out.println("pixels: " + size + ", loops: " + scalar.get(0) + " vs "
+            + vector.get(0));
+    System.out.printf("%-32s %10s %10s %8s%n", "operation", "scalar ms", "vector ms", "speedup");
+    for (int operation = 0; operation < OPERATIONS.length; operation++) {
+      String[] scalarResult = scalar.get(operation + 1).split(" ");
+      String[] vectorResult = vector.get(operation + 1).split(" ");
+      if (!scalarResult[1].equals(vectorResult[1])) {
+        throw new IllegalStateException("error: results differ for " + OPERATIONS[operation]);
+      }
+      double scalarMillis = Double.parseDouble(scalarResult[0]);
+      double vectorMillis = Double.parseDouble(vectorResult[0]);
+      System.out.printf("%-32s %10.2f %10.2f %7.2fx%n", OPERATIONS[operation], scalarMillis,
+              vectorMillis, scalarMillis / vectorMillis);
+    }
+  }
+
+  // returns the number of pixels given at the index of the arguments, or about 4 million
+  private static int sizeOf(String[] args, int index) {
+    return args.length > index ? Integer.parseInt(args[index]) : 1 << 22;
+  }
+
+  // runs this benchmark for one implementation in a new JVM and returns the lines it prints
+  private static List<String> timeInNewJvm(String kernels, int size)
+          throws IOException, InterruptedException {
+    String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    Process process = new ProcessBuilder(java, "--add-modules", "jdk.incubator.vector", "-cp",
+            System.getProperty("java.class.path"), PixelKernelsBenchmark.class.getName(), kernels,
+            Integer.toString(size)).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(process.getInputStream()))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    }
+    if (process.waitFor() != 0 || lines.size() != OPERATIONS.length + 1) {
+      throw new IllegalStateException("error: could not time the " + kernels + " loops");
+    }
+    return lines;
+  }
+
+  // one loop of the benchmark, which returns a checksum of its results
+  private interface Operation {
+    long run(PixelKernels kernels, int start, int end);
+  }
+
+  // prints the name of the implementation, then the time and checksum of each operation
+  private void timeAll(PixelKernels kernels) {
+    Operation[] operations = {this::lookup, this::colorTransform, this::multiplyAddInts,
+        this::multiplyAddFixed};
+    System.out.println(kernels.name());
+    for (Operation operation : operations) {
+      long checksum = this.runAll(kernels, operation);
+      System.out.println(this.time(kernels, operation) + " " + checksum);
+    }
+  }
+
+  // runs the operation over every pixel, one run at a time, and returns a checksum of the results
+  private long runAll(PixelKernels kernels, Operation operation) {
+    long checksum = 0;
+    for (int start = 0; start < this.pixels.length; start += RUN_LENGTH) {
+      checksum = 31 * checksum
+              + operation.run(kernels, start, Math.min(start + RUN_LENGTH, this.pixels.length));
+    }
+    return checksum;
+  }
+
+  // returns the fastest of several runs of the operation in milliseconds, after warming up
+  private double time(PixelKernels kernels, Operation operation) {
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      this.runAll(kernels, operation);
+    }
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < TIMED_ROUNDS; round++) {
+      long start = System.nanoTime();
+      this.runAll(kernels, operation);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best / 1e6;
+  }
+
+  private long lookup(PixelKernels kernels, int start, int end) {
+    kernels.lookup(this.brighten, this.brighten, this.brighten, 16, 8, 0, this.pixels,
+            this.dest, start, end);
+    return this.dest[start] ^ this.dest[end - 1];
+  }
+
+  private long colorTransform(PixelKernels kernels, int start, int end) {
+    kernels.colorTransform(SEPIA, NO_OFFSET, this.pixels, this.dest, start, end);
+    return this.dest[start] ^ this.dest[end - 1];
+  }
+
+  private long multiplyAddInts(PixelKernels kernels, int start, int end) {
+    Arrays.fill(this.doubleSums, start, end, 0);
+    kernels.multiplyAdd(0.0625, this.pixels, start, this.doubleSums, start, end - start);
+    kernels.multiplyAdd(-0.3, this.pixels, start, this.doubleSums, start, end - start);
+    return Double.doubleToLongBits(this.doubleSums[start] + this.doubleSums[end - 1]);
+  }
+
+  private long multiplyAddFixed(PixelKernels kernels, int start, int end) {
+    Arrays.fill(this.intSums, start, end, 0);
+    kernels.multiplyAdd(3, this.pixels, start, this.intSums, start, end - start);
+    kernels.multiplyAdd(-7, this.pixels, start, this.intSums, start, end - start);
+    return this.intSums[start] ^ this.intSums[end - 1];
+  }
+}
@@ -0,0 +1,103 @@
+package model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implements the innermost loops of filters and point operations with the incubating Vector API,
+ * which compiles to the widest SIMD instructions the processor has, such as AVX2 or AVX-512. Each
+ * lane does the same operations in the same order as {@link ScalarPixelKernels}, multiplying and
+ * then adding without fusing the two, so the results are exactly the same. Loops that the Vector
+ * API of Java 17 does not make faster are left to the scalar implementation.
+ *
+ * <p>This class is compiled separately with --add-modules jdk.incubator.vector and loaded by
+ * {@link PixelKernels} when it is on the class path.
+ */
+final class VectorPixelKernels implements PixelKernels {
+  private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+  // ints with as many lanes as DOUBLES, so components convert to doubles lane for lane
+  private static final VectorSpecies<Integer> NARROW_INTS = VectorSpecies.of(int.class,
+          VectorShape.forBitSize(DOUBLES.length() * Integer.SIZE));
+  private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+  // the loops for the values left over after the last full vector, and for the loops that are
+  // faster without the Vector API
+  private static final PixelKernels SCALAR = new ScalarPixelKernels();
+
+  @Override
+  public String name() {
+    return "vector (" + DOUBLES.vectorBitSize() + "-bit)";
+  }
+
+  @Override
+  public void multiplyAdd(double weight, int[] source, int sourceStart, double[] sums,
+                          int sumsStart, int length) {
+    int bound = DOUBLES.loopBound(length);
+    int index = 0;
+    for (; index < bound; index += DOUBLES.length()) {
+      DoubleVector values = toDoubles(IntVector.fromArray(NARROW_INTS, source,
+              sourceStart + index));
+      DoubleVector.fromArray(DOUBLES, sums, sumsStart + index).add(values.mul(weight))
+              .intoArray(sums, sumsStart + index);
+    }
+    for (; index < length; index++) {
+      sums[sumsStart + index] += weight * source[sourceStart + index];
+    }
+  }
+
+  // the just-in-time compiler already turns the scalar loops of integer sums into SIMD
+  // instructions, which are faster than the same loops written with the Vector API
+  @Override
+  public void multiplyAdd(int weight, int[] source, int sourceStart, int[] sums, int sumsStart,
+                          int length) {
+    SCALAR.multiplyAdd(weight, source, sourceStart, sums, sumsStart, length);
+  }
+
+  @Override
+  public void multiplyAddPairs(int weight, int[] source, int firstStart, int secondStart,
+                               int[] sums, int sumsStart, int length) {
+    SCALAR.multiplyAddPairs(weight, source, firstStart, secondStart, sums, sumsStart, length);
+  }
+
+  // this version of the Vector API has no SIMD conversion from doubles back to ints, and doing it
+  // with other instructions is slower than the scalar loop
+  @Override
+  public void colorTransform(double[] matrix, double[] offset, int[] source, int[] dest,
+                             int start, int end) {
+    SCALAR.colorTransform(matrix, offset, source, dest, start, end);
+  }
+
+  @Override
+  public void lookup(int[] redTable, int[] greenTable, int[] blueTable, int redShift,
+                     int greenShift, int blueShift, int[] source, int[] dest, int start,
+                     int end) {
+    // the gathers read their indices from an array, one run of lanes per channel
+    int lanes = INTS.length();
+    int[] indices = new int[3 * lanes];
+    int bound = start + INTS.loopBound(end - start);
+    int index = start;
+    for (; index < bound; index += lanes) {
+      IntVector rgb = IntVector.fromArray(INTS, source, index);
+      rgb.lanewise(VectorOperators.ASHR, redShift).and(0xFF).intoArray(indices, 0);
+      rgb.lanewise(VectorOperators.ASHR, greenShift).and(0xFF).intoArray(indices, lanes);
+      rgb.lanewise(VectorOperators.ASHR, blueShift).and(0xFF).intoArray(indices, 2 * lanes);
+
+      IntVector red = IntVector.fromArray(INTS, redTable, 0, indices, 0);
+      IntVector green = IntVector.fromArray(INTS, greenTable, 0, indices, lanes);
+      IntVector blue = IntVector.fromArray(INTS, blueTable, 0, indices, 2 * lanes);
+      red.lanewise(VectorOperators.LSHL, 16).or(green.lanewise(VectorOperators.LSHL, 8))
+              .or(blue).intoArray(dest, index);
+    }
+    if (index < end) {
+      SCALAR.lookup(redTable, greenTable, blueTable, redShift, greenShift,
+              blueShift, source, dest, index, end);
+    }
+  }
+
+  // converts each lane of the components to a double
+  private static DoubleVector toDoubles(IntVector components) {
+    return (DoubleVector) components.convertShape(VectorOperators.I2D, DOUBLES, 0);
+  }
+}